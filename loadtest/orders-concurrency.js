@@ -0,0 +1,41 @@
+// Prueba de carga: muchos clientes concurrentes sobre endpoints que bloquean en JDBC
+// Se usa para comparar hilo-por-request (Java 17) contra virtual threads (Java 21)
+//
+//   k6 run -e BASE_URL=http://localhost:8080 -e VUS=800 loadtest/orders-concurrency.js
+import http from 'k6/http';
+import { check, sleep } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const VUS = parseInt(__ENV.VUS || '800');
+
+export const options = {
+    stages: [
+        { duration: '30s', target: VUS },
+        { duration: '2m', target: VUS },
+        { duration: '15s', target: 0 },
+    ],
+    thresholds: {
+        http_req_failed: ['rate<0.01'],
+    },
+};
+
+export function setup() {
+    const res = http.post(`${BASE_URL}/api/auth/login`,
+        JSON.stringify({ email: 'user@test.com', password: '1234' }),
+        { headers: { 'Content-Type': 'application/json' } });
+    check(res, { 'login 200': (r) => r.status === 200 });
+    return { token: res.json('token') };
+}
+
+export default function (data) {
+    const auth = { headers: { Authorization: `Bearer ${data.token}` } };
+
+    const orders = http.get(`${BASE_URL}/api/orders/page?limit=20`, auth);
+    check(orders, { 'orders 200': (r) => r.status === 200 });
+
+    const product = http.get(`${BASE_URL}/api/products/${1 + Math.floor(Math.random() * 8)}`);
+    check(product, { 'product 200': (r) => r.status === 200 });
+
+    // Cliente lento: mantiene la conexión ocupada entre requests
+    sleep(Math.random() * 2);
+}
@@ -2,32 +2,61 @@ package com.ordersystem.api.auth;
 
 import com.ordersystem.api.auth.dto.LoginRequest;
 import com.ordersystem.api.auth.dto.LoginResponse;
+import com.ordersystem.api.auth.dto.RefreshTokenRequest;
+import com.ordersystem.api.exception.BadRequestException;
 import com.ordersystem.application.auth.AuthService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Controller de autenticación
- * Endpoints públicos para login
+ * Endpoints públicos para login y renovación de tokens
  */
 @RestController
 @RequestMapping("/api/auth")
 @RequiredArgsConstructor
 @Tag(name = "Authentication", description = "Endpoints de autenticación")
 public class AuthController {
+    private static final String BEARER_PREFIX = "Bearer ";
+
     private final AuthService authService;
 
     @PostMapping("/login")
     @Operation(summary = "Login", description = "Autenticar usuario y obtener token JWT")
-    public ResponseEntity<LoginResponse> login(@Valid @RequestBody LoginRequest request) {
-        LoginResponse response = authService.login(request);
-        return ResponseEntity.ok(response);
+    public CompletableFuture<ResponseEntity<LoginResponse>> login(@Valid @RequestBody LoginRequest request) {
+        // Respuesta asíncrona: el hilo del request queda libre mientras se verifica la contraseña
+        return authService.login(request).thenApply(ResponseEntity::ok);
+    }
+
+    @PostMapping("/refresh")
+    @Operation(summary = "Renovar token", description = "Obtener un nuevo access token con el refresh token (el refresh token se rota)")
+    public ResponseEntity<LoginResponse> refresh(@Valid @RequestBody RefreshTokenRequest request) {
+        return ResponseEntity.ok(authService.refresh(request.getRefreshToken()));
+    }
+
+    @PostMapping("/logout")
+    @Operation(summary = "Logout", description = "Revocar el access token actual y, opcionalmente, el refresh token")
+    @SecurityRequirement(name = "bearer-jwt")
+    public ResponseEntity<Void> logout(
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+            @RequestBody(required = false) RefreshTokenRequest request) {
+        if (authorization == null || !authorization.startsWith(BEARER_PREFIX)) {
+            throw new BadRequestException("El header Authorization debe tener el formato 'Bearer <token>'");
+        }
+        String accessToken = authorization.substring(BEARER_PREFIX.length());
+        authService.logout(accessToken, request != null ? request.getRefreshToken() : null);
+        return ResponseEntity.noContent().build();
     }
 }
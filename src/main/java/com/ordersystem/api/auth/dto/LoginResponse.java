@@ -18,11 +18,13 @@ import java.util.List;
 public class LoginResponse {
     private String token;
     private String type = "Bearer";
+    private String refreshToken;
     private String email;
     private List<String> roles;
 
-    public LoginResponse(String token, String email, List<String> roles) {
+    public LoginResponse(String token, String refreshToken, String email, List<String> roles) {
         this.token = token;
+        this.refreshToken = refreshToken;
         this.email = email;
         this.roles = roles;
     }
@@ -0,0 +1,10 @@
+package com.ordersystem.api.exception;
+
+/**
+ * Excepción de solicitud inválida (400)
+ */
+public class BadRequestException extends RuntimeException {
+    public BadRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,10 @@
+package com.ordersystem.api.exception;
+
+/**
+ * Excepción de credenciales o token inválidos (401)
+ */
+public class UnauthorizedException extends RuntimeException {
+    public UnauthorizedException(String message) {
+        super(message);
+    }
+}
@@ -1,30 +1,48 @@
 package com.ordersystem.api.order;
 
 import com.ordersystem.api.order.dto.CreateOrderRequest;
+import com.ordersystem.api.order.dto.OrderPageResponse;
 import com.ordersystem.api.order.dto.OrderResponse;
+import com.ordersystem.api.order.dto.OrderSummaryPageResponse;
 import com.ordersystem.api.order.dto.PayOrderRequest;
+import com.ordersystem.api.order.dto.PaymentResponse;
+import com.ordersystem.api.order.dto.UserOrderStatsResponse;
 import com.ordersystem.application.order.CancelOrderService;
 import com.ordersystem.application.order.CreateOrderService;
+import com.ordersystem.application.order.IdempotentCreateOrderService;
+import com.ordersystem.application.order.IdempotentOrderResponse;
 import com.ordersystem.application.order.OrderQueryService;
 import com.ordersystem.application.order.PayOrderService;
-import com.ordersystem.domain.enums.OrderStatus;
+import com.ordersystem.application.order.ShipOrderService;
 import com.ordersystem.domain.model.Order;
 import com.ordersystem.domain.repository.OrderRepository;
+import com.ordersystem.infrastructure.security.AuthenticatedUser;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import com.ordersystem.domain.exception.OrderNotFoundException;
+import com.ordersystem.api.exception.BadRequestException;
 import com.ordersystem.api.exception.ForbiddenException;
+import com.ordersystem.api.exception.UnauthorizedException;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
 import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * Controller de pedidos
@@ -37,22 +55,47 @@ import java.util.List;
 @SecurityRequirement(name = "bearer-jwt")
 public class OrderController {
 
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+    private static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+
     private final CreateOrderService createOrderService;
+    private final IdempotentCreateOrderService idempotentCreateOrderService;
     private final PayOrderService payOrderService;
     private final CancelOrderService cancelOrderService;
+    private final ShipOrderService shipOrderService;
     private final OrderQueryService orderQueryService;
+    private final OrderEventStreams orderEventStreams;
     private final OrderRepository orderRepository;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
-    @Operation(summary = "Crear pedido", description = "Crear un nuevo pedido (valida stock, no lo descuenta)")
+    @Operation(summary = "Crear pedido",
+            description = "Crear un nuevo pedido (valida stock, no lo descuenta). Con el header Idempotency-Key "
+                    + "un reintento con la misma clave devuelve el pedido ya creado (header Idempotent-Replayed)")
     public ResponseEntity<OrderResponse> createOrder(
             @Valid @RequestBody CreateOrderRequest request,
+            @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey,
             Authentication authentication) {
 
         // Obtener ID del usuario autenticado (en producción esto vendría del JWT)
         Long userId = getUserIdFromAuthentication(authentication);
 
+        if (idempotencyKey != null) {
+            if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+                throw new BadRequestException(
+                        "La Idempotency-Key debe tener entre 1 y " + MAX_IDEMPOTENCY_KEY_LENGTH + " caracteres");
+            }
+
+            IdempotentOrderResponse result = idempotentCreateOrderService.execute(userId, idempotencyKey, request);
+            ResponseEntity.BodyBuilder builder = ResponseEntity.status(HttpStatus.CREATED);
+            if (result.replayed()) {
+                builder.header(IDEMPOTENT_REPLAYED_HEADER, "true");
+            }
+            return builder.body(result.response());
+        }
+
         Order order = createOrderService.execute(userId, request);
         OrderResponse response = orderQueryService.getOrderById(order.getId());
 
@@ -78,6 +121,90 @@ public class OrderController {
         return ResponseEntity.ok(orders);
     }
 
+    @GetMapping("/page")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    @Operation(summary = "Listar pedidos paginados",
+            description = "Paginación por cursor (más recientes primero). USER ve sus pedidos, ADMIN ve todos")
+    public ResponseEntity<OrderPageResponse> getOrdersPage(
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) String after,
+            Authentication authentication) {
+
+        OrderPageResponse page = queryPage(limit, authentication,
+                () -> orderQueryService.getAllOrdersPage(after, limit),
+                userId -> orderQueryService.getUserOrdersPage(userId, after, limit));
+
+        return ResponseEntity.ok(page);
+    }
+
+    @GetMapping("/summary")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    @Operation(summary = "Listar resúmenes de pedidos",
+            description = "Listado liviano (id, estado, total, cantidad de items, fecha) con la misma paginación "
+                    + "por cursor que /page. USER ve sus pedidos, ADMIN ve todos")
+    public ResponseEntity<OrderSummaryPageResponse> getOrderSummaries(
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) String after,
+            Authentication authentication) {
+
+        OrderSummaryPageResponse page = queryPage(limit, authentication,
+                () -> orderQueryService.getAllOrderSummariesPage(after, limit),
+                userId -> orderQueryService.getUserOrderSummariesPage(userId, after, limit));
+
+        return ResponseEntity.ok(page);
+    }
+
+    @GetMapping("/stats")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    @Operation(summary = "Estadísticas de pedidos",
+            description = "Pedidos por estado, total pagado y fecha del último pedido. "
+                    + "USER ve las suyas; ADMIN puede indicar userId")
+    public ResponseEntity<UserOrderStatsResponse> getOrderStats(
+            @RequestParam(required = false) Long userId,
+            Authentication authentication) {
+
+        boolean isAdmin = authentication.getAuthorities().contains(new SimpleGrantedAuthority("ROLE_ADMIN"));
+        Long currentUserId = getUserIdFromAuthentication(authentication);
+
+        if (userId != null && !userId.equals(currentUserId) && !isAdmin) {
+            throw new ForbiddenException("No tienes permisos para ver las estadísticas de otro usuario");
+        }
+
+        return ResponseEntity.ok(orderQueryService.getUserOrderStats(userId != null ? userId : currentUserId));
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Exportar pedidos",
+            description = "Exporta todos los pedidos como NDJSON (un pedido por línea, en streaming). Solo ADMIN")
+    public ResponseEntity<StreamingResponseBody> exportOrders() {
+        StreamingResponseBody body = outputStream -> {
+            orderQueryService.exportAllOrders(order -> {
+                try {
+                    outputStream.write(objectMapper.writeValueAsBytes(order));
+                    outputStream.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            outputStream.flush();
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    @Operation(summary = "Stream de cambios de estado",
+            description = "Server-Sent Events con los cambios de estado de los pedidos del usuario autenticado "
+                    + "(event: ORDER_CREATED, ORDER_PAID, ORDER_CANCELLED, ORDER_SHIPPED). "
+                    + "Si el stream se cierra, reconectar y releer los pedidos")
+    public SseEmitter streamOrderEvents(Authentication authentication) {
+        return orderEventStreams.open(getUserIdFromAuthentication(authentication));
+    }
+
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
     @Operation(summary = "Ver detalle del pedido", description = "Ver detalles de un pedido específico")
@@ -102,8 +229,10 @@ public class OrderController {
 
     @PostMapping("/{id}/pay")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
-    @Operation(summary = "Pagar pedido", description = "Procesar pago del pedido (descuenta stock, idempotente)")
-    public ResponseEntity<String> payOrder(
+    @Operation(summary = "Pagar pedido",
+            description = "Registra el pago como PENDING y lo procesa en segundo plano (responde 202, idempotente). "
+                    + "Al aprobarse se descuenta el stock; el resultado se consulta en /{id}/payment")
+    public ResponseEntity<PaymentResponse> payOrder(
             @PathVariable Long id,
             @Valid @RequestBody PayOrderRequest request,
             Authentication authentication) {
@@ -121,7 +250,29 @@ public class OrderController {
 
         payOrderService.execute(id, request.getPaymentMethod());
 
-        return ResponseEntity.ok("Pedido pagado exitosamente");
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/orders/" + id + "/payment"))
+                .body(orderQueryService.getOrderPayment(id));
+    }
+
+    @GetMapping("/{id}/payment")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    @Operation(summary = "Ver pago del pedido", description = "Estado del pago: PENDING, APPROVED o REJECTED (con motivo)")
+    public ResponseEntity<PaymentResponse> getOrderPayment(
+            @PathVariable Long id,
+            Authentication authentication) {
+
+        Order order = orderRepository.findById(id)
+                .orElseThrow(() -> new OrderNotFoundException(id));
+
+        boolean isAdmin = authentication.getAuthorities().contains(new SimpleGrantedAuthority("ROLE_ADMIN"));
+        Long userId = getUserIdFromAuthentication(authentication);
+
+        if (!isAdmin && !order.getUserId().equals(userId)) {
+            throw new ForbiddenException("No tienes permisos para ver el pago de este pedido");
+        }
+
+        return ResponseEntity.ok(orderQueryService.getOrderPayment(id));
     }
 
     @PostMapping("/{id}/cancel")
@@ -151,34 +302,33 @@ public class OrderController {
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Marcar como enviado", description = "Cambiar estado del pedido a SHIPPED (solo ADMIN)")
     public ResponseEntity<String> shipOrder(@PathVariable Long id) {
-        Order order = orderRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Pedido no encontrado: " + id));
+        shipOrderService.execute(id);
 
-        if (!order.canBeShipped()) {
-            throw new RuntimeException("El pedido no puede ser enviado. Estado actual: " + order.getStatus());
-        }
+        return ResponseEntity.ok("Pedido marcado como enviado");
+    }
 
-        order.setStatus(OrderStatus.SHIPPED);
-        orderRepository.save(order);
+    /**
+     * Helper para los listados paginados: valida el límite y consulta todos los pedidos (ADMIN)
+     * o solo los del usuario autenticado (USER)
+     */
+    private <T> T queryPage(int limit, Authentication authentication,
+                            Supplier<T> allOrders, Function<Long, T> userOrders) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new BadRequestException("El límite debe estar entre 1 y " + MAX_PAGE_SIZE);
+        }
 
-        return ResponseEntity.ok("Pedido marcado como enviado");
+        boolean isAdmin = authentication.getAuthorities().contains(new SimpleGrantedAuthority("ROLE_ADMIN"));
+        return isAdmin ? allOrders.get() : userOrders.apply(getUserIdFromAuthentication(authentication));
     }
 
     /**
-     * Helper para obtener el ID del usuario desde el email del JWT
-     * En producción esto debería venir directamente del token
+     * Helper para obtener el ID del usuario autenticado (viene en el JWT)
+     * Sin ID (ej: token sin el claim uid) la sesión no identifica a un usuario: 401
      */
     private Long getUserIdFromAuthentication(Authentication authentication) {
-        String email = authentication.getName();
-
-        // Buscar el usuario por email para obtener su ID
-        // Este es un workaround simple. En producción el ID vendría en el JWT
-        if (email.equals("user@test.com")) {
-            return 1L;
-        } else if (email.equals("admin@test.com")) {
-            return 2L;
+        if (authentication.getPrincipal() instanceof AuthenticatedUser user && user.getId() != null) {
+            return user.getId();
         }
-
-        throw new RuntimeException("Usuario no encontrado");
+        throw new UnauthorizedException("El token no identifica al usuario");
     }
 }
\ No newline at end of file
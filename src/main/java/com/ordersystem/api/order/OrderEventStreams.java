@@ -0,0 +1,69 @@
+package com.ordersystem.api.order;
+
+import com.ordersystem.api.order.dto.OrderEventResponse;
+import com.ordersystem.domain.model.OrderEvent;
+import com.ordersystem.infrastructure.events.OrderEventBus;
+import com.ordersystem.infrastructure.events.OrderEventListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Abre streams SSE con los cambios de estado de los pedidos de un usuario
+ * Cada stream es una suscripción a OrderEventBus; se cierra al desconectarse el cliente,
+ * al vencer el timeout (el cliente se reconecta) o si no consume los eventos a tiempo
+ */
+@Component
+public class OrderEventStreams {
+
+    private final OrderEventBus eventBus;
+    private final long timeoutMillis;
+
+    public OrderEventStreams(
+            OrderEventBus eventBus,
+            @Value("${order.events.stream-timeout:30m}") Duration timeout) {
+        this.eventBus = eventBus;
+        this.timeoutMillis = timeout.toMillis();
+    }
+
+    public SseEmitter open(Long userId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        OrderEventBus.Subscription subscription = eventBus.subscribe(userId, new SseListener(emitter));
+        emitter.onCompletion(subscription::close);
+        emitter.onTimeout(subscription::close);
+        emitter.onError(error -> subscription.close());
+        return emitter;
+    }
+
+    /**
+     * Escribe cada evento como un mensaje SSE (event: ORDER_PAID, data: JSON)
+     */
+    private record SseListener(SseEmitter emitter) implements OrderEventListener {
+
+        @Override
+        public void onEvent(OrderEvent event) throws IOException {
+            emitter.send(SseEmitter.event()
+                    .name(event.type())
+                    .data(new OrderEventResponse(
+                            event.orderId(),
+                            event.previousStatus(),
+                            event.status(),
+                            event.occurredAt()
+                    ), MediaType.APPLICATION_JSON));
+        }
+
+        @Override
+        public void onHeartbeat() throws IOException {
+            emitter.send(SseEmitter.event().comment("heartbeat"));
+        }
+
+        @Override
+        public void onClose() {
+            emitter.complete();
+        }
+    }
+}
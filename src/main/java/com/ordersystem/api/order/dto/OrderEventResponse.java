@@ -0,0 +1,25 @@
+package com.ordersystem.api.order.dto;
+
+import com.ordersystem.domain.enums.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO con un cambio de estado de pedido enviado por el stream SSE (/api/orders/events)
+ * previousStatus es null para pedidos recién creados
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderEventResponse {
+
+    private Long orderId;
+    private OrderStatus previousStatus;
+    private OrderStatus status;
+    private LocalDateTime occurredAt;
+}
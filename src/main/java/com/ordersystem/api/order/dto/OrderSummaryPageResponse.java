@@ -0,0 +1,22 @@
+package com.ordersystem.api.order.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * DTO de respuesta para una página de resúmenes de pedidos
+ * nextCursor es null cuando no hay más resultados
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSummaryPageResponse {
+
+    private List<OrderSummaryResponse> items;
+    private String nextCursor;
+}
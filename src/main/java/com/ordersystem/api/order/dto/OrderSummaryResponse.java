@@ -0,0 +1,27 @@
+package com.ordersystem.api.order.dto;
+
+import com.ordersystem.domain.enums.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * DTO de respuesta para el resumen de un pedido en listados (sin dirección ni items)
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSummaryResponse {
+
+    private Long id;
+    private OrderStatus status;
+    private BigDecimal total;
+    private String currency;
+    private long itemCount;
+    private LocalDateTime createdAt;
+}
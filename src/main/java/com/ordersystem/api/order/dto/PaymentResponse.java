@@ -0,0 +1,29 @@
+package com.ordersystem.api.order.dto;
+
+import com.ordersystem.domain.enums.PaymentStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO de respuesta con el pago de un pedido
+ * status PENDING mientras se procesa; failureReason solo en pagos REJECTED
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentResponse {
+
+    private Long id;
+    private Long orderId;
+    private PaymentStatus status;
+    private BigDecimal amount;
+    private String currency;
+    private String paymentMethod;
+    private String transactionId;
+    private String failureReason;
+}
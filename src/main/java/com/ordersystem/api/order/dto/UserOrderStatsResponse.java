@@ -0,0 +1,27 @@
+package com.ordersystem.api.order.dto;
+
+import com.ordersystem.domain.enums.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * DTO de respuesta con las estadísticas de pedidos de un usuario
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserOrderStatsResponse {
+
+    private Long userId;
+    private long totalOrders;
+    private Map<OrderStatus, Long> ordersByStatus;
+    private BigDecimal totalPaid;
+    private LocalDateTime lastOrderAt;
+}
@@ -3,13 +3,17 @@ package com.ordersystem.api.product;
 import com.ordersystem.api.product.dto.CreateProductRequest;
 import com.ordersystem.api.product.dto.ProductResponse;
 import com.ordersystem.api.product.dto.UpdateProductRequest;
+import com.ordersystem.application.product.ActiveCatalogSnapshot;
 import com.ordersystem.application.product.ProductService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -27,6 +31,7 @@ import java.util.List;
 @Tag(name = "Products", description = "Gestión de productos")
 public class ProductController {
     private final ProductService productService;
+    private final ActiveCatalogSnapshot activeCatalogSnapshot;
 
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
@@ -44,11 +49,36 @@ public class ProductController {
         return ResponseEntity.ok(products);
     }
 
-    @GetMapping("/active")
-    @Operation(summary = "Listar productos activos", description = "Obtener solo productos activos (público)")
-    public ResponseEntity<List<ProductResponse>> getActiveProducts() {
-        List<ProductResponse> products = productService.getActiveProducts();
-        return ResponseEntity.ok(products);
+    @GetMapping(value = "/active", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Listar productos activos",
+            description = "Obtener solo productos activos (público). Soporta ETag / If-None-Match y gzip")
+    public ResponseEntity<byte[]> getActiveProducts(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+
+        ActiveCatalogSnapshot.Snapshot snapshot = activeCatalogSnapshot.get();
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+        String etag = gzip ? snapshot.getGzipEtag() : snapshot.getEtag();
+
+        // El cliente ya tiene la versión vigente: 304 sin cuerpo
+        if (snapshot.matches(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache().cachePublic())
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePublic())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.APPLICATION_JSON);
+
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(snapshot.getGzipJson());
+        }
+        return response.body(snapshot.getJson());
     }
 
     @GetMapping("/{id}")
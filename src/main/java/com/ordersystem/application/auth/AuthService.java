@@ -2,32 +2,78 @@ package com.ordersystem.application.auth;
 
 import com.ordersystem.api.auth.dto.LoginRequest;
 import com.ordersystem.api.auth.dto.LoginResponse;
+import com.ordersystem.api.exception.UnauthorizedException;
+import com.ordersystem.infrastructure.security.AccessTokenRevocationList;
+import com.ordersystem.infrastructure.security.AuthenticatedUser;
 import com.ordersystem.infrastructure.security.JwtTokenProvider;
+import com.ordersystem.infrastructure.security.PasswordHashingExecutor;
+import com.ordersystem.infrastructure.security.RefreshTokenStore;
+import com.ordersystem.infrastructure.security.UserDetailsServiceImpl;
+import com.ordersystem.infrastructure.security.VerifiedToken;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 /**
  * Servicio de autenticación
  * Gestiona el proceso de login y generación de tokens
+ *
+ * El login entrega un access token (JWT corto) y un refresh token (largo, guardado como hash).
+ * Con el refresh token se obtiene un nuevo par sin volver a verificar la contraseña.
  */
 @Service
 @RequiredArgsConstructor
 public class AuthService {
     private final AuthenticationManager authenticationManager;
     private final JwtTokenProvider tokenProvider;
+    private final PasswordHashingExecutor hashingExecutor;
+    private final RefreshTokenStore refreshTokenStore;
+    private final AccessTokenRevocationList revocationList;
+    private final UserDetailsServiceImpl userDetailsService;
 
     /**
      * Autentica al usuario y genera el token JWT
+     * La verificación BCrypt corre en el pool de hashing, no en el hilo del request
      */
-    public LoginResponse login(LoginRequest request){
+    public CompletableFuture<LoginResponse> login(LoginRequest request){
+        return hashingExecutor.submit(() -> authenticate(request));
+    }
+
+    /**
+     * Renueva el access token con un refresh token (que se rota: el usado deja de servir)
+     */
+    public LoginResponse refresh(String refreshToken){
+        Long userId = refreshTokenStore.consume(refreshToken)
+                .orElseThrow(() -> new UnauthorizedException("Refresh token inválido o expirado"));
+
+        AuthenticatedUser user = userDetailsService.loadUserById(userId);
+        if (!user.isEnabled()) {
+            throw new UnauthorizedException("Usuario deshabilitado");
+        }
+        return issueTokens(user);
+    }
+
+    /**
+     * Cierra la sesión: revoca el access token actual y, si se indica, su refresh token
+     */
+    public void logout(String accessToken, String refreshToken){
+        VerifiedToken verified = tokenProvider.authenticate(accessToken)
+                .orElseThrow(() -> new UnauthorizedException("Token inválido"));
+
+        revocationList.revoke(verified.tokenId(), verified.expiresAtMillis());
+        if (refreshToken != null && !refreshToken.isBlank()) {
+            refreshTokenStore.revoke(refreshToken, verified.user().getId());
+        }
+    }
+
+    private LoginResponse authenticate(LoginRequest request){
         Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(
                         request.getEmail(),
@@ -35,13 +81,17 @@ public class AuthService {
                 )
         );
 
-        SecurityContextHolder.getContext().setAuthentication(authentication);
-        String token = tokenProvider.generateToken(authentication);
+        return issueTokens((AuthenticatedUser) authentication.getPrincipal());
+    }
+
+    private LoginResponse issueTokens(AuthenticatedUser user){
+        String token = tokenProvider.generateToken(user);
+        String refreshToken = refreshTokenStore.issue(user.getId());
 
-        List<String> roles = authentication.getAuthorities().stream()
+        List<String> roles = user.getAuthorities().stream()
                 .map(GrantedAuthority::getAuthority)
                 .collect(Collectors.toList());
 
-        return new LoginResponse(token, request.getEmail(), roles);
+        return new LoginResponse(token, refreshToken, user.getUsername(), roles);
     }
 }
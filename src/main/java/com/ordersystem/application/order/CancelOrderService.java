@@ -2,13 +2,17 @@ package com.ordersystem.application.order;
 
 import com.ordersystem.domain.enums.OrderStatus;
 import com.ordersystem.domain.model.Order;
-import com.ordersystem.domain.model.OrderItem;
-import com.ordersystem.domain.model.Product;
+import com.ordersystem.domain.model.OrderEvent;
 import com.ordersystem.domain.repository.OrderRepository;
 import com.ordersystem.domain.repository.ProductRepository;
+import com.ordersystem.domain.repository.UserOrderStatsRepository;
+import com.ordersystem.infrastructure.cache.ProductCatalogCache;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
 
 /**
  * Servicio para cancelar pedidos
@@ -20,9 +24,19 @@ public class CancelOrderService {
 
     private final OrderRepository orderRepository;
     private final ProductRepository productRepository;
+    private final UserOrderStatsRepository statsRepository;
+    private final OrderEventPublisher eventPublisher;
+    private final ProductCatalogCache catalogCache;
+    private final OptimisticLockRetry retry;
 
-    @Transactional
+    /**
+     * Cada intento corre en su propia transacción y se reintenta ante conflictos de concurrencia
+     */
     public Order execute(Long orderId) {
+        return retry.execute(() -> cancel(orderId));
+    }
+
+    private Order cancel(Long orderId) {
         // 1. Buscar el pedido
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new RuntimeException("Pedido no encontrado: " + orderId));
@@ -32,20 +46,26 @@ public class CancelOrderService {
             throw new RuntimeException("El pedido no puede ser cancelado. Estado actual: " + order.getStatus());
         }
 
-        // 3. Si el pedido estaba PAID, devolver el stock
-        if (order.getStatus() == OrderStatus.PAID) {
-            for (OrderItem item : order.getItems()) {
-                Product product = productRepository.findById(item.getProductId())
-                        .orElseThrow(() -> new RuntimeException("Producto no encontrado: " + item.getProductId()));
+        // 3. Pasar a CANCELLED con un UPDATE condicional sobre el estado leído
+        //    Si otra operación cambió el estado, se reintenta con el estado nuevo
+        OrderStatus previous = order.getStatus();
+        if (!orderRepository.updateStatus(orderId, previous, OrderStatus.CANCELLED)) {
+            throw new OptimisticLockingFailureException("El pedido " + orderId + " cambió de estado durante la cancelación");
+        }
+        order.setStatus(OrderStatus.CANCELLED);
+        statsRepository.recordStatusChange(orderId, previous, OrderStatus.CANCELLED);
+        eventPublisher.publish(OrderEvent.statusChanged(orderId, order.getUserId(), previous, OrderStatus.CANCELLED));
 
-                // Devolver stock
-                product.increaseStock(item.getQuantity());
-                productRepository.save(product);
+        // 4. Si el pedido estaba PAID, devolver el stock de todas las líneas en un solo lote
+        if (previous == OrderStatus.PAID) {
+            Map<Long, Integer> quantities = order.quantitiesByProduct();
+            List<Long> failed = productRepository.adjustStock(quantities);
+            if (!failed.isEmpty()) {
+                throw new RuntimeException("Producto no encontrado: " + failed.get(0));
             }
+            quantities.keySet().forEach(catalogCache::invalidate);
         }
 
-        // 4. Cambiar estado a CANCELLED
-        order.setStatus(OrderStatus.CANCELLED);
-        return orderRepository.save(order);
+        return order;
     }
 }
\ No newline at end of file
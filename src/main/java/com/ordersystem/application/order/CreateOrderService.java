@@ -4,12 +4,14 @@ import com.ordersystem.api.order.dto.CreateOrderRequest;
 import com.ordersystem.api.order.dto.OrderItemRequest;
 import com.ordersystem.domain.enums.OrderStatus;
 import com.ordersystem.domain.model.Order;
+import com.ordersystem.domain.model.OrderEvent;
 import com.ordersystem.domain.model.OrderItem;
 import com.ordersystem.domain.model.Product;
 import com.ordersystem.domain.model.valueobject.Address;
 import com.ordersystem.domain.model.valueobject.Money;
 import com.ordersystem.domain.repository.OrderRepository;
 import com.ordersystem.domain.repository.ProductRepository;
+import com.ordersystem.domain.repository.UserOrderStatsRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -27,6 +29,8 @@ public class CreateOrderService {
 
     private final OrderRepository orderRepository;
     private final ProductRepository productRepository;
+    private final UserOrderStatsRepository statsRepository;
+    private final OrderEventPublisher eventPublisher;
 
     @Transactional
     public Order execute(Long userId, CreateOrderRequest request) {
@@ -70,7 +74,10 @@ public class CreateOrderService {
         Money total = order.calculateTotal();
         order.setTotal(total);
 
-        // 4. Guardar el pedido
-        return orderRepository.save(order);
+        // 4. Guardar el pedido, sumarlo a las estadísticas del usuario y publicar el evento (misma transacción)
+        Order saved = orderRepository.save(order);
+        statsRepository.recordOrderCreated(userId, saved.getCreatedAt());
+        eventPublisher.publish(OrderEvent.created(saved.getId(), userId, saved.getCreatedAt()));
+        return saved;
     }
 }
\ No newline at end of file
@@ -0,0 +1,54 @@
+package com.ordersystem.application.order;
+
+import com.ordersystem.domain.repository.IdempotencyKeyRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Borra las claves de idempotencia más antiguas que la ventana de reintento (order.idempotency.retention)
+ *
+ * Pasada la ventana, reusar una clave crea un pedido nuevo (es lo documentado para los clientes).
+ * Se borra en lotes chicos, cada uno en su propia sentencia, para no retener bloqueos sobre la tabla
+ * mientras se siguen registrando claves nuevas.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "order.idempotency.cleanup.enabled", havingValue = "true", matchIfMissing = true)
+public class IdempotencyKeyCleanup {
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final Duration retention;
+    private final int batchSize;
+
+    public IdempotencyKeyCleanup(
+            IdempotencyKeyRepository idempotencyKeyRepository,
+            @Value("${order.idempotency.retention:7d}") Duration retention,
+            @Value("${order.idempotency.cleanup.batch-size:1000}") int batchSize) {
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.retention = retention;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${order.idempotency.cleanup.interval:1h}",
+            initialDelayString = "${order.idempotency.cleanup.interval:1h}")
+    public int purgeExpired() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        int total = 0;
+        int deleted;
+        do {
+            deleted = idempotencyKeyRepository.deleteCreatedBefore(cutoff, batchSize);
+            total += deleted;
+        } while (deleted == batchSize);
+
+        if (total > 0) {
+            log.info("Borradas {} claves de idempotencia anteriores a {}", total, cutoff);
+        }
+        return total;
+    }
+}
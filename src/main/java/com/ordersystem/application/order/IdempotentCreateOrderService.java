@@ -0,0 +1,113 @@
+package com.ordersystem.application.order;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ordersystem.api.order.dto.CreateOrderRequest;
+import com.ordersystem.domain.exception.IdempotencyKeyReusedException;
+import com.ordersystem.domain.model.IdempotencyRecord;
+import com.ordersystem.domain.model.Order;
+import com.ordersystem.domain.repository.IdempotencyKeyRepository;
+import com.ordersystem.infrastructure.cache.IdempotencyKeyCache;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * Servicio para crear pedidos con Idempotency-Key
+ * Un reintento con la misma clave devuelve el pedido ya creado (con su estado actual) en vez de crear otro
+ *
+ * Orden de búsqueda: caché en memoria de la clave, tabla idempotency_keys y,
+ * si la clave es nueva, se registra y se crea el pedido en la misma transacción.
+ * Desde la caché o desde la tabla, la respuesta se arma con el pedido actual: la misma clave devuelve lo mismo.
+ * Si dos requests con la misma clave llegan a la vez, la restricción única deja pasar a uno;
+ * el otro falla al registrar la clave y devuelve el pedido del primero.
+ */
+@Service
+public class IdempotentCreateOrderService {
+
+    private final CreateOrderService createOrderService;
+    private final OrderQueryService orderQueryService;
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final IdempotencyKeyCache keyCache;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    public IdempotentCreateOrderService(
+            CreateOrderService createOrderService,
+            OrderQueryService orderQueryService,
+            IdempotencyKeyRepository idempotencyKeyRepository,
+            IdempotencyKeyCache keyCache,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager) {
+        this.createOrderService = createOrderService;
+        this.orderQueryService = orderQueryService;
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.keyCache = keyCache;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public IdempotentOrderResponse execute(Long userId, String key, CreateOrderRequest request) {
+        String requestHash = hash(request);
+
+        // 1. Reintento reciente: clave guardada en memoria
+        Optional<IdempotencyRecord> cached = keyCache.get(userId, key);
+        if (cached.isPresent()) {
+            return replay(key, requestHash, cached.get());
+        }
+
+        // 2. Clave ya registrada (caché expirada u otra instancia)
+        Optional<IdempotencyRecord> stored = idempotencyKeyRepository.find(userId, key);
+        if (stored.isPresent()) {
+            keyCache.put(userId, key, stored.get());
+            return replay(key, requestHash, stored.get());
+        }
+
+        // 3. Clave nueva: registrarla y crear el pedido en una sola transacción
+        Long orderId;
+        try {
+            orderId = transactionTemplate.execute(status -> {
+                idempotencyKeyRepository.reserve(userId, key, requestHash);
+                Order order = createOrderService.execute(userId, request);
+                idempotencyKeyRepository.assignOrder(userId, key, order.getId());
+                return order.getId();
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Otro request con la misma clave creó el pedido mientras tanto
+            IdempotencyRecord winner = idempotencyKeyRepository.find(userId, key).orElseThrow(() -> e);
+            keyCache.put(userId, key, winner);
+            return replay(key, requestHash, winner);
+        }
+
+        keyCache.put(userId, key, new IdempotencyRecord(requestHash, orderId));
+        return new IdempotentOrderResponse(orderQueryService.getOrderById(orderId), false);
+    }
+
+    private IdempotentOrderResponse replay(String key, String requestHash, IdempotencyRecord record) {
+        checkSameRequest(key, requestHash, record.requestHash());
+        return new IdempotentOrderResponse(orderQueryService.getOrderById(record.orderId()), true);
+    }
+
+    private static void checkSameRequest(String key, String requestHash, String storedHash) {
+        if (!storedHash.equals(requestHash)) {
+            throw new IdempotencyKeyReusedException(key);
+        }
+    }
+
+    private String hash(CreateOrderRequest request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(objectMapper.writeValueAsBytes(request)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el pedido", e);
+        }
+    }
+}
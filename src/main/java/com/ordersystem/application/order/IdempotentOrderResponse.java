@@ -0,0 +1,10 @@
+package com.ordersystem.application.order;
+
+import com.ordersystem.api.order.dto.OrderResponse;
+
+/**
+ * Resultado de crear un pedido con Idempotency-Key
+ * replayed indica que el pedido ya existía y se devuelve la respuesta original
+ */
+public record IdempotentOrderResponse(OrderResponse response, boolean replayed) {
+}
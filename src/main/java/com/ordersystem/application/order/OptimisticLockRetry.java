@@ -0,0 +1,72 @@
+package com.ordersystem.application.order;
+
+import com.ordersystem.domain.exception.ConcurrentUpdateException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Ejecuta una operación en su propia transacción y la reintenta si falla por bloqueo optimista
+ * Entre intentos espera un tiempo aleatorio (backoff exponencial con jitter) para que
+ * las operaciones en conflicto no vuelvan a coincidir
+ *
+ * Si ya hay una transacción activa la operación se une a ella y no se reintenta:
+ * el conflicto deja la transacción externa marcada para rollback
+ */
+@Component
+public class OptimisticLockRetry {
+
+    private final TransactionTemplate transactionTemplate;
+    private final int maxAttempts;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+
+    public OptimisticLockRetry(
+            PlatformTransactionManager transactionManager,
+            @Value("${order.retry.max-attempts:3}") int maxAttempts,
+            @Value("${order.retry.base-delay:20ms}") Duration baseDelay,
+            @Value("${order.retry.max-delay:200ms}") Duration maxDelay) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseDelayMillis = baseDelay.toMillis();
+        this.maxDelayMillis = maxDelay.toMillis();
+    }
+
+    public <T> T execute(Supplier<T> action) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return action.get();
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> action.get());
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= maxAttempts) {
+                    throw new ConcurrentUpdateException(
+                            "El recurso fue modificado por otra operación. Intente nuevamente", e);
+                }
+                backoff(attempt, e);
+            }
+        }
+    }
+
+    /**
+     * Espera aleatoria entre 0 y base * 2^(intento - 1), con tope en maxDelay ("full jitter")
+     */
+    private void backoff(int attempt, RuntimeException cause) {
+        long ceiling = Math.min(maxDelayMillis, baseDelayMillis << Math.min(attempt - 1, 20));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConcurrentUpdateException("Reintento interrumpido", cause);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.ordersystem.application.order;
+
+import com.ordersystem.domain.model.OrderEvent;
+import com.ordersystem.domain.repository.OutboxRepository;
+import com.ordersystem.infrastructure.events.OrderEventBus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publica los cambios de estado de los pedidos
+ * - En el outbox, dentro de la transacción del cambio (sistemas externos, vía OutboxRelay)
+ * - En el bus en memoria, al confirmar la transacción (clientes conectados por SSE)
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderEventPublisher {
+
+    private final OutboxRepository outboxRepository;
+    private final OrderEventBus eventBus;
+
+    public void publish(OrderEvent event) {
+        outboxRepository.append(event);
+        eventBus.publishAfterCommit(event);
+    }
+}
@@ -1,19 +1,40 @@
 package com.ordersystem.application.order;
 
+import com.ordersystem.api.exception.BadRequestException;
 import com.ordersystem.api.order.dto.AddressResponse;
 import com.ordersystem.api.order.dto.OrderItemResponse;
+import com.ordersystem.api.order.dto.OrderPageResponse;
 import com.ordersystem.api.order.dto.OrderResponse;
+import com.ordersystem.api.order.dto.OrderSummaryPageResponse;
+import com.ordersystem.api.order.dto.OrderSummaryResponse;
+import com.ordersystem.api.order.dto.PaymentResponse;
+import com.ordersystem.api.order.dto.UserOrderStatsResponse;
 import com.ordersystem.domain.model.Order;
 import com.ordersystem.domain.model.OrderItem;
+import com.ordersystem.domain.model.OrderSummary;
+import com.ordersystem.domain.model.Payment;
 import com.ordersystem.domain.model.Product;
+import com.ordersystem.domain.model.UserOrderStats;
+import com.ordersystem.domain.model.valueobject.OrderCursor;
 import com.ordersystem.domain.repository.OrderRepository;
+import com.ordersystem.domain.repository.PaymentRepository;
 import com.ordersystem.domain.repository.ProductRepository;
+import com.ordersystem.domain.repository.UserOrderStatsRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Servicio para consultar pedidos
@@ -22,31 +43,190 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class OrderQueryService {
 
+    private static final int EXPORT_BATCH_SIZE = 500;
+
     private final OrderRepository orderRepository;
     private final ProductRepository productRepository;
+    private final UserOrderStatsRepository statsRepository;
+    private final PaymentRepository paymentRepository;
 
     @Transactional(readOnly = true)
     public List<OrderResponse> getAllOrders() {
-        return orderRepository.findAll().stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return mapToResponses(orderRepository.findAll());
     }
 
     @Transactional(readOnly = true)
     public List<OrderResponse> getUserOrders(Long userId) {
-        return orderRepository.findByUserId(userId).stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return mapToResponses(orderRepository.findByUserId(userId));
+    }
+
+    /**
+     * Página de todos los pedidos (ADMIN), del más reciente al más antiguo
+     */
+    @Transactional(readOnly = true)
+    public OrderPageResponse getAllOrdersPage(String after, int limit) {
+        // Se pide un elemento extra para saber si hay página siguiente
+        List<Order> orders = orderRepository.findPage(decodeCursor(after), limit + 1);
+        return toPage(orders, limit);
+    }
+
+    /**
+     * Página de los pedidos de un usuario, del más reciente al más antiguo
+     */
+    @Transactional(readOnly = true)
+    public OrderPageResponse getUserOrdersPage(Long userId, String after, int limit) {
+        List<Order> orders = orderRepository.findPageByUserId(userId, decodeCursor(after), limit + 1);
+        return toPage(orders, limit);
+    }
+
+    /**
+     * Página de resúmenes de todos los pedidos (ADMIN)
+     * Sale directo de la proyección: no se cargan items ni se resuelven productos
+     */
+    @Transactional(readOnly = true)
+    public OrderSummaryPageResponse getAllOrderSummariesPage(String after, int limit) {
+        List<OrderSummary> summaries = orderRepository.findSummaryPage(decodeCursor(after), limit + 1);
+        return toSummaryPage(summaries, limit);
+    }
+
+    /**
+     * Página de resúmenes de los pedidos de un usuario
+     */
+    @Transactional(readOnly = true)
+    public OrderSummaryPageResponse getUserOrderSummariesPage(Long userId, String after, int limit) {
+        List<OrderSummary> summaries = orderRepository.findSummaryPageByUserId(userId, decodeCursor(after), limit + 1);
+        return toSummaryPage(summaries, limit);
+    }
+
+    /**
+     * Estadísticas de pedidos de un usuario (una sola fila, mantenida al crear/pagar/enviar/cancelar)
+     */
+    @Transactional(readOnly = true)
+    public UserOrderStatsResponse getUserOrderStats(Long userId) {
+        UserOrderStats stats = statsRepository.findByUserId(userId)
+                .orElseGet(() -> UserOrderStats.empty(userId));
+        return new UserOrderStatsResponse(
+                stats.getUserId(),
+                stats.getTotalOrders(),
+                stats.getCountsByStatus(),
+                stats.getTotalPaid(),
+                stats.getLastOrderAt()
+        );
+    }
+
+    /**
+     * Pago de un pedido (PENDING mientras lo procesa la pasarela)
+     */
+    @Transactional(readOnly = true)
+    public PaymentResponse getOrderPayment(Long orderId) {
+        Payment payment = paymentRepository.findByOrderId(orderId)
+                .orElseThrow(() -> new RuntimeException("Pago no encontrado para el pedido: " + orderId));
+        return new PaymentResponse(
+                payment.getId(),
+                payment.getOrderId(),
+                payment.getStatus(),
+                payment.getAmount().getAmount(),
+                payment.getAmount().getCurrency(),
+                payment.getPaymentMethod(),
+                payment.getTransactionId(),
+                payment.getFailureReason()
+        );
+    }
+
+    /**
+     * Exporta todos los pedidos uno a uno hacia el consumidor (ADMIN)
+     * Se procesan en bloques para resolver los nombres de producto en lote
+     */
+    @Transactional(readOnly = true)
+    public void exportAllOrders(Consumer<OrderResponse> consumer) {
+        try (Stream<Order> orders = orderRepository.streamAll()) {
+            Iterator<Order> iterator = orders.iterator();
+            List<Order> batch = new ArrayList<>(EXPORT_BATCH_SIZE);
+            while (iterator.hasNext()) {
+                batch.add(iterator.next());
+                if (batch.size() == EXPORT_BATCH_SIZE) {
+                    mapToResponses(batch).forEach(consumer);
+                    batch.clear();
+                }
+            }
+            mapToResponses(batch).forEach(consumer);
+        }
     }
 
     @Transactional(readOnly = true)
     public OrderResponse getOrderById(Long id) {
         Order order = orderRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Pedido no encontrado: " + id));
-        return mapToResponse(order);
+        return mapToResponse(order, findProductNames(List.of(order)));
     }
 
-    private OrderResponse mapToResponse(Order order) {
+    private OrderPageResponse toPage(List<Order> orders, int limit) {
+        boolean hasMore = orders.size() > limit;
+        List<Order> page = hasMore ? orders.subList(0, limit) : orders;
+        Order last = page.isEmpty() ? null : page.get(page.size() - 1);
+        String nextCursor = hasMore ? encodeCursor(last.getCreatedAt(), last.getId()) : null;
+        return new OrderPageResponse(mapToResponses(page), nextCursor);
+    }
+
+    private OrderSummaryPageResponse toSummaryPage(List<OrderSummary> summaries, int limit) {
+        boolean hasMore = summaries.size() > limit;
+        List<OrderSummary> page = hasMore ? summaries.subList(0, limit) : summaries;
+        OrderSummary last = page.isEmpty() ? null : page.get(page.size() - 1);
+        String nextCursor = hasMore ? encodeCursor(last.getCreatedAt(), last.getId()) : null;
+        List<OrderSummaryResponse> items = page.stream()
+                .map(this::mapSummaryToResponse)
+                .collect(Collectors.toList());
+        return new OrderSummaryPageResponse(items, nextCursor);
+    }
+
+    /**
+     * El cursor es opaco para el cliente: Base64 URL-safe de "createdAt_id"
+     */
+    private String encodeCursor(LocalDateTime createdAt, Long id) {
+        String raw = createdAt + "_" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private OrderCursor decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('_');
+            return new OrderCursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1))
+            );
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Cursor de paginación inválido");
+        }
+    }
+
+    /**
+     * Mapea una lista de pedidos resolviendo los nombres de producto en una sola consulta
+     */
+    private List<OrderResponse> mapToResponses(List<Order> orders) {
+        Map<Long, String> productNames = findProductNames(orders);
+        return orders.stream()
+                .map(order -> mapToResponse(order, productNames))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Obtiene los nombres de todos los productos referenciados por los pedidos (productId -> nombre)
+     */
+    private Map<Long, String> findProductNames(List<Order> orders) {
+        Set<Long> productIds = orders.stream()
+                .flatMap(order -> order.getItems().stream())
+                .map(OrderItem::getProductId)
+                .collect(Collectors.toSet());
+
+        return productRepository.findAllByIds(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Product::getName));
+    }
+
+    private OrderResponse mapToResponse(Order order, Map<Long, String> productNames) {
         OrderResponse response = new OrderResponse();
         response.setId(order.getId());
         response.setUserId(order.getUserId());
@@ -63,14 +243,25 @@ public class OrderQueryService {
 
         // Mapear items con nombre del producto
         List<OrderItemResponse> itemsResponse = order.getItems().stream()
-                .map(item -> mapItemToResponse(item))
+                .map(item -> mapItemToResponse(item, productNames))
                 .collect(Collectors.toList());
         response.setItems(itemsResponse);
 
         return response;
     }
 
-    private OrderItemResponse mapItemToResponse(OrderItem item) {
+    private OrderSummaryResponse mapSummaryToResponse(OrderSummary summary) {
+        OrderSummaryResponse response = new OrderSummaryResponse();
+        response.setId(summary.getId());
+        response.setStatus(summary.getStatus());
+        response.setTotal(summary.getTotal());
+        response.setCurrency(summary.getCurrency());
+        response.setItemCount(summary.getItemCount());
+        response.setCreatedAt(summary.getCreatedAt());
+        return response;
+    }
+
+    private OrderItemResponse mapItemToResponse(OrderItem item, Map<Long, String> productNames) {
         OrderItemResponse response = new OrderItemResponse();
         response.setId(item.getId());
         response.setProductId(item.getProductId());
@@ -79,10 +270,9 @@ public class OrderQueryService {
         response.setSubtotal(item.getSubtotal().getAmount());
         response.setCurrency(item.getUnitPrice().getCurrency());
 
-        // Obtener nombre del producto
-        productRepository.findById(item.getProductId())
-                .ifPresent(product -> response.setProductName(product.getName()));
+        // Nombre del producto (ya resuelto en lote)
+        response.setProductName(productNames.get(item.getProductId()));
 
         return response;
     }
-}
\ No newline at end of file
+}
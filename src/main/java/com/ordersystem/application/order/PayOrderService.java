@@ -1,23 +1,24 @@
 package com.ordersystem.application.order;
 
-import com.ordersystem.domain.enums.OrderStatus;
 import com.ordersystem.domain.enums.PaymentStatus;
 import com.ordersystem.domain.model.Order;
-import com.ordersystem.domain.model.OrderItem;
 import com.ordersystem.domain.model.Payment;
-import com.ordersystem.domain.model.Product;
 import com.ordersystem.domain.repository.OrderRepository;
 import com.ordersystem.domain.repository.PaymentRepository;
-import com.ordersystem.domain.repository.ProductRepository;
+import com.ordersystem.infrastructure.payment.PaymentWorkerPool;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Optional;
 import java.util.UUID;
 
 /**
  * Servicio para pagar pedidos
- * Descuenta stock y registra el pago (IDEMPOTENTE)
+ * Registra el pago como PENDING y lo encola para PaymentProcessor (IDEMPOTENTE)
+ * La autorización en la pasarela, el descuento de stock y el paso a PAID ocurren en segundo plano
+ *
+ * El pago se inserta primero y la restricción única por pedido decide quién paga:
+ * dos pagos concurrentes del mismo pedido encolan un solo procesamiento.
  */
 @Service
 @RequiredArgsConstructor
@@ -25,52 +26,72 @@ public class PayOrderService {
 
     private final OrderRepository orderRepository;
     private final PaymentRepository paymentRepository;
-    private final ProductRepository productRepository;
+    private final PaymentProcessor paymentProcessor;
+    private final PaymentWorkerPool workerPool;
+    private final OptimisticLockRetry retry;
 
-    @Transactional
+    /**
+     * Corre en su propia transacción; el procesamiento se encola al confirmarla
+     */
     public Payment execute(Long orderId, String paymentMethod) {
-        // 1. Verificar si ya existe un pago (IDEMPOTENCIA)
-        if (paymentRepository.existsByOrderId(orderId)) {
-            return paymentRepository.findByOrderId(orderId)
-                    .orElseThrow(() -> new RuntimeException("Error al obtener pago existente"));
-        }
+        return retry.execute(() -> submit(orderId, paymentMethod));
+    }
 
-        // 2. Buscar el pedido
+    private Payment submit(Long orderId, String paymentMethod) {
+        // 1. Buscar el pedido
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new RuntimeException("Pedido no encontrado: " + orderId));
 
-        // 3. Validar que se pueda pagar
+        // 2. Registrar el pago PENDING (IDEMPOTENCIA)
+        //    Si el pedido ya tiene pago (o un pago concurrente confirmó primero) se devuelve ese pago
+        Optional<Payment> claimed = paymentRepository.insertIfAbsent(pendingPayment(order, paymentMethod));
+        if (claimed.isEmpty()) {
+            Payment existing = paymentRepository.findByOrderId(orderId)
+                    .orElseThrow(() -> new RuntimeException("Error al obtener pago existente"));
+            return retryIfRejected(order, existing, paymentMethod);
+        }
+
+        // 3. Validar que se pueda pagar (si no, la transacción se revierte junto con el pago registrado)
         if (!order.canBePaid()) {
             throw new RuntimeException("El pedido no puede ser pagado. Estado actual: " + order.getStatus());
         }
 
-        // 4. Descontar stock de cada producto
-        for (OrderItem item : order.getItems()) {
-            Product product = productRepository.findById(item.getProductId())
-                    .orElseThrow(() -> new RuntimeException("Producto no encontrado: " + item.getProductId()));
-
-            // Validar stock nuevamente (por si cambió desde la creación)
-            if (!product.hasStock(item.getQuantity())) {
-                throw new RuntimeException("Stock insuficiente para el producto: " + product.getName());
-            }
+        // 4. Encolar la autorización (el request no espera a la pasarela)
+        workerPool.submitAfterCommit(paymentProcessor.taskFor(claimed.get().getId()));
+        return claimed.get();
+    }
 
-            // Descontar stock
-            product.reduceStock(item.getQuantity());
-            productRepository.save(product);
+    /**
+     * Un pago rechazado se puede reintentar (con otro medio de pago) mientras el pedido siga sin pagar
+     * y el rechazo haya sido definitivo: con un cobro autorizado sin anular, un transactionId nuevo cobraría dos veces
+     */
+    private Payment retryIfRejected(Order order, Payment existing, String paymentMethod) {
+        if (existing.getStatus() != PaymentStatus.REJECTED || !existing.isRetryable() || !order.canBePaid()) {
+            return existing;
         }
 
-        // 5. Cambiar estado del pedido a PAID
-        order.setStatus(OrderStatus.PAID);
-        orderRepository.save(order);
+        String transactionId = newTransactionId();
+        if (paymentRepository.retryRejected(existing.getId(), paymentMethod, transactionId)) {
+            existing.setStatus(PaymentStatus.PENDING);
+            existing.setPaymentMethod(paymentMethod);
+            existing.setTransactionId(transactionId);
+            existing.setFailureReason(null);
+            workerPool.submitAfterCommit(paymentProcessor.taskFor(existing.getId()));
+        }
+        return existing;
+    }
 
-        // 6. Crear el pago
+    private static Payment pendingPayment(Order order, String paymentMethod) {
         Payment payment = new Payment();
-        payment.setOrderId(orderId);
+        payment.setOrderId(order.getId());
         payment.setAmount(order.getTotal());
-        payment.setStatus(PaymentStatus.APPROVED);
+        payment.setStatus(PaymentStatus.PENDING);
         payment.setPaymentMethod(paymentMethod);
-        payment.setTransactionId("TXN-" + UUID.randomUUID().toString());
+        payment.setTransactionId(newTransactionId());
+        return payment;
+    }
 
-        return paymentRepository.save(payment);
+    private static String newTransactionId() {
+        return "TXN-" + UUID.randomUUID();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,405 @@
+package com.ordersystem.application.order;
+
+import com.ordersystem.domain.enums.OrderStatus;
+import com.ordersystem.domain.enums.PaymentStatus;
+import com.ordersystem.domain.exception.InactiveProductException;
+import com.ordersystem.domain.exception.InsufficientStockException;
+import com.ordersystem.domain.exception.PaymentGatewayException;
+import com.ordersystem.domain.exception.ProductNotFoundException;
+import com.ordersystem.domain.gateway.PaymentGateway;
+import com.ordersystem.domain.gateway.PaymentGatewayResult;
+import com.ordersystem.domain.model.Order;
+import com.ordersystem.domain.model.OrderEvent;
+import com.ordersystem.domain.model.Payment;
+import com.ordersystem.domain.model.Product;
+import com.ordersystem.domain.repository.OrderRepository;
+import com.ordersystem.domain.repository.PaymentRepository;
+import com.ordersystem.domain.repository.ProductRepository;
+import com.ordersystem.domain.repository.UserOrderStatsRepository;
+import com.ordersystem.infrastructure.cache.ProductCatalogCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.HashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Procesa los pagos PENDING fuera del request HTTP (en los workers de PaymentWorkerPool)
+ *
+ * 0. Reserva el pago (claimed_at) antes de llamar a la pasarela: si ya lo tiene otro worker no hace nada.
+ *    La reserva vence a los payment.recovery.stale-after, cuando la recuperación de pendientes lo vuelve a encolar
+ * 1. Autoriza el cobro en la pasarela, con timeout por intento y reintentos con backoff
+ *    ante fallas o timeouts (el transactionId evita cobrar dos veces).
+ *    Si se agotan los intentos el resultado es desconocido (un timeout pudo haber cobrado igual):
+ *    se anula el transactionId y recién entonces el pago queda REJECTED; si la anulación también falla,
+ *    el pago sigue PENDING y PendingPaymentRecovery lo reintenta con el mismo transactionId.
+ *    El timeout lo impone el procesador: cada llamada corre en un pool acotado (payment.gateway.max-concurrent-calls)
+ *    y si no responde a tiempo se cancela y cuenta como timeout, aunque la pasarela no lo respete
+ * 2. Si se aprobó, en una transacción: pasa el pago a APPROVED, descuenta el stock y el pedido pasa a PAID.
+ *    Si falta stock o el pedido se canceló mientras tanto, el pago queda REJECTED con el motivo
+ * 3. En ese último caso, al confirmar, se anula el cobro ya autorizado en la pasarela (con reintentos)
+ *    y el resultado de la anulación queda en failure_reason. Mientras tanto (y si la anulación falla)
+ *    el pago no se puede reintentar con otro transactionId (retryable = false)
+ *
+ * Métricas: "payments.gateway.latency" (cada intento, operation=authorize|void,
+ * outcome=approved|rejected|voided|timeout|error)
+ * y "payments.processing.latency" (desde que se encola hasta el estado final, status=APPROVED|REJECTED)
+ */
+@Slf4j
+@Service
+public class PaymentProcessor {
+
+    private static final int MAX_REASON_LENGTH = 255;
+
+    private final PaymentRepository paymentRepository;
+    private final OrderRepository orderRepository;
+    private final ProductRepository productRepository;
+    private final UserOrderStatsRepository statsRepository;
+    private final OrderEventPublisher eventPublisher;
+    private final ProductCatalogCache catalogCache;
+    private final PaymentGateway gateway;
+    private final OptimisticLockRetry retry;
+    private final MeterRegistry meterRegistry;
+    private final Duration timeout;
+    private final int maxAttempts;
+    private final long retryDelayMillis;
+    private final Duration staleAfter;
+    private final ThreadPoolExecutor gatewayExecutor;
+
+    public PaymentProcessor(
+            PaymentRepository paymentRepository,
+            OrderRepository orderRepository,
+            ProductRepository productRepository,
+            UserOrderStatsRepository statsRepository,
+            OrderEventPublisher eventPublisher,
+            ProductCatalogCache catalogCache,
+            PaymentGateway gateway,
+            OptimisticLockRetry retry,
+            MeterRegistry meterRegistry,
+            @Value("${payment.gateway.timeout:2s}") Duration timeout,
+            @Value("${payment.gateway.max-attempts:3}") int maxAttempts,
+            @Value("${payment.gateway.retry-delay:200ms}") Duration retryDelay,
+            @Value("${payment.gateway.max-concurrent-calls:16}") int maxConcurrentCalls,
+            @Value("${payment.recovery.stale-after:5m}") Duration staleAfter) {
+        this.paymentRepository = paymentRepository;
+        this.orderRepository = orderRepository;
+        this.productRepository = productRepository;
+        this.statsRepository = statsRepository;
+        this.eventPublisher = eventPublisher;
+        this.catalogCache = catalogCache;
+        this.gateway = gateway;
+        this.retry = retry;
+        this.meterRegistry = meterRegistry;
+        this.timeout = timeout;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryDelayMillis = retryDelay.toMillis();
+        this.staleAfter = staleAfter;
+        // Sin cola: si todos los hilos siguen esperando a la pasarela, la llamada falla y se reintenta con backoff
+        this.gatewayExecutor = new ThreadPoolExecutor(
+                0,
+                Math.max(1, maxConcurrentCalls),
+                60L, TimeUnit.SECONDS,
+                new SynchronousQueue<>(),
+                namedThreads(),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        gatewayExecutor.shutdownNow();
+    }
+
+    /**
+     * Tarea para encolar el procesamiento del pago (mide la latencia desde este momento)
+     */
+    public Runnable taskFor(Long paymentId) {
+        long submittedAt = System.nanoTime();
+        return () -> process(paymentId, submittedAt);
+    }
+
+    void process(Long paymentId, long submittedAt) {
+        // Otro worker (ej: la recuperación de pendientes) pudo haberlo procesado ya
+        Payment payment = paymentRepository.findById(paymentId)
+                .filter(found -> found.getStatus() == PaymentStatus.PENDING)
+                .orElse(null);
+        if (payment == null) {
+            return;
+        }
+        // El mismo pago puede estar encolado dos veces (recuperación de pendientes): solo lo procesa quien lo reserva
+        if (!paymentRepository.claim(paymentId, LocalDateTime.now().minus(staleAfter))) {
+            return;
+        }
+
+        // Un pedido cancelado mientras esperaba en la cola no llega a la pasarela
+        PaymentGatewayResult result;
+        try {
+            result = orderIsPayable(payment.getOrderId())
+                    ? authorize(payment)
+                    : PaymentGatewayResult.reject("El pedido ya no puede ser pagado");
+        } catch (PaymentGatewayException e) {
+            resolveUnknownOutcome(payment, e, submittedAt);
+            return;
+        }
+
+        Completion completion = retry.execute(() -> complete(payment, result));
+        if (completion == null) {
+            return;
+        }
+
+        // La anulación corre con la transacción ya confirmada (sin bloqueos mientras espera a la pasarela)
+        if (completion.voidRequired()) {
+            String reason = completion.reason();
+            if (voidAuthorization(payment)) {
+                paymentRepository.markRejected(payment.getId(), PaymentStatus.REJECTED,
+                        limit(reason + ". Cobro anulado en la pasarela"), true);
+            } else {
+                paymentRepository.markRejected(payment.getId(), PaymentStatus.REJECTED,
+                        limit(reason + ". Anulación fallida: requiere reembolso manual"), false);
+            }
+        }
+        recordProcessingLatency(completion.status(), submittedAt);
+    }
+
+    /**
+     * La pasarela no respondió en ningún intento: el cobro pudo haberse autorizado igual
+     * Solo se rechaza (reintentable) si se pudo anular el transactionId; si no, sigue PENDING
+     */
+    private void resolveUnknownOutcome(Payment payment, PaymentGatewayException cause, long submittedAt) {
+        if (!voidAuthorization(payment)) {
+            log.warn("Resultado desconocido del pago {} ({}): queda PENDING para reintentarlo con el mismo transactionId",
+                    payment.getId(), cause.getMessage());
+            return;
+        }
+        String reason = "Pasarela de pagos no disponible: " + cause.getMessage() + ". Cobro anulado en la pasarela";
+        if (paymentRepository.markRejected(payment.getId(), PaymentStatus.PENDING, limit(reason), true)) {
+            recordProcessingLatency(PaymentStatus.REJECTED, submittedAt);
+        }
+    }
+
+    private void recordProcessingLatency(PaymentStatus status, long submittedAt) {
+        Timer.builder("payments.processing.latency")
+                .tag("status", status.name())
+                .register(meterRegistry)
+                .record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+    }
+
+    private boolean orderIsPayable(Long orderId) {
+        return orderRepository.findById(orderId).map(Order::canBePaid).orElse(false);
+    }
+
+    /**
+     * Autoriza el cobro reintentando fallas y timeouts de la pasarela
+     * Si se agotan los intentos lanza la última falla (resultado desconocido)
+     */
+    private PaymentGatewayResult authorize(Payment payment) {
+        for (int attempt = 1; ; attempt++) {
+            long start = System.nanoTime();
+            try {
+                PaymentGatewayResult result = callGateway(() -> gateway.authorize(payment, timeout));
+                recordGatewayLatency("authorize", result.approved() ? "approved" : "rejected", start);
+                return result;
+            } catch (PaymentGatewayException e) {
+                recordGatewayLatency("authorize", e.isTimeout() ? "timeout" : "error", start);
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                backoff(attempt);
+            }
+        }
+    }
+
+    /**
+     * Anula en la pasarela el cobro del transactionId del pago, con reintentos
+     * Devuelve false si se agotaron los intentos
+     */
+    private boolean voidAuthorization(Payment payment) {
+        for (int attempt = 1; ; attempt++) {
+            long start = System.nanoTime();
+            try {
+                callGateway(() -> {
+                    gateway.voidAuthorization(payment, timeout);
+                    return null;
+                });
+                recordGatewayLatency("void", "voided", start);
+                return true;
+            } catch (PaymentGatewayException e) {
+                recordGatewayLatency("void", e.isTimeout() ? "timeout" : "error", start);
+                if (attempt >= maxAttempts) {
+                    log.error("No se pudo anular el cobro {} del pago {}: {}",
+                            payment.getTransactionId(), payment.getId(), e.getMessage());
+                    return false;
+                }
+                backoff(attempt);
+            }
+        }
+    }
+
+    /**
+     * Llama a la pasarela esperando como máximo el timeout; al vencer cancela la llamada (interrumpe el hilo)
+     */
+    private <T> T callGateway(Callable<T> call) {
+        Future<T> future;
+        try {
+            future = gatewayExecutor.submit(call);
+        } catch (RejectedExecutionException e) {
+            throw new PaymentGatewayException("Pasarela saturada: demasiadas llamadas en curso", false);
+        }
+
+        try {
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new PaymentGatewayException("La pasarela no respondió en " + timeout.toMillis() + " ms", true);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof PaymentGatewayException gatewayException) {
+                throw gatewayException;
+            }
+            throw new PaymentGatewayException("Error de la pasarela: " + e.getCause().getMessage(), false);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PaymentGatewayException("Llamada a la pasarela interrumpida", false);
+        }
+    }
+
+    /**
+     * Registra el resultado; devuelve el estado final o null si otro worker ya lo había registrado
+     */
+    private Completion complete(Payment payment, PaymentGatewayResult result) {
+        Long paymentId = payment.getId();
+        if (!result.approved()) {
+            return paymentRepository.updateStatus(paymentId, PaymentStatus.PENDING, PaymentStatus.REJECTED, limit(result.reason()))
+                    ? new Completion(PaymentStatus.REJECTED, result.reason(), false)
+                    : null;
+        }
+        if (!paymentRepository.updateStatus(paymentId, PaymentStatus.PENDING, PaymentStatus.APPROVED, null)) {
+            return null;
+        }
+
+        Order order = orderRepository.findById(payment.getOrderId())
+                .orElseThrow(() -> new RuntimeException("Pedido no encontrado: " + payment.getOrderId()));
+
+        // Descontar el stock de todas las líneas en un solo lote (UPDATE condicional atómico)
+        Map<Long, Integer> quantities = order.quantitiesByProduct();
+        Map<Long, Integer> deltas = new HashMap<>(quantities.size());
+        quantities.forEach((productId, quantity) -> deltas.put(productId, -quantity));
+
+        // Ante un fallo se devuelve lo ya descontado en la misma transacción (en vez de revertirla)
+        // para que el rechazo quede registrado
+        List<Long> failed = productRepository.adjustStock(deltas);
+        if (!failed.isEmpty()) {
+            restoreStock(quantities, failed);
+            Long productId = failed.get(0);
+            return reject(paymentId, stockNotAvailable(productId, quantities.get(productId)).getMessage());
+        }
+
+        // Pasar a PAID con un UPDATE condicional: el pedido pudo cancelarse durante la autorización
+        if (!orderRepository.updateStatus(order.getId(), OrderStatus.CREATED, OrderStatus.PAID)) {
+            restoreStock(quantities, List.of());
+            return reject(paymentId, "El pedido ya no puede ser pagado");
+        }
+        statsRepository.recordStatusChange(order.getId(), OrderStatus.CREATED, OrderStatus.PAID);
+        eventPublisher.publish(OrderEvent.statusChanged(order.getId(), order.getUserId(), OrderStatus.CREATED, OrderStatus.PAID));
+        quantities.keySet().forEach(catalogCache::invalidate);
+
+        return new Completion(PaymentStatus.APPROVED, null, false);
+    }
+
+    /**
+     * Rechaza un pago ya aprobado por la pasarela: el cobro se anula al confirmar la transacción
+     * Hasta entonces no se puede reintentar (el cobro sigue autorizado)
+     */
+    private Completion reject(Long paymentId, String reason) {
+        paymentRepository.markRejected(paymentId, PaymentStatus.APPROVED, limit(reason + ". Anulando el cobro"), false);
+        return new Completion(PaymentStatus.REJECTED, reason, true);
+    }
+
+    private static String limit(String reason) {
+        return reason == null || reason.length() <= MAX_REASON_LENGTH ? reason : reason.substring(0, MAX_REASON_LENGTH);
+    }
+
+    /**
+     * Devuelve el stock descontado a los productos que no fallaron
+     */
+    private void restoreStock(Map<Long, Integer> quantities, List<Long> failed) {
+        Map<Long, Integer> restore = new HashMap<>(quantities);
+        failed.forEach(restore::remove);
+        if (!restore.isEmpty()) {
+            productRepository.adjustStock(restore);
+        }
+    }
+
+    /**
+     * Determina por qué no se pudo descontar el stock de un producto
+     * Solo se consulta el producto en el camino de error
+     */
+    private RuntimeException stockNotAvailable(Long productId, int quantity) {
+        Product product = productRepository.findById(productId).orElse(null);
+        if (product == null) {
+            return new ProductNotFoundException(productId);
+        }
+        if (!product.getActive()) {
+            return new InactiveProductException(product.getId(), product.getName());
+        }
+        return new InsufficientStockException(
+                product.getId(),
+                product.getName(),
+                quantity,
+                product.getStock()
+        );
+    }
+
+    private void recordGatewayLatency(String operation, String outcome, long start) {
+        Timer.builder("payments.gateway.latency")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Espera exponencial con jitter entre intentos (corre en un worker, nunca en un hilo de request)
+     */
+    private void backoff(int attempt) {
+        long delay = retryDelayMillis << (attempt - 1);
+        try {
+            Thread.sleep(delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ThreadFactory namedThreads() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "payment-gateway-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Resultado registrado en la transacción; voidRequired si hay que anular el cobro ya autorizado
+     */
+    private record Completion(PaymentStatus status, String reason, boolean voidRequired) {
+    }
+}
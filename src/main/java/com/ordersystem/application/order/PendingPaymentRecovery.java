@@ -0,0 +1,58 @@
+package com.ordersystem.application.order;
+
+import com.ordersystem.domain.repository.PaymentRepository;
+import com.ordersystem.infrastructure.payment.PaymentWorkerPool;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Vuelve a encolar los pagos que quedaron PENDING demasiado tiempo sin que un worker los reserve
+ * (reinicio de la aplicación con pagos en la cola, cola llena al registrarlos, o resultado desconocido)
+ *
+ * Encolar dos veces el mismo pago no lo procesa dos veces: PaymentProcessor lo reserva antes de llamar
+ * a la pasarela: mientras la reserva no vence, otra copia encolada del mismo pago no hace nada
+ * y la recuperación no lo vuelve a elegir
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "payment.recovery.enabled", havingValue = "true", matchIfMissing = true)
+public class PendingPaymentRecovery {
+
+    private final PaymentRepository paymentRepository;
+    private final PaymentProcessor paymentProcessor;
+    private final PaymentWorkerPool workerPool;
+    private final Duration staleAfter;
+    private final int batchSize;
+
+    public PendingPaymentRecovery(
+            PaymentRepository paymentRepository,
+            PaymentProcessor paymentProcessor,
+            PaymentWorkerPool workerPool,
+            @Value("${payment.recovery.stale-after:5m}") Duration staleAfter,
+            @Value("${payment.recovery.batch-size:100}") int batchSize) {
+        this.paymentRepository = paymentRepository;
+        this.paymentProcessor = paymentProcessor;
+        this.workerPool = workerPool;
+        this.staleAfter = staleAfter;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${payment.recovery.interval:60s}",
+            initialDelayString = "${payment.recovery.interval:60s}")
+    public void resubmitStalePayments() {
+        List<Long> paymentIds = paymentRepository.findStalePendingIds(LocalDateTime.now().minus(staleAfter), batchSize);
+        if (paymentIds.isEmpty()) {
+            return;
+        }
+
+        log.info("Reencolando {} pagos PENDING sin procesar", paymentIds.size());
+        paymentIds.forEach(paymentId -> workerPool.submitAfterCommit(paymentProcessor.taskFor(paymentId)));
+    }
+}
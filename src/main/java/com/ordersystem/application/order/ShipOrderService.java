@@ -0,0 +1,38 @@
+package com.ordersystem.application.order;
+
+import com.ordersystem.domain.enums.OrderStatus;
+import com.ordersystem.domain.model.Order;
+import com.ordersystem.domain.model.OrderEvent;
+import com.ordersystem.domain.repository.OrderRepository;
+import com.ordersystem.domain.repository.UserOrderStatsRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Servicio para marcar pedidos como enviados (PAID -> SHIPPED)
+ */
+@Service
+@RequiredArgsConstructor
+public class ShipOrderService {
+
+    private final OrderRepository orderRepository;
+    private final UserOrderStatsRepository statsRepository;
+    private final OrderEventPublisher eventPublisher;
+
+    @Transactional
+    public void execute(Long orderId) {
+        // Un solo UPDATE condicional; el pedido se lee solo para explicar el rechazo
+        if (!orderRepository.updateStatus(orderId, OrderStatus.PAID, OrderStatus.SHIPPED)) {
+            Order order = orderRepository.findById(orderId)
+                    .orElseThrow(() -> new RuntimeException("Pedido no encontrado: " + orderId));
+            throw new RuntimeException("El pedido no puede ser enviado. Estado actual: " + order.getStatus());
+        }
+
+        statsRepository.recordStatusChange(orderId, OrderStatus.PAID, OrderStatus.SHIPPED);
+
+        // Solo se lee el dueño del pedido (a quién notificar), no el pedido completo
+        Long userId = orderRepository.findUserIdById(orderId).orElseThrow();
+        eventPublisher.publish(OrderEvent.statusChanged(orderId, userId, OrderStatus.PAID, OrderStatus.SHIPPED));
+    }
+}
@@ -0,0 +1,145 @@
+package com.ordersystem.application.product;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ordersystem.infrastructure.cache.ProductCatalogCache;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Snapshot pre-serializado del catálogo de productos activos
+ * Guarda el JSON (y su variante gzip) ya generado junto con un ETag fuerte,
+ * y solo se reconstruye cuando cambia un producto (versión de ProductCatalogCache)
+ * o cuando vence el TTL del catálogo
+ *
+ * La reconstrucción consulta la base de datos, por eso usa un ReentrantLock y no synchronized:
+ * con virtual threads (Java 21) un bloque synchronized con I/O fija el hilo portador
+ */
+@Service
+public class ActiveCatalogSnapshot {
+
+    private final ProductService productService;
+    private final ProductCatalogCache catalogCache;
+    private final ObjectMapper objectMapper;
+    private final long ttlNanos;
+
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    private volatile Snapshot current;
+
+    public ActiveCatalogSnapshot(
+            ProductService productService,
+            ProductCatalogCache catalogCache,
+            ObjectMapper objectMapper,
+            @Value("${catalog.cache.ttl:60s}") Duration ttl) {
+        this.productService = productService;
+        this.catalogCache = catalogCache;
+        this.objectMapper = objectMapper;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    /**
+     * Devuelve el snapshot vigente, reconstruyéndolo si el catálogo cambió
+     */
+    public Snapshot get() {
+        Snapshot snapshot = current;
+        if (isFresh(snapshot)) {
+            return snapshot;
+        }
+        rebuildLock.lock();
+        try {
+            snapshot = current;
+            if (!isFresh(snapshot)) {
+                snapshot = build();
+                current = snapshot;
+            }
+            return snapshot;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private boolean isFresh(Snapshot snapshot) {
+        return snapshot != null
+                && snapshot.getVersion() == catalogCache.version()
+                && System.nanoTime() - snapshot.getBuiltAtNanos() < ttlNanos;
+    }
+
+    private Snapshot build() {
+        // La versión se lee antes de cargar: si el catálogo cambia durante la carga,
+        // el snapshot queda desactualizado y se vuelve a construir en la próxima lectura
+        long version = catalogCache.version();
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(productService.getActiveProducts());
+            String hash = sha256(json);
+            return new Snapshot(version, System.nanoTime(), json, gzip(json),
+                    "\"" + hash + "\"", "\"" + hash + "-gzip\"");
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static String sha256(byte[] data) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(data);
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Representaciones listas para enviar (identity y gzip, cada una con su ETag)
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Snapshot {
+        private final long version;
+        private final long builtAtNanos;
+        private final byte[] json;
+        private final byte[] gzipJson;
+        private final String etag;
+        private final String gzipEtag;
+
+        /**
+         * Indica si alguno de los ETags de If-None-Match corresponde a este snapshot
+         */
+        public boolean matches(String ifNoneMatch) {
+            if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+                return false;
+            }
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = candidate.trim();
+                if (tag.startsWith("W/")) {
+                    tag = tag.substring(2);
+                }
+                if (tag.equals("*") || tag.equals(etag) || tag.equals(gzipEtag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -6,6 +6,7 @@ import com.ordersystem.api.product.dto.UpdateProductRequest;
 import com.ordersystem.domain.model.Product;
 import com.ordersystem.domain.model.valueobject.Money;
 import com.ordersystem.domain.repository.ProductRepository;
+import com.ordersystem.infrastructure.cache.ProductCatalogCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -15,12 +16,14 @@ import java.util.stream.Collectors;
 
 /**
  * Servicio de gestión de productos
+ * Las lecturas públicas pasan por ProductCatalogCache; las escrituras la invalidan
  */
 
 @Service
 @RequiredArgsConstructor
 public class ProductService {
     private final ProductRepository productRepository;
+    private final ProductCatalogCache catalogCache;
 
     /**
      * Crear un nuevo producto
@@ -35,6 +38,7 @@ public class ProductService {
         product.setActive(request.getActive());
 
         Product saved = productRepository.save(product);
+        catalogCache.invalidate(saved.getId());
         return mapToResponse(saved);
     }
 
@@ -43,7 +47,7 @@ public class ProductService {
      */
     @Transactional(readOnly = true)
     public List<ProductResponse> getAllProducts() {
-        return productRepository.findAll().stream()
+        return catalogCache.findAll().stream()
                 .map(this::mapToResponse)
                 .collect(Collectors.toList());
     }
@@ -53,7 +57,7 @@ public class ProductService {
      */
     @Transactional(readOnly = true)
     public List<ProductResponse> getActiveProducts() {
-        return productRepository.findActiveProducts().stream()
+        return catalogCache.findActiveProducts().stream()
                 .map(this::mapToResponse)
                 .collect(Collectors.toList());
     }
@@ -63,7 +67,7 @@ public class ProductService {
      */
     @Transactional(readOnly = true)
     public ProductResponse getProductById(Long id) {
-        Product product = productRepository.findById(id)
+        Product product = catalogCache.findById(id)
                 .orElseThrow(() -> new RuntimeException("Producto no encontrado con ID: " + id));
         return mapToResponse(product);
     }
@@ -83,6 +87,7 @@ public class ProductService {
         product.setActive(request.getActive());
 
         Product updated = productRepository.save(product);
+        catalogCache.invalidate(id);
         return mapToResponse(updated);
     }
 
@@ -95,6 +100,7 @@ public class ProductService {
                 .orElseThrow(() -> new RuntimeException("Producto no encontrado con ID: " + id));
         product.setActive(false);
         productRepository.save(product);
+        catalogCache.invalidate(id);
     }
 
     /**
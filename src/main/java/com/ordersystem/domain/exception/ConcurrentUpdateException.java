@@ -0,0 +1,13 @@
+package com.ordersystem.domain.exception;
+
+/**
+ * Excepción lanzada cuando otra operación modificó el mismo recurso al mismo tiempo
+ * (conflicto de bloqueo optimista que no se resolvió con reintentos).
+ * Se mapea a HTTP 409 Conflict.
+ */
+public class ConcurrentUpdateException extends RuntimeException {
+
+    public ConcurrentUpdateException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
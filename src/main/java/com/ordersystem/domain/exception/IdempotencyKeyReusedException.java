@@ -0,0 +1,19 @@
+package com.ordersystem.domain.exception;
+
+/**
+ * Excepción lanzada cuando una clave de idempotencia ya usada llega con otro pedido.
+ * Se mapea a HTTP 422 Unprocessable Entity.
+ */
+public class IdempotencyKeyReusedException extends RuntimeException {
+
+    private final String key;
+
+    public IdempotencyKeyReusedException(String key) {
+        super(String.format("La Idempotency-Key '%s' ya se usó con un pedido distinto", key));
+        this.key = key;
+    }
+
+    public String getKey() {
+        return key;
+    }
+}
@@ -0,0 +1,19 @@
+package com.ordersystem.domain.exception;
+
+/**
+ * Excepción lanzada cuando la pasarela de pagos falla o no responde a tiempo.
+ * No es un rechazo del pago: el cobro se puede reintentar.
+ */
+public class PaymentGatewayException extends RuntimeException {
+
+    private final boolean timeout;
+
+    public PaymentGatewayException(String message, boolean timeout) {
+        super(message);
+        this.timeout = timeout;
+    }
+
+    public boolean isTimeout() {
+        return timeout;
+    }
+}
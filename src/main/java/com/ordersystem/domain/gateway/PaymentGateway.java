@@ -0,0 +1,30 @@
+package com.ordersystem.domain.gateway;
+
+import com.ordersystem.domain.model.Payment;
+
+import java.time.Duration;
+
+/**
+ * Puerto hacia la pasarela de pagos (capa de dominio)
+ * La implementación concreta vive en infraestructura (ej: StubPaymentGateway)
+ */
+public interface PaymentGateway {
+
+    /**
+     * Autoriza el cobro del pago y devuelve si fue aprobado o rechazado
+     * transactionId identifica el cobro: reintentar con el mismo valor no cobra dos veces
+     *
+     * @throws com.ordersystem.domain.exception.PaymentGatewayException si la pasarela falla
+     *         o no responde dentro de timeout (el cobro se puede reintentar)
+     */
+    PaymentGatewayResult authorize(Payment payment, Duration timeout);
+
+    /**
+     * Anula un cobro ya autorizado (el cliente no termina pagando)
+     * Anular dos veces el mismo transactionId no tiene efecto
+     *
+     * @throws com.ordersystem.domain.exception.PaymentGatewayException si la pasarela falla
+     *         o no responde dentro de timeout (la anulación se puede reintentar)
+     */
+    void voidAuthorization(Payment payment, Duration timeout);
+}
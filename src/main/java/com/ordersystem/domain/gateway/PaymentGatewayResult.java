@@ -0,0 +1,15 @@
+package com.ordersystem.domain.gateway;
+
+/**
+ * Respuesta de la pasarela: aprobado, o rechazado con el motivo
+ */
+public record PaymentGatewayResult(boolean approved, String reason) {
+
+    public static PaymentGatewayResult approve() {
+        return new PaymentGatewayResult(true, null);
+    }
+
+    public static PaymentGatewayResult reject(String reason) {
+        return new PaymentGatewayResult(false, reason);
+    }
+}
@@ -0,0 +1,7 @@
+package com.ordersystem.domain.model;
+
+/**
+ * Clave de idempotencia ya registrada: el hash del request que la usó y el pedido que creó
+ */
+public record IdempotencyRecord(String requestHash, Long orderId) {
+}
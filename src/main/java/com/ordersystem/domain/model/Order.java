@@ -8,8 +8,11 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
 
 /**
  * Modelo de dominio para Pedido
@@ -26,6 +29,8 @@ public class Order {
     private Money total;
     private Address address;
     private List<OrderItem> items = new ArrayList<>();
+    private LocalDateTime createdAt;
+    private Long version;
 
     /**
      * Agregar item al pedido
@@ -45,6 +50,18 @@ public class Order {
         return sum;
     }
 
+    /**
+     * Cantidad total por producto, ordenada por ID de producto
+     * Agrupa las líneas que repiten el mismo producto
+     */
+    public SortedMap<Long, Integer> quantitiesByProduct() {
+        SortedMap<Long, Integer> quantities = new TreeMap<>();
+        for (OrderItem item : items) {
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        return quantities;
+    }
+
     /**
      * Verificar si el pedido puede ser cancelado
      */
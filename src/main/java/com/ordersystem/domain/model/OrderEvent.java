@@ -0,0 +1,32 @@
+package com.ordersystem.domain.model;
+
+import com.ordersystem.domain.enums.OrderStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Cambio de estado de un pedido (creado, pagado, cancelado, enviado)
+ * previousStatus es null cuando el pedido se acaba de crear
+ */
+public record OrderEvent(
+        Long orderId,
+        Long userId,
+        OrderStatus previousStatus,
+        OrderStatus status,
+        LocalDateTime occurredAt) {
+
+    public static OrderEvent created(Long orderId, Long userId, LocalDateTime createdAt) {
+        return new OrderEvent(orderId, userId, null, OrderStatus.CREATED, createdAt);
+    }
+
+    public static OrderEvent statusChanged(Long orderId, Long userId, OrderStatus from, OrderStatus to) {
+        return new OrderEvent(orderId, userId, from, to, LocalDateTime.now());
+    }
+
+    /**
+     * Tipo del evento para los consumidores: ORDER_CREATED, ORDER_PAID, ORDER_CANCELLED, ORDER_SHIPPED
+     */
+    public String type() {
+        return "ORDER_" + status.name();
+    }
+}
@@ -0,0 +1,24 @@
+package com.ordersystem.domain.model;
+
+import com.ordersystem.domain.enums.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Resumen de un pedido para listados (sin dirección ni items)
+ * Se construye directamente desde la consulta: solo las columnas necesarias y la cantidad de items
+ */
+@Getter
+@AllArgsConstructor
+public class OrderSummary {
+
+    private final Long id;
+    private final OrderStatus status;
+    private final BigDecimal total;
+    private final String currency;
+    private final long itemCount;
+    private final LocalDateTime createdAt;
+}
@@ -0,0 +1,19 @@
+package com.ordersystem.domain.model;
+
+import com.ordersystem.domain.enums.OrderStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento de pedido registrado en el outbox, pendiente de publicar
+ * El id es creciente y sirve a los consumidores para descartar duplicados
+ */
+public record OutboxMessage(
+        Long id,
+        String eventType,
+        Long orderId,
+        Long userId,
+        OrderStatus previousStatus,
+        OrderStatus status,
+        LocalDateTime occurredAt) {
+}
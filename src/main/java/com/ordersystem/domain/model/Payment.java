@@ -22,6 +22,8 @@ public class Payment {
     private PaymentStatus status;
     private String paymentMethod;
     private String transactionId;
+    private String failureReason;  // Solo en pagos REJECTED
+    private boolean retryable = true;  // REJECTED sin un cobro autorizado pendiente de anular
 
     /**
      * Verificar si el pago fue aprobado
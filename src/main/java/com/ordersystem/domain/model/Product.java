@@ -22,6 +22,7 @@ public class Product {
     private Money price;
     private Integer stock;
     private Boolean active;
+    private Long version;
 
     /**
      * Verifica si hay stock suficiente
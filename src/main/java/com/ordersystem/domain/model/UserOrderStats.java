@@ -0,0 +1,39 @@
+package com.ordersystem.domain.model;
+
+import com.ordersystem.domain.enums.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Estadísticas de pedidos de un usuario
+ * Cantidad de pedidos en cada estado, total pagado (PAID + SHIPPED) y fecha del último pedido
+ */
+@Getter
+@AllArgsConstructor
+public class UserOrderStats {
+
+    private final Long userId;
+    private final Map<OrderStatus, Long> countsByStatus;
+    private final BigDecimal totalPaid;
+    private final LocalDateTime lastOrderAt;
+
+    /**
+     * Estadísticas de un usuario sin pedidos
+     */
+    public static UserOrderStats empty(Long userId) {
+        Map<OrderStatus, Long> counts = new EnumMap<>(OrderStatus.class);
+        for (OrderStatus status : OrderStatus.values()) {
+            counts.put(status, 0L);
+        }
+        return new UserOrderStats(userId, counts, BigDecimal.ZERO, null);
+    }
+
+    public long getTotalOrders() {
+        return countsByStatus.values().stream().mapToLong(Long::longValue).sum();
+    }
+}
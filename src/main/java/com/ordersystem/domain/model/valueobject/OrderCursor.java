@@ -0,0 +1,37 @@
+package com.ordersystem.domain.model.valueobject;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Value Object que representa la posición de un pedido en el listado paginado
+ * Orden: created_at DESC, id DESC (el id desempata pedidos con la misma fecha)
+ */
+@Getter
+@AllArgsConstructor
+public class OrderCursor {
+    private final LocalDateTime createdAt;
+    private final Long id;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        OrderCursor cursor = (OrderCursor) o;
+        return Objects.equals(createdAt, cursor.createdAt) &&
+                Objects.equals(id, cursor.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(createdAt, id);
+    }
+
+    @Override
+    public String toString() {
+        return createdAt + " #" + id;
+    }
+}
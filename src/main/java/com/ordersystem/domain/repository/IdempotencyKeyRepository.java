@@ -0,0 +1,32 @@
+package com.ordersystem.domain.repository;
+
+import com.ordersystem.domain.model.IdempotencyRecord;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Interfaz de repositorio para las claves de idempotencia de pedidos (capa de dominio)
+ * Las claves son por usuario: la misma clave de dos usuarios distintos son claves distintas
+ */
+public interface IdempotencyKeyRepository {
+
+    Optional<IdempotencyRecord> find(Long userId, String key);
+
+    /**
+     * Registra la clave antes de crear el pedido (debe correr en la misma transacción)
+     * Si otra transacción ya la registró, espera a que termine y falla con
+     * DataIntegrityViolationException si esa transacción confirmó
+     */
+    void reserve(Long userId, String key, String requestHash);
+
+    /**
+     * Asocia a la clave el pedido que se creó con ella
+     */
+    void assignOrder(Long userId, String key, Long orderId);
+
+    /**
+     * Borra hasta limit claves registradas antes de createdBefore; devuelve la cantidad borrada
+     */
+    int deleteCreatedBefore(LocalDateTime createdBefore, int limit);
+}
@@ -1,9 +1,13 @@
 package com.ordersystem.domain.repository;
 
+import com.ordersystem.domain.enums.OrderStatus;
 import com.ordersystem.domain.model.Order;
+import com.ordersystem.domain.model.OrderSummary;
+import com.ordersystem.domain.model.valueobject.OrderCursor;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Interfaz de repositorio para Order (capa de dominio)
@@ -14,5 +18,37 @@ public interface OrderRepository {
     Optional<Order> findById(Long id);
     List<Order> findAll();
     List<Order> findByUserId(Long userId);
+
+    /**
+     * Página de pedidos ordenada por (created_at DESC, id DESC)
+     * after = null devuelve la primera página
+     */
+    List<Order> findPage(OrderCursor after, int limit);
+    List<Order> findPageByUserId(Long userId, OrderCursor after, int limit);
+
+    /**
+     * Página de resúmenes (sin dirección ni items), mismo orden y cursor que findPage
+     */
+    List<OrderSummary> findSummaryPage(OrderCursor after, int limit);
+    List<OrderSummary> findSummaryPageByUserId(Long userId, OrderCursor after, int limit);
+
     boolean existsById(Long id);
+
+    /**
+     * Dueño del pedido, sin cargar el pedido ni sus items
+     */
+    Optional<Long> findUserIdById(Long id);
+
+    /**
+     * Cambia el estado del pedido con un UPDATE condicional (sin reescribir el pedido ni sus items)
+     * Devuelve false si el pedido no existe o ya no estaba en el estado esperado
+     * (otra operación concurrente lo cambió antes)
+     */
+    boolean updateStatus(Long id, OrderStatus expected, OrderStatus next);
+
+    /**
+     * Recorre todos los pedidos sin cargarlos en memoria a la vez
+     * Debe consumirse dentro de una transacción y cerrarse al terminar
+     */
+    Stream<Order> streamAll();
 }
@@ -0,0 +1,23 @@
+package com.ordersystem.domain.repository;
+
+import com.ordersystem.domain.model.OrderEvent;
+import com.ordersystem.domain.model.OutboxMessage;
+
+import java.util.List;
+
+/**
+ * Interfaz de repositorio para el outbox de eventos de pedidos (capa de dominio)
+ * append debe correr en la transacción que cambia el pedido: el evento existe si y solo si el cambio confirmó
+ */
+public interface OutboxRepository {
+
+    void append(OrderEvent event);
+
+    /**
+     * Bloquea los próximos mensajes pendientes, en orden de registro, salteando los que
+     * otro relay ya tiene bloqueados (requiere una transacción activa)
+     */
+    List<OutboxMessage> lockNextBatch(int limit);
+
+    void delete(List<Long> ids);
+}
@@ -1,7 +1,10 @@
 package com.ordersystem.domain.repository;
 
+import com.ordersystem.domain.enums.PaymentStatus;
 import com.ordersystem.domain.model.Payment;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -12,5 +15,40 @@ public interface PaymentRepository {
     Payment save(Payment payment);
     Optional<Payment> findById(Long id);
     Optional<Payment> findByOrderId(Long orderId);
-    boolean existsByOrderId(Long orderId);
+
+    /**
+     * Inserta el pago solo si el pedido todavía no tiene uno (restricción payments_order_unique)
+     * Vacío si ya existía: un pago concurrente del mismo pedido espera a que el primero termine
+     * y, si este confirmó, no inserta nada (sin abortar la transacción)
+     */
+    Optional<Payment> insertIfAbsent(Payment payment);
+
+    /**
+     * Cambia el estado del pago solo si sigue en el estado esperado (failureReason solo para REJECTED)
+     * Devuelve false si el pago no existe o otro proceso ya lo cambió
+     */
+    boolean updateStatus(Long id, PaymentStatus expected, PaymentStatus next, String failureReason);
+
+    /**
+     * Pasa el pago a REJECTED solo si sigue en el estado esperado (REJECTED para actualizar el motivo)
+     * retryable indica si el cliente puede reintentarlo con un nuevo transactionId
+     */
+    boolean markRejected(Long id, PaymentStatus expected, String failureReason, boolean retryable);
+
+    /**
+     * Vuelve a PENDING un pago REJECTED con un nuevo medio de pago y un nuevo transactionId
+     * Devuelve false si el pago ya no estaba REJECTED o no se puede reintentar (retryable = false)
+     */
+    boolean retryRejected(Long id, String paymentMethod, String transactionId);
+
+    /**
+     * Reserva un pago PENDING para procesarlo (antes de llamar a la pasarela)
+     * Devuelve false si el pago ya no está PENDING o lo reservó otro worker después de staleBefore
+     */
+    boolean claim(Long id, LocalDateTime staleBefore);
+
+    /**
+     * IDs de los pagos PENDING sin cambios ni reservas desde antes de la fecha indicada (los más antiguos primero)
+     */
+    List<Long> findStalePendingIds(LocalDateTime before, int limit);
 }
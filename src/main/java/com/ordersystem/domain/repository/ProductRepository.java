@@ -2,7 +2,9 @@ package com.ordersystem.domain.repository;
 
 import com.ordersystem.domain.model.Product;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -14,7 +16,16 @@ public interface ProductRepository {
     Product save(Product product);
     Optional<Product> findById(Long id);
     List<Product> findAll();
+    List<Product> findAllByIds(Collection<Long> ids);
     List<Product> findActiveProducts();
     void deleteById(Long id);
     boolean existsById(Long id);
+
+    /**
+     * Aplica en lote los ajustes de stock de un pedido (productId -> delta)
+     * Las filas se actualizan en orden de ID para evitar deadlocks
+     * Un delta negativo solo se aplica si el producto está activo y tiene stock suficiente
+     * Devuelve los IDs de los productos que no se pudieron ajustar, en orden (vacío si todo OK)
+     */
+    List<Long> adjustStock(Map<Long, Integer> deltas);
 }
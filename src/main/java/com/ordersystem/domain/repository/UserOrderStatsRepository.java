@@ -0,0 +1,27 @@
+package com.ordersystem.domain.repository;
+
+import com.ordersystem.domain.enums.OrderStatus;
+import com.ordersystem.domain.model.UserOrderStats;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Interfaz de repositorio para las estadísticas de pedidos por usuario (capa de dominio)
+ * Las actualizaciones son incrementales y deben correr en la transacción que cambia el pedido
+ */
+public interface UserOrderStatsRepository {
+
+    Optional<UserOrderStats> findByUserId(Long userId);
+
+    /**
+     * Suma un pedido nuevo (estado CREATED) a las estadísticas del usuario
+     */
+    void recordOrderCreated(Long userId, LocalDateTime createdAt);
+
+    /**
+     * Mueve un pedido de un estado a otro en las estadísticas de su usuario
+     * y ajusta el total pagado con el total del pedido
+     */
+    void recordStatusChange(Long orderId, OrderStatus from, OrderStatus to);
+}
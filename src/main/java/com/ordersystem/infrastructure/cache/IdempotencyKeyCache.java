@@ -0,0 +1,48 @@
+package com.ordersystem.infrastructure.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ordersystem.domain.model.IdempotencyRecord;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Caché en memoria de las claves de pedidos creados con Idempotency-Key (hash del request y pedido creado)
+ * Un reintento del cliente (misma clave) encuentra el pedido sin consultar la tabla idempotency_keys.
+ * Guarda solo el ID: la respuesta se arma siempre con el estado actual del pedido, igual que desde la tabla.
+ * Es solo un frente de corta duración: la fuente de verdad es la tabla idempotency_keys.
+ * Los hits/misses/evictions se publican como métricas "cache.*" (cache=order.idempotency)
+ */
+@Component
+public class IdempotencyKeyCache {
+
+    private final Cache<CacheKey, IdempotencyRecord> records;
+
+    public IdempotencyKeyCache(
+            MeterRegistry meterRegistry,
+            @Value("${order.idempotency.cache.max-size:10000}") long maxSize,
+            @Value("${order.idempotency.cache.ttl:10m}") Duration ttl) {
+        this.records = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, records, "order.idempotency");
+    }
+
+    public Optional<IdempotencyRecord> get(Long userId, String key) {
+        return Optional.ofNullable(records.getIfPresent(new CacheKey(userId, key)));
+    }
+
+    public void put(Long userId, String key, IdempotencyRecord record) {
+        records.put(new CacheKey(userId, key), record);
+    }
+
+    private record CacheKey(Long userId, String key) {
+    }
+}
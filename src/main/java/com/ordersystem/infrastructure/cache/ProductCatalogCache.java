@@ -0,0 +1,142 @@
+package com.ordersystem.infrastructure.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ordersystem.domain.model.Product;
+import com.ordersystem.domain.repository.ProductRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Caché en memoria del catálogo de productos (lecturas públicas)
+ * Se ubica delante de ProductRepository con tamaño máximo y expiración (TTL)
+ *
+ * Las escrituras invalidan la caché al momento y otra vez al terminar la transacción,
+ * así una lectura concurrente no deja cacheado el valor anterior a la transacción.
+ * Los hits/misses/evictions se publican como métricas "cache.*" (cache=product.*)
+ */
+@Component
+public class ProductCatalogCache {
+
+    private static final String ALL = "all";
+    private static final String ACTIVE = "active";
+
+    private final ProductRepository productRepository;
+    private final Cache<Long, Product> productsById;
+    private final Cache<String, List<Product>> productLists;
+    private final AtomicLong version = new AtomicLong();
+
+    public ProductCatalogCache(
+            ProductRepository productRepository,
+            MeterRegistry meterRegistry,
+            @Value("${catalog.cache.max-size:10000}") long maxSize,
+            @Value("${catalog.cache.ttl:60s}") Duration ttl) {
+        this.productRepository = productRepository;
+        this.productsById = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.productLists = Caffeine.newBuilder()
+                .maximumSize(2)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, productsById, "product.byId");
+        CaffeineCacheMetrics.monitor(meterRegistry, productLists, "product.lists");
+    }
+
+    /**
+     * Producto por ID (una copia: el llamador puede modificarla sin afectar la caché)
+     * La carga es atómica: una invalidación concurrente espera a que termine y la descarta,
+     * así un valor leído antes del commit no queda cacheado después de invalidar
+     */
+    public Optional<Product> findById(Long id) {
+        Product cached = productsById.get(id, key -> productRepository.findById(key)
+                .map(ProductCatalogCache::copy)
+                .orElse(null));
+        return Optional.ofNullable(cached).map(ProductCatalogCache::copy);
+    }
+
+    public List<Product> findAll() {
+        return copyAll(productLists.get(ALL, key -> copyAll(productRepository.findAll())));
+    }
+
+    public List<Product> findActiveProducts() {
+        return copyAll(productLists.get(ACTIVE, key -> copyAll(productRepository.findActiveProducts())));
+    }
+
+    /**
+     * Versión del catálogo: cambia con cada invalidación
+     * Permite a quien derive datos del catálogo saber si debe recalcularlos
+     */
+    public long version() {
+        return version.get();
+    }
+
+    /**
+     * Invalida un producto (y los listados que lo contienen)
+     */
+    public void invalidate(Long productId) {
+        evict(productId);
+        afterCommit(() -> evict(productId));
+    }
+
+    public void invalidateAll() {
+        evictAll();
+        afterCommit(this::evictAll);
+    }
+
+    private void evict(Long productId) {
+        if (productId != null) {
+            productsById.invalidate(productId);
+        }
+        productLists.invalidateAll();
+        version.incrementAndGet();
+    }
+
+    private void evictAll() {
+        productsById.invalidateAll();
+        productLists.invalidateAll();
+        version.incrementAndGet();
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    action.run();
+                }
+            });
+        }
+    }
+
+    private static List<Product> copyAll(List<Product> products) {
+        return products.stream()
+                .map(ProductCatalogCache::copy)
+                .collect(Collectors.toList());
+    }
+
+    private static Product copy(Product product) {
+        return new Product(
+                product.getId(),
+                product.getName(),
+                product.getDescription(),
+                product.getPrice(),
+                product.getStock(),
+                product.getActive(),
+                product.getVersion()
+        );
+    }
+}
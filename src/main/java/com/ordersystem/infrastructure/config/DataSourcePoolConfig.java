@@ -0,0 +1,60 @@
+package com.ordersystem.infrastructure.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+
+/**
+ * Dimensionamiento del pool de conexiones (HikariCP) en producción
+ *
+ * Si no se fija un tamaño explícito (spring.datasource.hikari.maximum-pool-size),
+ * se calcula a partir de los núcleos de CPU y de cuánto espera cada consulta a la base de datos:
+ *   núcleos * (1 + latencia / tiempo de CPU por consulta), acotado por db.pool.max-size
+ * El pool es fijo (mínimo = máximo) para no abrir conexiones justo cuando llega la carga.
+ */
+@Slf4j
+@Configuration
+@Profile("prod")
+public class DataSourcePoolConfig {
+
+    @Bean
+    public static BeanPostProcessor hikariPoolSizer(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource dataSource
+                        && !environment.containsProperty("spring.datasource.hikari.maximum-pool-size")) {
+                    int size = poolSize(
+                            Runtime.getRuntime().availableProcessors(),
+                            duration(environment, "db.pool.expected-latency", "5ms"),
+                            duration(environment, "db.pool.cpu-time-per-query", "1ms"),
+                            environment.getProperty("db.pool.max-size", Integer.class, 50));
+                    dataSource.setMaximumPoolSize(size);
+                    dataSource.setMinimumIdle(size);
+                    log.info("Pool de conexiones '{}' dimensionado en {} conexiones", dataSource.getPoolName(), size);
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Tamaño del pool: mientras una consulta espera a la base de datos, el núcleo puede atender otras
+     */
+    static int poolSize(int cores, Duration expectedLatency, Duration cpuTimePerQuery, int maxSize) {
+        double waitRatio = (double) expectedLatency.toNanos() / Math.max(cpuTimePerQuery.toNanos(), 1);
+        long size = Math.round(cores * (1 + waitRatio));
+        return (int) Math.max(2, Math.min(size, maxSize));
+    }
+
+    private static Duration duration(Environment environment, String key, String defaultValue) {
+        return DurationStyle.detectAndParse(environment.getProperty(key, defaultValue));
+    }
+}
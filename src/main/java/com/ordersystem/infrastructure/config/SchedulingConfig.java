@@ -0,0 +1,12 @@
+package com.ordersystem.infrastructure.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Habilita las tareas periódicas (@Scheduled), ej: recuperación de pagos PENDING
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
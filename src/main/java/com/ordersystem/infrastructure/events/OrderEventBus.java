@@ -0,0 +1,300 @@
+package com.ordersystem.infrastructure.events;
+
+import com.ordersystem.domain.model.OrderEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bus de eventos en memoria: entrega los cambios de estado de pedidos a los suscriptores de su usuario
+ *
+ * Publicar nunca bloquea al servicio que cambió el pedido: cada suscriptor tiene un buffer acotado
+ * y lo vacía un pool de hilos propio. Si el buffer se llena (consumidor lento) la suscripción se cierra;
+ * el cliente vuelve a conectarse y relee el estado de sus pedidos.
+ *
+ * Cada escritura tiene un plazo (order.events.send-timeout): un cliente que deja de leer bloquea el envío
+ * en curso, y con pocos hilos eso demoraría a todos los demás. closeStalledSubscriptions cierra la suscripción
+ * cuyo envío lleva más que el plazo e interrumpe al hilo que escribe para devolverlo al pool.
+ * Así un hilo queda retenido a lo sumo send-timeout por cliente trabado (más lo que tarde el contenedor
+ * en abortar la escritura si no responde a la interrupción).
+ *
+ * Métricas: "order.events.subscribers", "order.events.dropped" (consumidores lentos desconectados),
+ * "order.events.stalled" (envíos que vencieron el plazo) y "executor.*" con name=order.events.sender
+ */
+@Slf4j
+@Component
+public class OrderEventBus {
+
+    private final Map<Long, Set<Subscription>> subscriptionsByUser = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final ExecutorService sender;
+    private final Counter dropped;
+    private final Counter stalled;
+    private final int bufferSize;
+    private final long sendTimeoutNanos;
+
+    public OrderEventBus(
+            MeterRegistry meterRegistry,
+            @Value("${order.events.buffer-size:64}") int bufferSize,
+            @Value("${order.events.sender-threads:2}") int senderThreads,
+            @Value("${order.events.send-timeout:5s}") Duration sendTimeout) {
+        this.bufferSize = bufferSize;
+        this.sendTimeoutNanos = sendTimeout.toNanos();
+        // Cada suscriptor tiene a lo sumo una tarea encolada: la cola queda acotada por los suscriptores
+        this.sender = Executors.newFixedThreadPool(senderThreads, namedThreads());
+        this.dropped = Counter.builder("order.events.dropped")
+                .description("Suscripciones cerradas por no consumir los eventos a tiempo")
+                .register(meterRegistry);
+        this.stalled = Counter.builder("order.events.stalled")
+                .description("Suscripciones cerradas porque un envío superó order.events.send-timeout")
+                .register(meterRegistry);
+        Gauge.builder("order.events.subscribers", subscriberCount, AtomicInteger::get)
+                .description("Suscripciones activas a eventos de pedidos")
+                .register(meterRegistry);
+        ExecutorServiceMetrics.monitor(meterRegistry, sender, "order.events.sender");
+    }
+
+    /**
+     * Suscribe al listener a los eventos de los pedidos del usuario
+     */
+    public Subscription subscribe(Long userId, OrderEventListener listener) {
+        Subscription subscription = new Subscription(userId, listener, new ArrayBlockingQueue<>(bufferSize));
+        subscriptionsByUser.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(subscription);
+        subscriberCount.incrementAndGet();
+        return subscription;
+    }
+
+    /**
+     * Publica el evento cuando confirma la transacción actual (un cambio revertido no se anuncia)
+     * Sin transacción activa se publica al momento
+     */
+    public void publishAfterCommit(OrderEvent event) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(event);
+                }
+            });
+        } else {
+            publish(event);
+        }
+    }
+
+    public void publish(OrderEvent event) {
+        Set<Subscription> subscriptions = subscriptionsByUser.get(event.userId());
+        if (subscriptions != null) {
+            subscriptions.forEach(subscription -> subscription.offer(event));
+        }
+    }
+
+    @Scheduled(fixedRateString = "${order.events.heartbeat:15s}")
+    public void sendHeartbeats() {
+        subscriptionsByUser.values().forEach(subscriptions -> subscriptions.forEach(Subscription::heartbeat));
+    }
+
+    /**
+     * Cierra las suscripciones con un envío trabado (más de send-timeout escribiendo)
+     * Corre con período send-timeout: un envío trabado se corta antes de 2 * send-timeout
+     */
+    @Scheduled(fixedRateString = "${order.events.send-timeout:5s}")
+    public void closeStalledSubscriptions() {
+        long now = System.nanoTime();
+        subscriptionsByUser.values().forEach(subscriptions ->
+                subscriptions.forEach(subscription -> subscription.closeIfStalled(now)));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscriptionsByUser.values().forEach(subscriptions -> subscriptions.forEach(Subscription::close));
+        sender.shutdown();
+    }
+
+    private void remove(Subscription subscription) {
+        subscriptionsByUser.computeIfPresent(subscription.userId, (userId, subscriptions) -> {
+            subscriptions.remove(subscription);
+            return subscriptions.isEmpty() ? null : subscriptions;
+        });
+        subscriberCount.decrementAndGet();
+    }
+
+    private static ThreadFactory namedThreads() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "order-events-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Suscripción de un cliente: buffer acotado de eventos pendientes de entregar
+     * A lo sumo un hilo del pool la vacía a la vez, así el listener recibe los eventos en orden
+     */
+    public final class Subscription implements AutoCloseable {
+
+        private final Long userId;
+        private final OrderEventListener listener;
+        private final BlockingQueue<OrderEvent> buffer;
+        private final AtomicBoolean heartbeatPending = new AtomicBoolean();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        // Envío en curso: hilo que escribe y desde cuándo (protegidos por sendLock)
+        private final ReentrantLock sendLock = new ReentrantLock();
+        private Thread sendingThread;
+        private long sendStartedAt;
+        private boolean interruptedByWatchdog;
+
+        private Subscription(Long userId, OrderEventListener listener, BlockingQueue<OrderEvent> buffer) {
+            this.userId = userId;
+            this.listener = listener;
+            this.buffer = buffer;
+        }
+
+        private void offer(OrderEvent event) {
+            if (closed.get()) {
+                return;
+            }
+            if (!buffer.offer(event)) {
+                dropped.increment();
+                log.warn("Suscriptor lento del usuario {}: buffer lleno ({} eventos), se cierra la suscripción",
+                        userId, bufferSize);
+                close();
+                return;
+            }
+            schedule();
+        }
+
+        private void heartbeat() {
+            heartbeatPending.set(true);
+            schedule();
+        }
+
+        private void schedule() {
+            if (!closed.get() && scheduled.compareAndSet(false, true)) {
+                try {
+                    sender.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    // El bus se está apagando
+                    close();
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                do {
+                    deliverPending();
+                    scheduled.set(false);
+                    // Un evento pudo llegar entre el último poll y liberar la marca
+                } while (hasPending() && !closed.get() && scheduled.compareAndSet(false, true));
+            } catch (IOException | RuntimeException e) {
+                scheduled.set(false);
+                close();
+            }
+        }
+
+        private void deliverPending() throws IOException {
+            OrderEvent event;
+            while (!closed.get() && (event = buffer.poll()) != null) {
+                OrderEvent next = event;
+                send(() -> listener.onEvent(next));
+            }
+            if (!closed.get() && heartbeatPending.getAndSet(false)) {
+                send(listener::onHeartbeat);
+            }
+        }
+
+        private void send(Send send) throws IOException {
+            sendLock.lock();
+            try {
+                sendingThread = Thread.currentThread();
+                sendStartedAt = System.nanoTime();
+            } finally {
+                sendLock.unlock();
+            }
+            try {
+                send.run();
+            } finally {
+                sendLock.lock();
+                try {
+                    sendingThread = null;
+                    // La interrupción era para este envío: no debe alcanzar a la próxima tarea del hilo
+                    if (interruptedByWatchdog) {
+                        interruptedByWatchdog = false;
+                        Thread.interrupted();
+                    }
+                } finally {
+                    sendLock.unlock();
+                }
+            }
+        }
+
+        private void closeIfStalled(long now) {
+            sendLock.lock();
+            try {
+                if (sendingThread == null || now - sendStartedAt < sendTimeoutNanos) {
+                    return;
+                }
+                interruptedByWatchdog = true;
+                sendingThread.interrupt();
+            } finally {
+                sendLock.unlock();
+            }
+            stalled.increment();
+            log.warn("Suscriptor trabado del usuario {}: un envío superó {} ms, se cierra la suscripción",
+                    userId, TimeUnit.NANOSECONDS.toMillis(sendTimeoutNanos));
+            close();
+        }
+
+        private boolean hasPending() {
+            return !buffer.isEmpty() || heartbeatPending.get();
+        }
+
+        /**
+         * Cierra la suscripción (idempotente): deja de recibir eventos y notifica al listener
+         */
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                remove(this);
+                buffer.clear();
+                listener.onClose();
+            }
+        }
+
+        public boolean isClosed() {
+            return closed.get();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Send {
+        void run() throws IOException;
+    }
+}
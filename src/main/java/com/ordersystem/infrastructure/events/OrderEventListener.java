@@ -0,0 +1,26 @@
+package com.ordersystem.infrastructure.events;
+
+import com.ordersystem.domain.model.OrderEvent;
+
+import java.io.IOException;
+
+/**
+ * Receptor de los eventos de un suscriptor de OrderEventBus (ej: una conexión SSE)
+ * Se invoca desde un hilo del bus, nunca en paralelo para el mismo suscriptor
+ * Si lanza IOException (cliente desconectado) la suscripción se cierra; si una llamada supera
+ * order.events.send-timeout la suscripción se cierra y el hilo se interrumpe
+ */
+public interface OrderEventListener {
+
+    void onEvent(OrderEvent event) throws IOException;
+
+    /**
+     * Mantiene viva la conexión cuando no hay eventos (y detecta clientes desconectados)
+     */
+    void onHeartbeat() throws IOException;
+
+    /**
+     * La suscripción se cerró: cliente desconectado, consumidor lento o apagado de la aplicación
+     */
+    void onClose();
+}
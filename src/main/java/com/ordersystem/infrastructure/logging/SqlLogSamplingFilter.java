@@ -0,0 +1,66 @@
+package com.ordersystem.infrastructure.logging;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.NonNull;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decide por request si se loguea el SQL (ver SqlLogTurboFilter)
+ *
+ * Se activa para una fracción aleatoria de los requests (logging.sql.sample-rate)
+ * o, si está habilitado, cuando el request trae el header X-Debug-Sql: true.
+ * El resto de los requests no paga el costo de formatear y escribir cada consulta.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class SqlLogSamplingFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-Debug-Sql";
+
+    private final double sampleRate;
+    private final boolean headerEnabled;
+
+    public SqlLogSamplingFilter(
+            @Value("${logging.sql.sample-rate:0}") double sampleRate,
+            @Value("${logging.sql.header-enabled:false}") boolean headerEnabled) {
+        this.sampleRate = sampleRate;
+        this.headerEnabled = headerEnabled;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+
+        if (!shouldLogSql(request)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        MDC.put(SqlLogTurboFilter.MDC_KEY, "true");
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            MDC.remove(SqlLogTurboFilter.MDC_KEY);
+        }
+    }
+
+    private boolean shouldLogSql(HttpServletRequest request) {
+        if (headerEnabled && "true".equalsIgnoreCase(request.getHeader(HEADER))) {
+            return true;
+        }
+        return sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+}
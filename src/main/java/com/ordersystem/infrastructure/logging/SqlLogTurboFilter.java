@@ -0,0 +1,31 @@
+package com.ordersystem.infrastructure.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.MDC;
+import org.slf4j.Marker;
+
+/**
+ * Habilita el log de SQL de Hibernate solo en los requests marcados por SqlLogSamplingFilter
+ *
+ * Se registra en logback-spring.xml. Los loggers de SQL quedan en su nivel normal (INFO);
+ * en los requests marcados se aceptan sus mensajes DEBUG/TRACE (sentencias y parámetros).
+ */
+public class SqlLogTurboFilter extends TurboFilter {
+
+    public static final String MDC_KEY = "sqlLog";
+
+    private static final String SQL_LOGGER = "org.hibernate.SQL";
+    private static final String BIND_LOGGER = "org.hibernate.orm.jdbc.bind";
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        String name = logger.getName();
+        if ((name.equals(SQL_LOGGER) || name.equals(BIND_LOGGER)) && MDC.get(MDC_KEY) != null) {
+            return FilterReply.ACCEPT;
+        }
+        return FilterReply.NEUTRAL;
+    }
+}
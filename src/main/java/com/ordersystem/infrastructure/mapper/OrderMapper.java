@@ -28,6 +28,8 @@ public class OrderMapper {
         order.setStatus(entity.getStatus());
         order.setTotal(new Money(entity.getTotalAmount(), entity.getTotalCurrency()));
         order.setAddress(entity.getAddress());
+        order.setCreatedAt(entity.getCreatedAt());
+        order.setVersion(entity.getVersion());
 
         if (entity.getItems() != null) {
             order.setItems(entity.getItems().stream()
@@ -52,6 +54,8 @@ public class OrderMapper {
         entity.setTotalAmount(order.getTotal().getAmount());
         entity.setTotalCurrency(order.getTotal().getCurrency());
         entity.setAddress(order.getAddress());
+        entity.setCreatedAt(order.getCreatedAt());
+        entity.setVersion(order.getVersion());
 
         if (order.getItems() != null) {
             for (OrderItem item : order.getItems()) {
@@ -26,6 +26,8 @@ public class PaymentMapper {
         payment.setStatus(entity.getStatus());
         payment.setPaymentMethod(entity.getPaymentMethod());
         payment.setTransactionId(entity.getTransactionId());
+        payment.setFailureReason(entity.getFailureReason());
+        payment.setRetryable(entity.getRetryable());
 
         return payment;
     }
@@ -46,6 +48,8 @@ public class PaymentMapper {
         entity.setStatus(payment.getStatus());
         entity.setPaymentMethod(payment.getPaymentMethod());
         entity.setTransactionId(payment.getTransactionId());
+        entity.setFailureReason(payment.getFailureReason());
+        entity.setRetryable(payment.isRetryable());
 
         return entity;
     }
@@ -25,6 +25,7 @@ public class ProductMapper {
         product.setPrice(new Money(entity.getPriceAmount(), entity.getPriceCurrency()));
         product.setStock(entity.getStock());
         product.setActive(entity.getActive());
+        product.setVersion(entity.getVersion());
 
         return product;
     }
@@ -45,6 +46,7 @@ public class ProductMapper {
         entity.setPriceCurrency(product.getPrice().getCurrency());
         entity.setStock(product.getStock());
         entity.setActive(product.getActive());
+        entity.setVersion(product.getVersion());
 
         return entity;
     }
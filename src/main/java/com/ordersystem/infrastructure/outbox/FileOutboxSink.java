@@ -0,0 +1,60 @@
+package com.ordersystem.infrastructure.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ordersystem.domain.model.OutboxMessage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Publica los eventos agregándolos a un archivo NDJSON (un evento JSON por línea)
+ * Destino local para desarrollo (perfil dev) mientras no haya un broker: otro proceso puede seguir el archivo
+ *
+ * Cada lote se agrega entero bajo writeLock: dos publicaciones concurrentes no intercalan sus líneas en el archivo
+ */
+@Component
+@ConditionalOnProperty(name = "outbox.sink.provider", havingValue = "file")
+public class FileOutboxSink implements OutboxSink {
+
+    private final ObjectMapper objectMapper;
+    private final Path path;
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    public FileOutboxSink(
+            ObjectMapper objectMapper,
+            @Value("${outbox.sink.file.path:outbox/order-events.ndjson}") Path path) {
+        this.objectMapper = objectMapper;
+        this.path = path;
+    }
+
+    @Override
+    public void publish(List<OutboxMessage> messages) {
+        writeLock.lock();
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (OutboxMessage message : messages) {
+                    writer.write(objectMapper.writeValueAsString(message));
+                    writer.newLine();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudieron escribir los eventos en " + path, e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+}
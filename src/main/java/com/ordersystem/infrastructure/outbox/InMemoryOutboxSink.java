@@ -0,0 +1,34 @@
+package com.ordersystem.infrastructure.outbox;
+
+import com.ordersystem.domain.model.OutboxMessage;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Guarda los eventos publicados en memoria (tests y desarrollo local)
+ */
+@Component
+@ConditionalOnProperty(name = "outbox.sink.provider", havingValue = "memory")
+public class InMemoryOutboxSink implements OutboxSink {
+
+    private final List<OutboxMessage> published = new ArrayList<>();
+
+    @Override
+    public synchronized void publish(List<OutboxMessage> messages) {
+        published.addAll(messages);
+    }
+
+    /**
+     * Eventos publicados hasta ahora, en orden de publicación
+     */
+    public synchronized List<OutboxMessage> published() {
+        return List.copyOf(published);
+    }
+
+    public synchronized void clear() {
+        published.clear();
+    }
+}
@@ -0,0 +1,114 @@
+package com.ordersystem.infrastructure.outbox;
+
+import com.ordersystem.domain.model.OutboxMessage;
+import com.ordersystem.domain.repository.OutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Publica los eventos del outbox en lotes, en orden de id
+ *
+ * Cada lote corre en su propia transacción: se bloquean los próximos mensajes (FOR UPDATE SKIP LOCKED),
+ * se publican en el sink y se borran. Si el sink falla, la transacción se revierte y el lote
+ * se reintenta en la próxima ejecución (entrega al-menos-una-vez).
+ *
+ * Los eventos de un mismo pedido quedan en orden de id porque cada cambio de estado bloquea la fila
+ * del pedido hasta confirmar. Con varias instancias, SKIP LOCKED reparte los lotes sin que se esperen
+ * entre sí; el orden se mantiene dentro de cada lote y los consumidores pueden reordenar por id.
+ *
+ * Sin sink configurado (outbox.sink.provider) el relay queda desactivado: los eventos se acumulan
+ * en la tabla outbox y se publican cuando se configure uno, en lugar de borrarse sin llegar a ningún lado.
+ */
+@Slf4j
+@Component
+public class OutboxRelay {
+
+    private final OutboxRepository outboxRepository;
+    private final OutboxSink sink;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter publishedCounter;
+    private final Counter failureCounter;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int maxBatches;
+
+    public OutboxRelay(
+            OutboxRepository outboxRepository,
+            ObjectProvider<OutboxSink> sink,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${outbox.relay.enabled:true}") boolean enabled,
+            @Value("${outbox.relay.batch-size:100}") int batchSize,
+            @Value("${outbox.relay.max-batches:10}") int maxBatches) {
+        this.outboxRepository = outboxRepository;
+        this.sink = sink.getIfAvailable();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.publishedCounter = Counter.builder("outbox.relay.published")
+                .description("Eventos de pedidos publicados desde el outbox")
+                .register(meterRegistry);
+        this.failureCounter = Counter.builder("outbox.relay.failures")
+                .description("Lotes del outbox que no se pudieron publicar")
+                .register(meterRegistry);
+        this.enabled = enabled && this.sink != null;
+        if (enabled && this.sink == null) {
+            log.warn("Sin outbox.sink.provider configurado: el relay del outbox queda desactivado "
+                    + "y los eventos se acumulan en la tabla outbox");
+        }
+        this.batchSize = batchSize;
+        this.maxBatches = maxBatches;
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.interval:1s}",
+            initialDelayString = "${outbox.relay.interval:1s}")
+    public void relayPending() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            drain();
+        } catch (RuntimeException e) {
+            failureCounter.increment();
+            log.warn("No se pudieron publicar los eventos del outbox: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Publica lotes mientras haya mensajes pendientes (hasta max-batches por ejecución)
+     * Devuelve la cantidad de mensajes publicados
+     */
+    public int drain() {
+        if (sink == null) {
+            return 0;
+        }
+        int total = 0;
+        for (int i = 0; i < maxBatches; i++) {
+            Integer published = transactionTemplate.execute(status -> publishNextBatch());
+            total += published;
+            if (published < batchSize) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    private int publishNextBatch() {
+        List<OutboxMessage> batch = outboxRepository.lockNextBatch(batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        sink.publish(batch);
+        outboxRepository.delete(batch.stream().map(OutboxMessage::id).toList());
+        publishedCounter.increment(batch.size());
+        return batch.size();
+    }
+}
@@ -0,0 +1,15 @@
+package com.ordersystem.infrastructure.outbox;
+
+import com.ordersystem.domain.model.OutboxMessage;
+
+import java.util.List;
+
+/**
+ * Destino al que OutboxRelay publica los eventos de pedidos (broker, archivo, memoria)
+ * Recibe cada lote en orden de id; si lanza una excepción el lote se vuelve a publicar más tarde,
+ * por lo que la entrega es al-menos-una-vez y los consumidores descartan ids repetidos
+ */
+public interface OutboxSink {
+
+    void publish(List<OutboxMessage> messages);
+}
@@ -0,0 +1,103 @@
+package com.ordersystem.infrastructure.payment;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool dedicado y acotado que procesa los pagos PENDING contra la pasarela
+ * Los hilos de Tomcat solo registran el pago; la latencia de la pasarela la absorben estos workers
+ *
+ * Si la cola está llena la tarea se descarta (el pago queda PENDING y lo retoma PendingPaymentRecovery)
+ * Métricas "executor.*" con name=payments.processing (hilos activos, tareas encoladas, capacidad restante)
+ * y "payments.processing.rejected" (tareas descartadas por cola llena)
+ *
+ * Con payment.processing.async=false la tarea corre en el hilo y la transacción del llamador (tests)
+ */
+@Slf4j
+@Component
+public class PaymentWorkerPool {
+
+    private final ThreadPoolExecutor executor;
+    private final boolean async;
+    private final Counter rejected;
+
+    public PaymentWorkerPool(
+            MeterRegistry meterRegistry,
+            @Value("${payment.processing.threads:4}") int threads,
+            @Value("${payment.processing.queue-capacity:1000}") int queueCapacity,
+            @Value("${payment.processing.async:true}") boolean async) {
+        this.executor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                namedThreads(),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        this.async = async;
+        this.rejected = Counter.builder("payments.processing.rejected")
+                .description("Pagos que no entraron en la cola de procesamiento")
+                .register(meterRegistry);
+        ExecutorServiceMetrics.monitor(meterRegistry, executor, "payments.processing");
+    }
+
+    /**
+     * Encola la tarea cuando confirma la transacción actual (el worker debe ver el pago ya guardado)
+     * Sin transacción activa se encola al momento
+     */
+    public void submitAfterCommit(Runnable task) {
+        if (!async) {
+            task.run();
+            return;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    submit(task);
+                }
+            });
+        } else {
+            submit(task);
+        }
+    }
+
+    private void submit(Runnable task) {
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            log.warn("Cola de pagos llena ({} en espera): el pago queda PENDING hasta la próxima recuperación",
+                    executor.getQueue().size());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private static ThreadFactory namedThreads() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "payment-worker-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
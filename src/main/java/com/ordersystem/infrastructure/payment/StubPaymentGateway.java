@@ -0,0 +1,70 @@
+package com.ordersystem.infrastructure.payment;
+
+import com.ordersystem.domain.exception.PaymentGatewayException;
+import com.ordersystem.domain.gateway.PaymentGateway;
+import com.ordersystem.domain.gateway.PaymentGatewayResult;
+import com.ordersystem.domain.model.Payment;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Pasarela de pagos simulada (desarrollo y tests)
+ * Responde después de una latencia fija (sin mirar el timeout: lo impone PaymentProcessor);
+ * rechaza el medio de pago configurado como "rechazado"
+ * y puede fallar al azar para probar los reintentos.
+ * Una pasarela real se registra con otro valor de payment.gateway.provider
+ */
+@Component
+@ConditionalOnProperty(name = "payment.gateway.provider", havingValue = "stub", matchIfMissing = true)
+public class StubPaymentGateway implements PaymentGateway {
+
+    private final Duration latency;
+    private final String declinedMethod;
+    private final double failureRate;
+
+    public StubPaymentGateway(
+            @Value("${payment.gateway.stub.latency:100ms}") Duration latency,
+            @Value("${payment.gateway.stub.declined-method:declined_card}") String declinedMethod,
+            @Value("${payment.gateway.stub.failure-rate:0.0}") double failureRate) {
+        this.latency = latency;
+        this.declinedMethod = declinedMethod;
+        this.failureRate = failureRate;
+    }
+
+    @Override
+    public PaymentGatewayResult authorize(Payment payment, Duration timeout) {
+        sleep(latency);
+
+        if (ThreadLocalRandom.current().nextDouble() < failureRate) {
+            throw new PaymentGatewayException("Error temporal de la pasarela", false);
+        }
+        if (declinedMethod.equals(payment.getPaymentMethod())) {
+            return PaymentGatewayResult.reject("Medio de pago rechazado por la pasarela");
+        }
+        return PaymentGatewayResult.approve();
+    }
+
+    @Override
+    public void voidAuthorization(Payment payment, Duration timeout) {
+        sleep(latency);
+        if (ThreadLocalRandom.current().nextDouble() < failureRate) {
+            throw new PaymentGatewayException("Error temporal de la pasarela", false);
+        }
+    }
+
+    private static void sleep(Duration duration) {
+        if (duration.isZero()) {
+            return;
+        }
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PaymentGatewayException("Llamada a la pasarela interrumpida", false);
+        }
+    }
+}
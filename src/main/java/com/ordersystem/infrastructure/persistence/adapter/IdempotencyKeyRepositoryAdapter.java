@@ -0,0 +1,76 @@
+package com.ordersystem.infrastructure.persistence.adapter;
+
+import com.ordersystem.domain.model.IdempotencyRecord;
+import com.ordersystem.domain.repository.IdempotencyKeyRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Adaptador que implementa IdempotencyKeyRepository con JDBC
+ * El INSERT se ejecuta al momento (no queda pendiente en la sesión JPA),
+ * así un request duplicado choca con la restricción única antes de crear su pedido.
+ */
+@Repository
+@RequiredArgsConstructor
+public class IdempotencyKeyRepositoryAdapter implements IdempotencyKeyRepository {
+
+    private static final String SELECT_SQL = """
+            SELECT request_hash, order_id
+            FROM idempotency_keys
+            WHERE user_id = ? AND idempotency_key = ?""";
+
+    private static final String INSERT_SQL = """
+            INSERT INTO idempotency_keys (user_id, idempotency_key, request_hash, created_at)
+            VALUES (?, ?, ?, ?)""";
+
+    private static final String ASSIGN_ORDER_SQL = """
+            UPDATE idempotency_keys
+            SET order_id = ?
+            WHERE user_id = ? AND idempotency_key = ?""";
+
+    // Postgres no admite DELETE ... LIMIT: el lote se elige con una subconsulta
+    private static final String DELETE_CREATED_BEFORE_SQL = """
+            DELETE FROM idempotency_keys
+            WHERE id IN (
+                SELECT id FROM idempotency_keys
+                WHERE created_at < ?
+                ORDER BY id
+                LIMIT ?)""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+
+    @Override
+    public Optional<IdempotencyRecord> find(Long userId, String key) {
+        return jdbcTemplate.query(SELECT_SQL,
+                        (rs, rowNum) -> new IdempotencyRecord(
+                                rs.getString("request_hash"),
+                                rs.getObject("order_id", Long.class)),
+                        userId, key)
+                .stream()
+                .findFirst();
+    }
+
+    @Override
+    public void reserve(Long userId, String key, String requestHash) {
+        jdbcTemplate.update(INSERT_SQL, userId, key, requestHash, Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    @Override
+    public void assignOrder(Long userId, String key, Long orderId) {
+        // El pedido puede estar pendiente de escribir en la sesión JPA (order_id es FK)
+        entityManager.flush();
+        jdbcTemplate.update(ASSIGN_ORDER_SQL, orderId, userId, key);
+    }
+
+    @Override
+    public int deleteCreatedBefore(LocalDateTime createdBefore, int limit) {
+        return jdbcTemplate.update(DELETE_CREATED_BEFORE_SQL, Timestamp.valueOf(createdBefore), limit);
+    }
+}
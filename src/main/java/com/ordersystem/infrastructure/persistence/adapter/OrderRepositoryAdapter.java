@@ -1,16 +1,24 @@
 package com.ordersystem.infrastructure.persistence.adapter;
 
+import com.ordersystem.domain.enums.OrderStatus;
 import com.ordersystem.domain.model.Order;
+import com.ordersystem.domain.model.OrderSummary;
+import com.ordersystem.domain.model.valueobject.OrderCursor;
 import com.ordersystem.domain.repository.OrderRepository;
 import com.ordersystem.infrastructure.mapper.OrderMapper;
 import com.ordersystem.infrastructure.persistence.entity.OrderEntity;
 import com.ordersystem.infrastructure.persistence.jpa.OrderJpaRepository;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Adaptador que implementa OrderRepository usando JPA
@@ -21,6 +29,7 @@ public class OrderRepositoryAdapter implements OrderRepository {
 
     private final OrderJpaRepository jpaRepository;
     private final OrderMapper mapper;
+    private final EntityManager entityManager;
 
     @Override
     public Order save(Order order) {
@@ -31,7 +40,7 @@ public class OrderRepositoryAdapter implements OrderRepository {
 
     @Override
     public Optional<Order> findById(Long id) {
-        return jpaRepository.findById(id)
+        return jpaRepository.findByIdWithItems(id)
                 .map(mapper::toDomain);
     }
 
@@ -49,8 +58,75 @@ public class OrderRepositoryAdapter implements OrderRepository {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public List<Order> findPage(OrderCursor after, int limit) {
+        List<Long> ids = after == null
+                ? jpaRepository.findFirstPageIds(Limit.of(limit))
+                : jpaRepository.findPageIdsAfter(after.getCreatedAt(), after.getId(), Limit.of(limit));
+        return findAllInOrder(ids);
+    }
+
+    @Override
+    public List<Order> findPageByUserId(Long userId, OrderCursor after, int limit) {
+        List<Long> ids = after == null
+                ? jpaRepository.findFirstPageIdsByUserId(userId, Limit.of(limit))
+                : jpaRepository.findPageIdsByUserIdAfter(userId, after.getCreatedAt(), after.getId(), Limit.of(limit));
+        return findAllInOrder(ids);
+    }
+
+    @Override
+    public List<OrderSummary> findSummaryPage(OrderCursor after, int limit) {
+        return after == null
+                ? jpaRepository.findFirstSummaryPage(Limit.of(limit))
+                : jpaRepository.findSummaryPageAfter(after.getCreatedAt(), after.getId(), Limit.of(limit));
+    }
+
+    @Override
+    public List<OrderSummary> findSummaryPageByUserId(Long userId, OrderCursor after, int limit) {
+        return after == null
+                ? jpaRepository.findFirstSummaryPageByUserId(userId, Limit.of(limit))
+                : jpaRepository.findSummaryPageByUserIdAfter(userId, after.getCreatedAt(), after.getId(), Limit.of(limit));
+    }
+
     @Override
     public boolean existsById(Long id) {
         return jpaRepository.existsById(id);
     }
-}
\ No newline at end of file
+
+    @Override
+    public Optional<Long> findUserIdById(Long id) {
+        return jpaRepository.findUserIdById(id);
+    }
+
+    @Override
+    public boolean updateStatus(Long id, OrderStatus expected, OrderStatus next) {
+        return jpaRepository.updateStatus(id, expected, next) == 1;
+    }
+
+    @Override
+    public Stream<Order> streamAll() {
+        return jpaRepository.streamAllWithItems()
+                .map(entity -> {
+                    Order order = mapper.toDomain(entity);
+                    // Liberar el contexto de persistencia: la memoria no crece con la cantidad de pedidos
+                    entity.getItems().forEach(entityManager::detach);
+                    entityManager.detach(entity);
+                    return order;
+                });
+    }
+
+    /**
+     * Carga los pedidos (con items) respetando el orden de los IDs recibidos
+     */
+    private List<Order> findAllInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, OrderEntity> entities = jpaRepository.findByIdIn(ids).stream()
+                .collect(Collectors.toMap(OrderEntity::getId, Function.identity()));
+        return ids.stream()
+                .map(entities::get)
+                .map(mapper::toDomain)
+                .collect(Collectors.toList());
+    }
+}
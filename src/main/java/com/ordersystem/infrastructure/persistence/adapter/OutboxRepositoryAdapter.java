@@ -0,0 +1,72 @@
+package com.ordersystem.infrastructure.persistence.adapter;
+
+import com.ordersystem.domain.enums.OrderStatus;
+import com.ordersystem.domain.model.OrderEvent;
+import com.ordersystem.domain.model.OutboxMessage;
+import com.ordersystem.domain.repository.OutboxRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Adaptador que implementa OutboxRepository con JDBC
+ * order_id no es FK: el evento se inserta sin esperar a que la sesión JPA escriba el pedido
+ */
+@Repository
+@RequiredArgsConstructor
+public class OutboxRepositoryAdapter implements OutboxRepository {
+
+    private static final String APPEND_SQL = """
+            INSERT INTO outbox (event_type, order_id, user_id, previous_status, status, occurred_at)
+            VALUES (?, ?, ?, ?, ?, ?)""";
+
+    private static final String LOCK_BATCH_SQL = """
+            SELECT id, event_type, order_id, user_id, previous_status, status, occurred_at
+            FROM outbox
+            ORDER BY id
+            LIMIT ?
+            FOR UPDATE SKIP LOCKED""";
+
+    private static final String DELETE_SQL = "DELETE FROM outbox WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void append(OrderEvent event) {
+        jdbcTemplate.update(APPEND_SQL,
+                event.type(),
+                event.orderId(),
+                event.userId(),
+                event.previousStatus() == null ? null : event.previousStatus().name(),
+                event.status().name(),
+                Timestamp.valueOf(event.occurredAt()));
+    }
+
+    @Override
+    public List<OutboxMessage> lockNextBatch(int limit) {
+        return jdbcTemplate.query(LOCK_BATCH_SQL, this::toDomain, limit);
+    }
+
+    @Override
+    public void delete(List<Long> ids) {
+        jdbcTemplate.batchUpdate(DELETE_SQL, ids, ids.size(), (ps, id) -> ps.setLong(1, id));
+    }
+
+    private OutboxMessage toDomain(ResultSet rs, int rowNum) throws SQLException {
+        String previousStatus = rs.getString("previous_status");
+        return new OutboxMessage(
+                rs.getLong("id"),
+                rs.getString("event_type"),
+                rs.getLong("order_id"),
+                rs.getLong("user_id"),
+                previousStatus == null ? null : OrderStatus.valueOf(previousStatus),
+                OrderStatus.valueOf(rs.getString("status")),
+                rs.getTimestamp("occurred_at").toLocalDateTime()
+        );
+    }
+}
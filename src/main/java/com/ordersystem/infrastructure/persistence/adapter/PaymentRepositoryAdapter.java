@@ -1,24 +1,43 @@
 package com.ordersystem.infrastructure.persistence.adapter;
 
+import com.ordersystem.domain.enums.PaymentStatus;
 import com.ordersystem.domain.model.Payment;
 import com.ordersystem.domain.repository.PaymentRepository;
 import com.ordersystem.infrastructure.mapper.PaymentMapper;
 import com.ordersystem.infrastructure.persistence.entity.PaymentEntity;
 import com.ordersystem.infrastructure.persistence.jpa.PaymentJpaRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
 
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 /**
  * Adaptador que implementa PaymentRepository usando JPA
+ * La inserción condicional usa JDBC (INSERT ... ON CONFLICT DO NOTHING): se ejecuta al momento
+ * y un conflicto no aborta la transacción, a diferencia de una violación de la restricción única
+ * (la única que puede chocar es payments_order_unique: el ID sale de la secuencia)
  */
 @Repository
 @RequiredArgsConstructor
 public class PaymentRepositoryAdapter implements PaymentRepository {
 
+    private static final String INSERT_IF_ABSENT_SQL = """
+            INSERT INTO payments
+                (order_id, amount, currency, status, payment_method, transaction_id, retryable, created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, true, ?, ?)
+            ON CONFLICT DO NOTHING""";
+
     private final PaymentJpaRepository jpaRepository;
     private final PaymentMapper mapper;
+    private final JdbcTemplate jdbcTemplate;
 
     @Override
     public Payment save(Payment payment) {
@@ -40,7 +59,52 @@ public class PaymentRepositoryAdapter implements PaymentRepository {
     }
 
     @Override
-    public boolean existsByOrderId(Long orderId) {
-        return jpaRepository.existsByOrderId(orderId);
+    public Optional<Payment> insertIfAbsent(Payment payment) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+
+        int inserted = jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(INSERT_IF_ABSENT_SQL, new String[]{"id"});
+            statement.setLong(1, payment.getOrderId());
+            statement.setBigDecimal(2, payment.getAmount().getAmount());
+            statement.setString(3, payment.getAmount().getCurrency());
+            statement.setString(4, payment.getStatus().name());
+            statement.setString(5, payment.getPaymentMethod());
+            statement.setString(6, payment.getTransactionId());
+            statement.setTimestamp(7, now);
+            statement.setTimestamp(8, now);
+            return statement;
+        }, keyHolder);
+
+        if (inserted == 0) {
+            return Optional.empty();
+        }
+        payment.setId(keyHolder.getKeyAs(Long.class));
+        return Optional.of(payment);
+    }
+
+    @Override
+    public boolean updateStatus(Long id, PaymentStatus expected, PaymentStatus next, String failureReason) {
+        return jpaRepository.updateStatus(id, expected, next, failureReason) == 1;
+    }
+
+    @Override
+    public boolean markRejected(Long id, PaymentStatus expected, String failureReason, boolean retryable) {
+        return jpaRepository.markRejected(id, expected, failureReason, retryable) == 1;
+    }
+
+    @Override
+    public boolean retryRejected(Long id, String paymentMethod, String transactionId) {
+        return jpaRepository.retryRejected(id, paymentMethod, transactionId) == 1;
+    }
+
+    @Override
+    public boolean claim(Long id, LocalDateTime staleBefore) {
+        return jpaRepository.claim(id, staleBefore) == 1;
+    }
+
+    @Override
+    public List<Long> findStalePendingIds(LocalDateTime before, int limit) {
+        return jpaRepository.findIdsByStatusIdleSince(PaymentStatus.PENDING, before, Limit.of(limit));
     }
-}
\ No newline at end of file
+}
@@ -5,11 +5,17 @@ import com.ordersystem.domain.repository.ProductRepository;
 import com.ordersystem.infrastructure.mapper.ProductMapper;
 import com.ordersystem.infrastructure.persistence.entity.ProductEntity;
 import com.ordersystem.infrastructure.persistence.jpa.ProductJpaRepository;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeSet;
 import java.util.stream.Collectors;
 
 /**
@@ -20,8 +26,15 @@ import java.util.stream.Collectors;
 @Repository
 @RequiredArgsConstructor
 public class ProductRepositoryAdapter implements ProductRepository {
+    private static final String ADJUST_STOCK_SQL = """
+            UPDATE products
+            SET stock = stock + ?, version = version + 1, updated_at = CURRENT_TIMESTAMP
+            WHERE id = ? AND (? >= 0 OR (active = true AND stock >= ?))""";
+
     private final ProductJpaRepository jpaRepository;
     private final ProductMapper mapper;
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
 
     @Override
     public Product save(Product product) {
@@ -43,6 +56,16 @@ public class ProductRepositoryAdapter implements ProductRepository {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public List<Product> findAllByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return jpaRepository.findAllById(ids).stream()
+                .map(mapper::toDomain)
+                .collect(Collectors.toList());
+    }
+
     @Override
     public List<Product> findActiveProducts() {
         return jpaRepository.findByActiveTrue().stream()
@@ -59,4 +82,45 @@ public class ProductRepositoryAdapter implements ProductRepository {
     public boolean existsById(Long id) {
         return jpaRepository.existsById(id);
     }
+
+    /**
+     * Un único lote JDBC con un UPDATE condicional por producto (un solo round trip)
+     * Se sincroniza el contexto de persistencia antes y después porque el lote no pasa por Hibernate:
+     * solo se desasocian los productos del lote (el resto del contexto del llamador queda intacto)
+     */
+    @Override
+    public List<Long> adjustStock(Map<Long, Integer> deltas) {
+        if (deltas.isEmpty()) {
+            return List.of();
+        }
+        List<Long> productIds = new ArrayList<>(new TreeSet<>(deltas.keySet()));
+        List<Object[]> batchArgs = new ArrayList<>(productIds.size());
+        for (Long productId : productIds) {
+            int delta = deltas.get(productId);
+            batchArgs.add(new Object[]{delta, productId, delta, -delta});
+        }
+
+        entityManager.flush();
+        int[] updated = jdbcTemplate.batchUpdate(ADJUST_STOCK_SQL, batchArgs);
+        detachAll(productIds);
+
+        List<Long> failed = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                failed.add(productIds.get(i));
+            }
+        }
+        return failed;
+    }
+
+    /**
+     * Quita del contexto de persistencia los productos actualizados por JDBC,
+     * así la próxima lectura trae el stock y la versión nuevos
+     * getReference no consulta la base: devuelve la instancia gestionada o un proxy sin inicializar
+     */
+    private void detachAll(List<Long> productIds) {
+        for (Long productId : productIds) {
+            entityManager.detach(entityManager.getReference(ProductEntity.class, productId));
+        }
+    }
 }
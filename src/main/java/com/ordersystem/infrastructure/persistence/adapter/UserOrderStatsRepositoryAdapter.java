@@ -0,0 +1,109 @@
+package com.ordersystem.infrastructure.persistence.adapter;
+
+import com.ordersystem.domain.enums.OrderStatus;
+import com.ordersystem.domain.model.UserOrderStats;
+import com.ordersystem.domain.repository.UserOrderStatsRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Adaptador que implementa UserOrderStatsRepository con JDBC
+ * Las escrituras son UPDATE incrementales (sin leer la fila), así dos pedidos concurrentes
+ * del mismo usuario no pierden actualizaciones. La lectura también es JDBC: una entidad cacheada
+ * en la sesión JPA no reflejaría esos UPDATE.
+ */
+@Repository
+@RequiredArgsConstructor
+public class UserOrderStatsRepositoryAdapter implements UserOrderStatsRepository {
+
+    private static final String RECORD_CREATED_SQL = """
+            UPDATE user_order_stats
+            SET created_count = created_count + 1,
+                last_order_at = CASE WHEN last_order_at IS NULL OR last_order_at < ? THEN ? ELSE last_order_at END
+            WHERE user_id = ?""";
+
+    private static final String SELECT_SQL = """
+            SELECT user_id, created_count, paid_count, shipped_count, cancelled_count, total_paid, last_order_at
+            FROM user_order_stats
+            WHERE user_id = ?""";
+
+    private static final String INSERT_IF_ABSENT_SQL = """
+            INSERT INTO user_order_stats
+                (user_id, created_count, paid_count, shipped_count, cancelled_count, total_paid, last_order_at)
+            VALUES (?, 1, 0, 0, 0, 0, ?)
+            ON CONFLICT DO NOTHING""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+
+    @Override
+    public Optional<UserOrderStats> findByUserId(Long userId) {
+        return jdbcTemplate.query(SELECT_SQL, this::toDomain, userId).stream().findFirst();
+    }
+
+    @Override
+    public void recordOrderCreated(Long userId, LocalDateTime createdAt) {
+        Timestamp timestamp = Timestamp.valueOf(createdAt);
+        if (jdbcTemplate.update(RECORD_CREATED_SQL, timestamp, timestamp, userId) > 0) {
+            return;
+        }
+
+        // Primer pedido del usuario: la clave única decide quién inserta la fila y el otro pedido
+        // concurrente vuelve a intentar el UPDATE (sin bloquear la fila del usuario en users)
+        if (jdbcTemplate.update(INSERT_IF_ABSENT_SQL, userId, timestamp) == 0) {
+            jdbcTemplate.update(RECORD_CREATED_SQL, timestamp, timestamp, userId);
+        }
+    }
+
+    @Override
+    public void recordStatusChange(Long orderId, OrderStatus from, OrderStatus to) {
+        // El pedido puede estar pendiente de escribir en la sesión JPA
+        entityManager.flush();
+
+        // Las columnas salen del enum (no de la entrada del usuario)
+        String sql = """
+                UPDATE user_order_stats
+                SET %1$s = %1$s - 1,
+                    %2$s = %2$s + 1,
+                    total_paid = total_paid + ? * (SELECT total_amount FROM orders WHERE id = ?)
+                WHERE user_id = (SELECT user_id FROM orders WHERE id = ?)"""
+                .formatted(countColumn(from), countColumn(to));
+
+        jdbcTemplate.update(sql, paidSign(to) - paidSign(from), orderId, orderId);
+    }
+
+    /**
+     * Los pedidos PAID y SHIPPED cuentan en el total pagado
+     */
+    private static int paidSign(OrderStatus status) {
+        return status == OrderStatus.PAID || status == OrderStatus.SHIPPED ? 1 : 0;
+    }
+
+    private static String countColumn(OrderStatus status) {
+        return status.name().toLowerCase() + "_count";
+    }
+
+    private UserOrderStats toDomain(ResultSet rs, int rowNum) throws SQLException {
+        Map<OrderStatus, Long> counts = new EnumMap<>(OrderStatus.class);
+        for (OrderStatus status : OrderStatus.values()) {
+            counts.put(status, rs.getLong(countColumn(status)));
+        }
+        Timestamp lastOrderAt = rs.getTimestamp("last_order_at");
+        return new UserOrderStats(
+                rs.getLong("user_id"),
+                counts,
+                rs.getBigDecimal("total_paid"),
+                lastOrderAt == null ? null : lastOrderAt.toLocalDateTime()
+        );
+    }
+}
@@ -10,6 +10,7 @@ import lombok.Setter;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -24,8 +25,12 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 public class OrderEntity {
+    /**
+     * ID desde secuencia: Hibernate reserva 50 IDs por consulta y puede agrupar los INSERT en lotes
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_seq")
+    @SequenceGenerator(name = "order_seq", sequenceName = "orders_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "user_id", nullable = false)
@@ -52,6 +57,13 @@ public class OrderEntity {
     @OneToMany(mappedBy = "order", cascade = {CascadeType.PERSIST, CascadeType.MERGE}, orphanRemoval = true)
     private List<OrderItemEntity> items = new ArrayList<>();
 
+    /**
+     * Versión para bloqueo optimista (detecta escrituras concurrentes)
+     */
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
@@ -60,8 +72,10 @@ public class OrderEntity {
 
     @PrePersist
     public void onCreate() {
-        createdAt = LocalDateTime.now();
-        updatedAt = LocalDateTime.now();
+        // Precisión de microsegundos (la de la columna TIMESTAMP) para que el cursor
+        // de paginación coincida con el valor almacenado
+        createdAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        updatedAt = createdAt;
     }
 
     @PreUpdate
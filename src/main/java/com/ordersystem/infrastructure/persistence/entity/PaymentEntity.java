@@ -44,6 +44,15 @@ public class PaymentEntity {
     @Column(name = "transaction_id", length = 255)
     private String transactionId;
 
+    @Column(name = "failure_reason", length = 255)
+    private String failureReason;
+
+    @Column(nullable = false)
+    private Boolean retryable = true;
+
+    @Column(name = "claimed_at")
+    private LocalDateTime claimedAt;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
@@ -43,6 +43,13 @@ public class ProductEntity {
     @Column(nullable = false)
     private Boolean active = true;
 
+    /**
+     * Versión para bloqueo optimista (detecta escrituras concurrentes)
+     */
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
@@ -0,0 +1,45 @@
+package com.ordersystem.infrastructure.persistence.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Entidad JPA para las estadísticas de pedidos por usuario
+ * Representa la tabla 'user_order_stats' (schema validado por Hibernate)
+ * Se lee y actualiza con JDBC en UserOrderStatsRepositoryAdapter (UPDATE incrementales)
+ */
+@Entity
+@Table(name = "user_order_stats")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserOrderStatsEntity {
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "created_count", nullable = false)
+    private long createdCount;
+
+    @Column(name = "paid_count", nullable = false)
+    private long paidCount;
+
+    @Column(name = "shipped_count", nullable = false)
+    private long shippedCount;
+
+    @Column(name = "cancelled_count", nullable = false)
+    private long cancelledCount;
+
+    @Column(name = "total_paid", nullable = false, precision = 19, scale = 2)
+    private BigDecimal totalPaid;
+
+    @Column(name = "last_order_at")
+    private LocalDateTime lastOrderAt;
+}
@@ -1,19 +1,124 @@
 package com.ordersystem.infrastructure.persistence.jpa;
 
-import com.ordersystem.domain.model.Order;
+import com.ordersystem.domain.enums.OrderStatus;
+import com.ordersystem.domain.model.OrderSummary;
 import com.ordersystem.infrastructure.persistence.entity.OrderEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repositorio JPA para OrderEntity
+ * Las lecturas cargan los items en la misma consulta (evita N+1 al mapear)
  */
 @Repository
 public interface OrderJpaRepository extends JpaRepository<OrderEntity, Long>{
+    @Override
+    @EntityGraph(attributePaths = "items")
+    List<OrderEntity> findAll();
+
+    @EntityGraph(attributePaths = "items")
     List<OrderEntity> findByUserId(Long userId);
+
+    @EntityGraph(attributePaths = "items")
+    List<OrderEntity> findByIdIn(Collection<Long> ids);
+
     @Query("SELECT o FROM OrderEntity o LEFT JOIN FETCH o.items WHERE o.id = :id")
-    OrderEntity findByIdWithItems(Long id);
+    Optional<OrderEntity> findByIdWithItems(Long id);
+
+    @Query("SELECT o.userId FROM OrderEntity o WHERE o.id = :id")
+    Optional<Long> findUserIdById(Long id);
+
+    /**
+     * Cambia el estado solo si el pedido sigue en el estado esperado (una sola sentencia)
+     * Incrementa la versión para que una escritura con la versión anterior falle
+     * Limpia el contexto de persistencia: las lecturas siguientes ven el estado nuevo
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            UPDATE OrderEntity o
+            SET o.status = :next, o.version = o.version + 1, o.updatedAt = CURRENT_TIMESTAMP
+            WHERE o.id = :id AND o.status = :expected""")
+    int updateStatus(Long id, OrderStatus expected, OrderStatus next);
+
+    /**
+     * Recorre todos los pedidos (con items) leyendo de a bloques del cursor JDBC
+     * Requiere una transacción abierta y cerrar el Stream al terminar
+     */
+    @Query("SELECT o FROM OrderEntity o LEFT JOIN FETCH o.items ORDER BY o.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<OrderEntity> streamAllWithItems();
+
+    // ========================================
+    // PAGINACIÓN POR CURSOR (created_at DESC, id DESC)
+    // Solo se leen los IDs; los pedidos se cargan después con findByIdIn
+    // (un fetch join con LIMIT obligaría a Hibernate a paginar en memoria)
+    // ========================================
+
+    @Query("SELECT o.id FROM OrderEntity o ORDER BY o.createdAt DESC, o.id DESC")
+    List<Long> findFirstPageIds(Limit limit);
+
+    @Query("""
+            SELECT o.id FROM OrderEntity o
+            WHERE o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id)
+            ORDER BY o.createdAt DESC, o.id DESC""")
+    List<Long> findPageIdsAfter(LocalDateTime createdAt, Long id, Limit limit);
+
+    @Query("SELECT o.id FROM OrderEntity o WHERE o.userId = :userId ORDER BY o.createdAt DESC, o.id DESC")
+    List<Long> findFirstPageIdsByUserId(Long userId, Limit limit);
+
+    @Query("""
+            SELECT o.id FROM OrderEntity o
+            WHERE o.userId = :userId
+              AND (o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id))
+            ORDER BY o.createdAt DESC, o.id DESC""")
+    List<Long> findPageIdsByUserIdAfter(Long userId, LocalDateTime createdAt, Long id, Limit limit);
+
+    // ========================================
+    // RESÚMENES PARA LISTADOS (mismo orden y cursor que la paginación)
+    // Proyección por constructor: solo las columnas necesarias, items contados con una subconsulta,
+    // sin hidratar entidades
+    // ========================================
+
+    String SUMMARY_SELECT = """
+            SELECT new com.ordersystem.domain.model.OrderSummary(
+                o.id, o.status, o.totalAmount, o.totalCurrency,
+                (SELECT COUNT(i) FROM OrderItemEntity i WHERE i.order = o),
+                o.createdAt)
+            FROM OrderEntity o
+            """;
+
+    @Query(SUMMARY_SELECT + "ORDER BY o.createdAt DESC, o.id DESC")
+    List<OrderSummary> findFirstSummaryPage(Limit limit);
+
+    @Query(SUMMARY_SELECT + """
+            WHERE o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id)
+            ORDER BY o.createdAt DESC, o.id DESC""")
+    List<OrderSummary> findSummaryPageAfter(LocalDateTime createdAt, Long id, Limit limit);
+
+    @Query(SUMMARY_SELECT + "WHERE o.userId = :userId ORDER BY o.createdAt DESC, o.id DESC")
+    List<OrderSummary> findFirstSummaryPageByUserId(Long userId, Limit limit);
+
+    @Query(SUMMARY_SELECT + """
+            WHERE o.userId = :userId
+              AND (o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id))
+            ORDER BY o.createdAt DESC, o.id DESC""")
+    List<OrderSummary> findSummaryPageByUserIdAfter(Long userId, LocalDateTime createdAt, Long id, Limit limit);
 }
@@ -1,9 +1,16 @@
 package com.ordersystem.infrastructure.persistence.jpa;
 
+import com.ordersystem.domain.enums.PaymentStatus;
 import com.ordersystem.infrastructure.persistence.entity.PaymentEntity;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -12,5 +19,61 @@ import java.util.Optional;
 @Repository
 public interface PaymentJpaRepository extends JpaRepository<PaymentEntity,Long> {
     Optional<PaymentEntity> findByOrderId(Long orderId);
-    boolean existsByOrderId(Long orderId);
+
+    /**
+     * Cambia el estado solo si el pago sigue en el estado esperado (una sola sentencia)
+     * Limpia el contexto de persistencia: las lecturas siguientes ven el estado nuevo
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            UPDATE PaymentEntity p
+            SET p.status = :next, p.failureReason = :failureReason, p.updatedAt = CURRENT_TIMESTAMP
+            WHERE p.id = :id AND p.status = :expected""")
+    int updateStatus(Long id, PaymentStatus expected, PaymentStatus next, String failureReason);
+
+    /**
+     * Pasa el pago a REJECTED (o actualiza el rechazo) indicando si se puede reintentar
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            UPDATE PaymentEntity p
+            SET p.status = com.ordersystem.domain.enums.PaymentStatus.REJECTED, p.failureReason = :failureReason,
+                p.retryable = :retryable, p.updatedAt = CURRENT_TIMESTAMP
+            WHERE p.id = :id AND p.status = :expected""")
+    int markRejected(Long id, PaymentStatus expected, String failureReason, boolean retryable);
+
+    /**
+     * Vuelve a PENDING un pago rechazado para reintentarlo con otro medio de pago
+     * Solo si el rechazo fue definitivo (retryable): si no, quedaría un cobro autorizado sin anular
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            UPDATE PaymentEntity p
+            SET p.status = com.ordersystem.domain.enums.PaymentStatus.PENDING, p.failureReason = NULL,
+                p.paymentMethod = :paymentMethod, p.transactionId = :transactionId, p.claimedAt = NULL,
+                p.updatedAt = CURRENT_TIMESTAMP
+            WHERE p.id = :id AND p.status = com.ordersystem.domain.enums.PaymentStatus.REJECTED
+                AND p.retryable = true""")
+    int retryRejected(Long id, String paymentMethod, String transactionId);
+
+    /**
+     * Reserva un pago PENDING para procesarlo si nadie lo tiene o la reserva anterior venció
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            UPDATE PaymentEntity p
+            SET p.claimedAt = CURRENT_TIMESTAMP
+            WHERE p.id = :id AND p.status = com.ordersystem.domain.enums.PaymentStatus.PENDING
+                AND (p.claimedAt IS NULL OR p.claimedAt < :staleBefore)""")
+    int claim(Long id, LocalDateTime staleBefore);
+
+    @Query("""
+            SELECT p.id FROM PaymentEntity p
+            WHERE p.status = :status AND COALESCE(p.claimedAt, p.updatedAt) < :before
+            ORDER BY COALESCE(p.claimedAt, p.updatedAt)""")
+    List<Long> findIdsByStatusIdleSince(PaymentStatus status, LocalDateTime before, Limit limit);
 }
@@ -13,4 +13,5 @@ import java.util.List;
 public interface ProductJpaRepository extends JpaRepository<ProductEntity, Long>{
     List<ProductEntity> findByActiveTrue();
     List<ProductEntity> findByNameContainingIgnoreCase(String name);
+
 }
@@ -0,0 +1,37 @@
+package com.ordersystem.infrastructure.persistence.jpa;
+
+import com.ordersystem.infrastructure.persistence.entity.RefreshTokenEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Repositorio JPA para RefreshTokenEntity
+ */
+@Repository
+public interface RefreshTokenJpaRepository extends JpaRepository<RefreshTokenEntity, Long> {
+    Optional<RefreshTokenEntity> findByTokenHash(String tokenHash);
+
+    /**
+     * Revoca el token solo si seguía activo
+     * Devuelve 1 si esta llamada lo revocó (dos usos concurrentes: solo uno gana)
+     */
+    @Modifying
+    @Query("UPDATE RefreshTokenEntity r SET r.revoked = true WHERE r.id = :id AND r.revoked = false")
+    int revokeIfActive(Long id);
+
+    @Modifying
+    @Query("UPDATE RefreshTokenEntity r SET r.revoked = true WHERE r.userId = :userId AND r.revoked = false")
+    int revokeAllByUserId(Long userId);
+
+    /**
+     * Borra los tokens vencidos (revocados o no); devuelve la cantidad borrada
+     */
+    @Modifying
+    @Query("DELETE FROM RefreshTokenEntity r WHERE r.expiresAt < :now")
+    int deleteExpiredBefore(LocalDateTime now);
+}
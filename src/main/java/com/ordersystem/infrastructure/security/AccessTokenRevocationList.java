@@ -0,0 +1,61 @@
+package com.ordersystem.infrastructure.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * IDs (jti) de access tokens revocados, en memoria de esta instancia
+ *
+ * Cada entrada vive solo hasta que su token expira (después el token ya es inválido por sí mismo),
+ * así el conjunto se mantiene chico sin límite de tamaño que pudiera "des-revocar" un token.
+ * La consulta es O(1) y la hace JwtAuthenticationFilter en cada request.
+ */
+@Component
+public class AccessTokenRevocationList {
+
+    private final Cache<String, Long> revoked;
+
+    public AccessTokenRevocationList(MeterRegistry meterRegistry) {
+        this.revoked = Caffeine.newBuilder()
+                .expireAfter(new UntilTokenExpires())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, revoked, "jwt.revoked");
+    }
+
+    /**
+     * Revoca el token hasta su expiración (epoch ms)
+     */
+    public void revoke(String tokenId, long expiresAtMillis) {
+        if (tokenId != null && expiresAtMillis > System.currentTimeMillis()) {
+            revoked.put(tokenId, expiresAtMillis);
+        }
+    }
+
+    public boolean isRevoked(String tokenId) {
+        return tokenId != null && revoked.getIfPresent(tokenId) != null;
+    }
+
+    private static class UntilTokenExpires implements Expiry<String, Long> {
+        @Override
+        public long expireAfterCreate(String tokenId, Long expiresAtMillis, long currentTime) {
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(expiresAtMillis - System.currentTimeMillis(), 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(String tokenId, Long expiresAtMillis, long currentTime, long currentDuration) {
+            return expireAfterCreate(tokenId, expiresAtMillis, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String tokenId, Long expiresAtMillis, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
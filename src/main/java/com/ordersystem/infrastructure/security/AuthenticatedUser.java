@@ -0,0 +1,31 @@
+package com.ordersystem.infrastructure.security;
+
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collection;
+
+/**
+ * Usuario autenticado con su ID
+ * Se crea al hacer login (desde la base de datos) y en cada request (desde los claims del JWT)
+ */
+@Getter
+public class AuthenticatedUser extends User {
+
+    private final Long id;
+
+    public AuthenticatedUser(Long id, String username, String password, boolean enabled,
+                             Collection<? extends GrantedAuthority> authorities) {
+        super(username, password, enabled, true, true, true, authorities);
+        this.id = id;
+    }
+
+    /**
+     * Usuario reconstruido a partir de un token ya verificado (sin contraseña)
+     */
+    public static AuthenticatedUser fromToken(Long id, String username,
+                                              Collection<? extends GrantedAuthority> authorities) {
+        return new AuthenticatedUser(id, username, "", true, authorities);
+    }
+}
@@ -0,0 +1,37 @@
+package com.ordersystem.infrastructure.security;
+
+import com.ordersystem.infrastructure.persistence.jpa.RefreshTokenJpaRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Borra periódicamente los refresh tokens vencidos (cada login y cada renovación agrega una fila)
+ *
+ * Los tokens revocados se conservan hasta su vencimiento: RefreshTokenStore los necesita para detectar
+ * la reutilización de un token ya rotado. Una vez vencidos, presentarlos ya no autentica ni alerta.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "jwt.refresh-cleanup.enabled", havingValue = "true", matchIfMissing = true)
+public class ExpiredRefreshTokenCleanup {
+
+    private final RefreshTokenJpaRepository repository;
+
+    @Transactional
+    @Scheduled(fixedDelayString = "${jwt.refresh-cleanup.interval:1h}",
+            initialDelayString = "${jwt.refresh-cleanup.interval:1h}")
+    public int purgeExpired() {
+        int deleted = repository.deleteExpiredBefore(LocalDateTime.now());
+        if (deleted > 0) {
+            log.info("Borrados {} refresh tokens vencidos", deleted);
+        }
+        return deleted;
+    }
+}
@@ -1,41 +1,79 @@
 package com.ordersystem.infrastructure.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 import org.springframework.beans.factory.annotation.Value;
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
  * Proveedor de tokens JWT
  * Responsable de generar y validar tokens
+ *
+ * Usa un único parser (inmutable y thread-safe) y verifica cada token una sola vez por request.
+ * Los tokens ya verificados se guardan en una caché acotada hasta su expiración,
+ * así los requests siguientes con el mismo token no recalculan la firma HMAC.
  */
 @Component
 public class JwtTokenProvider {
+    private static final String USER_ID_CLAIM = "uid";
+    private static final String ROLES_CLAIM = "roles";
+
     private final SecretKey secretKey;
     private final Long jwtExpirationMs;
+    private final JwtParser parser;
+    private final Cache<String, VerifiedToken> verifiedTokens;
 
     public JwtTokenProvider(
             @Value("${jwt.secret}") String secret,
-            @Value("${jwt.expiration}") Long jwtExpirationMs){
+            @Value("${jwt.expiration}") Long jwtExpirationMs,
+            @Value("${jwt.cache.max-size:10000}") long cacheMaxSize,
+            MeterRegistry meterRegistry){
         this.secretKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
         this.jwtExpirationMs = jwtExpirationMs;
+        this.parser = Jwts.parser()
+                .verifyWith(secretKey)
+                .build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new UntilTokenExpires())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "jwt.verified");
     }
 
     /**
      *  Genera un token JWT a partir de la autenticación
+     *  Incluye el ID y los roles del usuario para no consultar la base de datos en cada request
      */
     public String generateToken(Authentication authentication){
-        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
+        return generateToken((AuthenticatedUser) authentication.getPrincipal());
+    }
 
+    /**
+     *  Genera un token JWT para el usuario (ej: al renovar con un refresh token)
+     *  Cada token tiene un ID único (jti) para poder revocarlo
+     */
+    public String generateToken(AuthenticatedUser userDetails){
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtExpirationMs);
 
@@ -44,8 +82,10 @@ public class JwtTokenProvider {
                 .collect(Collectors.joining(","));
 
         return Jwts.builder()
+                .id(UUID.randomUUID().toString())
                 .subject(userDetails.getUsername())
-                .claim("roles", roles)
+                .claim(USER_ID_CLAIM, userDetails.getId())
+                .claim(ROLES_CLAIM, roles)
                 .issuedAt(now)
                 .expiration(expiryDate)
                 .signWith(secretKey)
@@ -53,33 +93,74 @@ public class JwtTokenProvider {
     }
 
     /**
-     * Extrae el username (email) del token
+     * Verifica el token (firma y expiración) y devuelve sus claims
+     * Vacío si el token es inválido, expirado, malformado, etc.
      */
-    public String getUsernameFromToken(String token){
-        Claims claims = Jwts.parser()
-                .verifyWith(secretKey)
-                .build()
-                .parseClaimsJws(token)
-                .getPayload();
+    public Optional<Claims> parseClaims(String token){
+        try {
+            return Optional.of(parser.parseSignedClaims(token).getPayload());
+        } catch (JwtException | IllegalArgumentException e){
+            return Optional.empty();
+        }
+    }
 
-        return claims.getSubject();
+    /**
+     * Verifica el token y reconstruye el usuario desde sus claims (sin acceso a la base de datos)
+     * Si el token ya fue verificado y no expiró, se devuelve desde la caché
+     * Un token sin el ID del usuario (claim uid) no autentica: la request queda sin usuario (401)
+     */
+    public Optional<VerifiedToken> authenticate(String token){
+        VerifiedToken cached = verifiedTokens.getIfPresent(token);
+        if (cached != null && !cached.isExpired()) {
+            return Optional.of(cached);
+        }
+
+        return parseClaims(token)
+                .filter(claims -> claims.get(USER_ID_CLAIM, Long.class) != null)
+                .map(claims -> {
+                    VerifiedToken verified = new VerifiedToken(
+                            toUser(claims), claims.getId(), claims.getExpiration().getTime());
+                    verifiedTokens.put(token, verified);
+                    return verified;
+                });
     }
 
     /**
-     * Valida el token JWT
+     * Reconstruye el usuario autenticado a partir de los claims del token
      */
-    public boolean validateToken(String token){
-        try {
-            Jwts.parser()
-                    .verifyWith(secretKey)
-                    .build()
-                    .parseSignedClaims(token);
+    private AuthenticatedUser toUser(Claims claims){
+        String roles = claims.get(ROLES_CLAIM, String.class);
+        List<SimpleGrantedAuthority> authorities = roles == null || roles.isEmpty()
+                ? List.of()
+                : Arrays.stream(roles.split(","))
+                        .map(SimpleGrantedAuthority::new)
+                        .collect(Collectors.toList());
 
-            return true;
-        } catch (JwtException | IllegalArgumentException e){
-            // Token inválido, expirado, malformado, etc.
-            return false;
-        }
+        return AuthenticatedUser.fromToken(
+                claims.get(USER_ID_CLAIM, Long.class),
+                claims.getSubject(),
+                authorities
+        );
     }
 
+    /**
+     * Cada entrada de la caché vive hasta que expira su token
+     */
+    private static class UntilTokenExpires implements Expiry<String, VerifiedToken> {
+        @Override
+        public long expireAfterCreate(String token, VerifiedToken value, long currentTime) {
+            long remainingMillis = value.expiresAtMillis() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMillis, 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(String token, VerifiedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(token, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String token, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
 }
@@ -0,0 +1,101 @@
+package com.ordersystem.infrastructure.security;
+
+import com.ordersystem.infrastructure.persistence.entity.RefreshTokenEntity;
+import com.ordersystem.infrastructure.persistence.jpa.RefreshTokenJpaRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * Emisión y rotación de refresh tokens
+ *
+ * El token es un valor aleatorio de 256 bits; en la base de datos solo se guarda su SHA-256
+ * (alcanza con un hash rápido porque el valor no es adivinable, a diferencia de una contraseña).
+ * Cada uso lo rota: el token presentado se revoca y se emite uno nuevo.
+ * Si se presenta un token ya revocado se asume robo y se revocan todas las sesiones del usuario.
+ */
+@Component
+public class RefreshTokenStore {
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenJpaRepository repository;
+    private final long refreshExpirationMs;
+    private final SecureRandom random = new SecureRandom();
+
+    public RefreshTokenStore(
+            RefreshTokenJpaRepository repository,
+            @Value("${jwt.refresh-expiration:604800000}") long refreshExpirationMs) {
+        this.repository = repository;
+        this.refreshExpirationMs = refreshExpirationMs;
+    }
+
+    /**
+     * Emite un refresh token para el usuario y devuelve su valor (no recuperable después)
+     */
+    @Transactional
+    public String issue(Long userId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        RefreshTokenEntity entity = new RefreshTokenEntity();
+        entity.setUserId(userId);
+        entity.setTokenHash(hash(token));
+        entity.setExpiresAt(LocalDateTime.now().plusNanos(refreshExpirationMs * 1_000_000));
+        repository.save(entity);
+
+        return token;
+    }
+
+    /**
+     * Consume (revoca) un refresh token válido y devuelve el ID de su usuario
+     * Vacío si el token no existe, expiró o ya había sido usado
+     */
+    @Transactional
+    public Optional<Long> consume(String token) {
+        Optional<RefreshTokenEntity> found = repository.findByTokenHash(hash(token));
+        if (found.isEmpty()) {
+            return Optional.empty();
+        }
+
+        RefreshTokenEntity entity = found.get();
+        if (entity.getRevoked()) {
+            // Reutilización de un token ya rotado: se cierran todas las sesiones del usuario
+            repository.revokeAllByUserId(entity.getUserId());
+            return Optional.empty();
+        }
+        if (entity.isExpired() || repository.revokeIfActive(entity.getId()) == 0) {
+            return Optional.empty();
+        }
+        return Optional.of(entity.getUserId());
+    }
+
+    /**
+     * Revoca un refresh token del usuario (logout); ignora tokens desconocidos o de otro usuario
+     */
+    @Transactional
+    public void revoke(String token, Long userId) {
+        repository.findByTokenHash(hash(token))
+                .filter(entity -> entity.getUserId().equals(userId))
+                .ifPresent(entity -> repository.revokeIfActive(entity.getId()));
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.ordersystem.infrastructure.security;
 
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -12,8 +14,8 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -30,15 +32,23 @@ public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
     private final UserDetailsService userDetailsService;
+    private final UserDetailsPasswordService userDetailsPasswordService;
 
     /**
      * Configuración de la cadena de filtros de seguridad
      */
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http,
+                                                   AuthenticationProvider authenticationProvider) throws Exception {
         http
                 .csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(auth -> auth
+                        // El despacho asíncrono (SSE, streaming) continúa un request ya autorizado
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
+                        // Logout requiere el access token vigente
+                        .requestMatchers("/api/auth/logout").authenticated()
+
                         // Endpoints públicos de autenticación
                         .requestMatchers("/api/auth/**").permitAll()
 
@@ -62,13 +72,16 @@ public class SecurityConfig {
                                 "/api/products/**"
                         ).permitAll()
 
+                        // Métricas de Actuator (solo ADMIN)
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
+
                         // Todos los demás requieren autenticación
                         .anyRequest().authenticated()
                 )
                 .sessionManagement(session -> session
                         .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
                 )
-                .authenticationProvider(authenticationProvider())
+                .authenticationProvider(authenticationProvider)
                 .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
@@ -76,12 +89,14 @@ public class SecurityConfig {
 
     /**
      * Proveedor de autenticación
+     * Si el hash guardado usa otro costo BCrypt, se rehashea al hacer login (UserDetailsPasswordService)
      */
     @Bean
-    public AuthenticationProvider authenticationProvider() {
+    public AuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder) {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
-        authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setUserDetailsPasswordService(userDetailsPasswordService);
+        authProvider.setPasswordEncoder(passwordEncoder);
         return authProvider;
     }
 
@@ -94,10 +109,10 @@ public class SecurityConfig {
     }
 
     /**
-     * Encoder de contraseñas BCrypt
+     * Encoder de contraseñas BCrypt con costo configurable
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${auth.bcrypt.cost:10}") int bcryptCost) {
+        return new RehashingBCryptPasswordEncoder(bcryptCost);
     }
 }
\ No newline at end of file
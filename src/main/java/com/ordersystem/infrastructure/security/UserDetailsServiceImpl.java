@@ -5,8 +5,8 @@ import com.ordersystem.infrastructure.persistence.jpa.UserJpaRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -16,11 +16,12 @@ import java.util.stream.Collectors;
 
 /**
  * Implementación de UserDetailsService
- * Carga usuarios desde la base de datos para autenticación
+ * Carga usuarios desde la base de datos para autenticación (solo en el login:
+ * los requests autenticados con JWT no consultan la base de datos)
  */
 @Service
 @RequiredArgsConstructor
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
     private final UserJpaRepository userRepository;
 
     @Override
@@ -28,15 +29,45 @@ public class UserDetailsServiceImpl implements UserDetailsService {
         UserEntity userEntity = userRepository.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("Usuario no encontrado: " + email));
 
-        return User.builder()
-                .username(userEntity.getEmail())
-                .password(userEntity.getPassword())
-                .authorities(getAuthorities(userEntity))
-                .accountExpired(false)
-                .accountLocked(false)
-                .credentialsExpired(false)
-                .disabled(!userEntity.getEnabled())
-                .build();
+        return toAuthenticatedUser(userEntity);
+    }
+
+    /**
+     * Carga el usuario por ID (al renovar el access token con un refresh token)
+     */
+    public AuthenticatedUser loadUserById(Long id) {
+        UserEntity userEntity = userRepository.findById(id)
+                .orElseThrow(() -> new UsernameNotFoundException("Usuario no encontrado: " + id));
+        return toAuthenticatedUser(userEntity);
+    }
+
+    /**
+     * Guarda el hash nuevo cuando el login detecta un costo BCrypt distinto al configurado
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        UserEntity userEntity = userRepository.findByEmail(user.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("Usuario no encontrado: " + user.getUsername()));
+        userEntity.setPassword(newPassword);
+        userRepository.save(userEntity);
+
+        return new AuthenticatedUser(
+                userEntity.getId(),
+                userEntity.getEmail(),
+                newPassword,
+                userEntity.getEnabled(),
+                user.getAuthorities()
+        );
+    }
+
+    private AuthenticatedUser toAuthenticatedUser(UserEntity userEntity) {
+        return new AuthenticatedUser(
+                userEntity.getId(),
+                userEntity.getEmail(),
+                userEntity.getPassword(),
+                userEntity.getEnabled(),
+                getAuthorities(userEntity)
+        );
     }
 
     private Collection<? extends GrantedAuthority> getAuthorities(UserEntity userEntity) {
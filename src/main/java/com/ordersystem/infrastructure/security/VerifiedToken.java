@@ -0,0 +1,15 @@
+package com.ordersystem.infrastructure.security;
+
+/**
+ * Access token con firma y expiración ya verificadas
+ *
+ * @param user            usuario reconstruido desde los claims
+ * @param tokenId         claim jti (para revocar el token)
+ * @param expiresAtMillis expiración del token (epoch ms)
+ */
+public record VerifiedToken(AuthenticatedUser user, String tokenId, long expiresAtMillis) {
+
+    public boolean isExpired() {
+        return System.currentTimeMillis() >= expiresAtMillis;
+    }
+}
@@ -0,0 +1,20 @@
+-- =====================================================
+-- V10: Claves de idempotencia para la creación de pedidos
+-- =====================================================
+-- Cada clave (header Idempotency-Key) pertenece a un usuario y apunta al pedido que creó.
+-- La restricción única hace que dos requests concurrentes con la misma clave creen un solo pedido:
+-- el segundo INSERT espera al primero y falla si este confirmó.
+-- request_hash (SHA-256 del cuerpo) detecta la misma clave reutilizada con otro pedido.
+
+CREATE TABLE idempotency_keys (
+                                  id BIGSERIAL PRIMARY KEY,
+                                  user_id BIGINT NOT NULL,
+                                  idempotency_key VARCHAR(255) NOT NULL,
+                                  request_hash VARCHAR(64) NOT NULL,
+                                  order_id BIGINT,
+                                  created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+                                  CONSTRAINT fk_idempotency_keys_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+                                  CONSTRAINT fk_idempotency_keys_order FOREIGN KEY (order_id) REFERENCES orders(id) ON DELETE CASCADE,
+                                  CONSTRAINT idempotency_keys_user_key_unique UNIQUE (user_id, idempotency_key)
+);
@@ -0,0 +1,10 @@
+-- =====================================================
+-- V11: Pagos asíncronos
+-- =====================================================
+-- El pago se registra PENDING y un worker lo pasa a APPROVED o REJECTED con la respuesta de la pasarela.
+-- failure_reason explica el rechazo; el índice parcial permite encontrar los pagos PENDING
+-- que quedaron sin procesar (ej: reinicio de la aplicación) sin recorrer todos los pagos.
+
+ALTER TABLE payments ADD COLUMN failure_reason VARCHAR(255);
+
+CREATE INDEX idx_payments_pending_updated_at ON payments(updated_at) WHERE status = 'PENDING';
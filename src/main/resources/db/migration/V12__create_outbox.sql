@@ -0,0 +1,17 @@
+-- =====================================================
+-- V12: Outbox de eventos de pedidos
+-- =====================================================
+-- Cada cambio de estado de un pedido inserta su evento en la misma transacción,
+-- así un evento existe si y solo si el cambio confirmó.
+-- OutboxRelay lee los eventos en orden de id (FOR UPDATE SKIP LOCKED), los publica y los borra.
+-- Sin FK a orders: la fila es un mensaje, no parte del pedido, y se borra al publicarse.
+
+CREATE TABLE outbox (
+                        id BIGSERIAL PRIMARY KEY,
+                        event_type VARCHAR(30) NOT NULL,
+                        order_id BIGINT NOT NULL,
+                        user_id BIGINT NOT NULL,
+                        previous_status VARCHAR(20),
+                        status VARCHAR(20) NOT NULL,
+                        occurred_at TIMESTAMP NOT NULL
+);
@@ -0,0 +1,7 @@
+-- =====================================================
+-- V13: Índice para purgar los refresh tokens vencidos
+-- =====================================================
+-- ExpiredRefreshTokenCleanup borra periódicamente las filas con expires_at vencido
+-- (revocadas o no); sin este índice cada purga recorre toda la tabla.
+
+CREATE INDEX idx_refresh_tokens_expires_at ON refresh_tokens(expires_at);
@@ -0,0 +1,7 @@
+-- =====================================================
+-- V14: Índice para borrar las claves de idempotencia vencidas
+-- =====================================================
+-- IdempotencyKeyCleanup borra en lotes las claves más antiguas que la ventana de reintento
+-- (order.idempotency.retention); sin este índice cada lote recorre toda la tabla.
+
+CREATE INDEX idx_idempotency_keys_created_at ON idempotency_keys(created_at);
@@ -0,0 +1,8 @@
+-- =====================================================
+-- V15: Pagos rechazados que se pueden reintentar
+-- =====================================================
+-- Reintentar un pago REJECTED usa un transactionId nuevo: solo es seguro si no quedó un cobro
+-- autorizado sin anular con el anterior. retryable = false mientras se anula un cobro ya aprobado
+-- y cuando la anulación falló (reembolso manual).
+
+ALTER TABLE payments ADD COLUMN retryable BOOLEAN NOT NULL DEFAULT true;
@@ -0,0 +1,12 @@
+-- =====================================================
+-- V16: Reserva de pagos en proceso
+-- =====================================================
+-- claimed_at marca cuándo un worker tomó el pago antes de llamar a la pasarela: otro worker
+-- (o la recuperación de pendientes) no lo vuelve a tomar hasta que la reserva vence.
+-- El índice parcial de pagos PENDING pasa a ordenar por la última reserva o, si no la hay, por updated_at.
+
+ALTER TABLE payments ADD COLUMN claimed_at TIMESTAMP;
+
+DROP INDEX idx_payments_pending_updated_at;
+
+CREATE INDEX idx_payments_pending_claimed_at ON payments((COALESCE(claimed_at, updated_at))) WHERE status = 'PENDING';
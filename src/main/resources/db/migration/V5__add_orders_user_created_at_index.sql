@@ -0,0 +1,7 @@
+-- =====================================================
+-- V5: Índice para paginación por cursor de pedidos de un usuario
+-- Orden del listado: created_at DESC, id DESC
+-- (el listado de ADMIN usa el índice existente idx_orders_created_at)
+-- =====================================================
+
+CREATE INDEX idx_orders_user_created_at ON orders(user_id, created_at, id);
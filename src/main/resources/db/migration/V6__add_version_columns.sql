@@ -0,0 +1,7 @@
+-- =====================================================
+-- V6: Columna de versión para control de concurrencia optimista
+-- Hibernate la incrementa en cada UPDATE y rechaza escrituras con versión obsoleta
+-- =====================================================
+
+ALTER TABLE products ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE orders ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,19 @@
+-- =====================================================
+-- V7: Crear tabla de refresh tokens
+-- Solo se guarda el hash SHA-256 del token (el valor original lo tiene únicamente el cliente)
+-- =====================================================
+
+CREATE TABLE refresh_tokens (
+                                id BIGSERIAL PRIMARY KEY,
+                                user_id BIGINT NOT NULL,
+                                token_hash VARCHAR(64) NOT NULL,
+                                expires_at TIMESTAMP NOT NULL,
+                                revoked BOOLEAN NOT NULL DEFAULT false,
+                                created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+                                CONSTRAINT fk_refresh_tokens_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+                                CONSTRAINT refresh_tokens_hash_unique UNIQUE (token_hash)
+);
+
+-- Índices
+CREATE INDEX idx_refresh_tokens_user_id ON refresh_tokens(user_id);
@@ -0,0 +1,21 @@
+-- =====================================================
+-- V8: IDs de pedidos e items desde secuencias con incremento 50
+-- =====================================================
+-- Con IDENTITY Hibernate necesita el ID de cada fila al insertarla y no puede agrupar INSERTs.
+-- Con secuencias reserva 50 IDs por llamada (optimizador pooled) y envía el pedido
+-- y todos sus items en lotes JDBC.
+--
+-- El optimizador pooled toma el valor de la secuencia como el tope del bloque (valor - 49 .. valor),
+-- por eso la secuencia arranca en MAX(id) + 50: el primer bloque empieza justo después del último ID.
+
+CREATE SEQUENCE orders_seq INCREMENT BY 50;
+SELECT setval('orders_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM orders), false);
+ALTER TABLE orders ALTER COLUMN id SET DEFAULT nextval('orders_seq');
+ALTER SEQUENCE orders_seq OWNED BY orders.id;
+DROP SEQUENCE orders_id_seq;
+
+CREATE SEQUENCE order_items_seq INCREMENT BY 50;
+SELECT setval('order_items_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM order_items), false);
+ALTER TABLE order_items ALTER COLUMN id SET DEFAULT nextval('order_items_seq');
+ALTER SEQUENCE order_items_seq OWNED BY order_items.id;
+DROP SEQUENCE order_items_id_seq;
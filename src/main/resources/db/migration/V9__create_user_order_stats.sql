@@ -0,0 +1,30 @@
+-- =====================================================
+-- V9: Estadísticas de pedidos por usuario (agregado desnormalizado)
+-- =====================================================
+-- Se actualizan de forma incremental al crear, pagar, enviar y cancelar pedidos,
+-- en la misma transacción. Leerlas es una sola fila en vez de recorrer el historial.
+-- total_paid suma los pedidos PAID y SHIPPED (si se cancela un pedido pagado, se resta).
+
+CREATE TABLE user_order_stats (
+                                  user_id BIGINT PRIMARY KEY,
+                                  created_count BIGINT NOT NULL DEFAULT 0,
+                                  paid_count BIGINT NOT NULL DEFAULT 0,
+                                  shipped_count BIGINT NOT NULL DEFAULT 0,
+                                  cancelled_count BIGINT NOT NULL DEFAULT 0,
+                                  total_paid DECIMAL(19, 2) NOT NULL DEFAULT 0,
+                                  last_order_at TIMESTAMP,
+
+                                  CONSTRAINT fk_user_order_stats_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+-- Estado inicial a partir de los pedidos existentes
+INSERT INTO user_order_stats (user_id, created_count, paid_count, shipped_count, cancelled_count, total_paid, last_order_at)
+SELECT user_id,
+       COUNT(*) FILTER (WHERE status = 'CREATED'),
+       COUNT(*) FILTER (WHERE status = 'PAID'),
+       COUNT(*) FILTER (WHERE status = 'SHIPPED'),
+       COUNT(*) FILTER (WHERE status = 'CANCELLED'),
+       COALESCE(SUM(total_amount) FILTER (WHERE status IN ('PAID', 'SHIPPED')), 0),
+       MAX(created_at)
+FROM orders
+GROUP BY user_id;
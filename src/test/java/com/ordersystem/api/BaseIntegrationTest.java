@@ -1,6 +1,7 @@
 package com.ordersystem.api;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ordersystem.infrastructure.cache.ProductCatalogCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -23,6 +24,8 @@ import org.springframework.transaction.annotation.Transactional;
  * Proporciona:
  * - mockMvc: Para simular peticiones HTTP
  * - objectMapper: Para serializar/deserializar JSON
+ *
+ * Las cachés en memoria se vacían antes de cada test (los datos se recargan con test-data.sql)
  */
 @SpringBootTest
 @AutoConfigureMockMvc
@@ -37,6 +40,14 @@ public abstract class BaseIntegrationTest {
     @Autowired
     protected ObjectMapper objectMapper;
 
+    @Autowired
+    private ProductCatalogCache productCatalogCache;
+
+    @BeforeEach
+    void clearCaches() {
+        productCatalogCache.invalidateAll();
+    }
+
     @BeforeEach
     void setUp() {
         // Hook para configuración adicional en clases hijas
@@ -0,0 +1,24 @@
+package com.ordersystem.api;
+
+import org.springframework.security.test.context.support.WithSecurityContext;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Ejecuta el test autenticado como un AuthenticatedUser (el mismo principal que arma el filtro JWT)
+ * Equivalente a @WithMockUser, pero con el ID del usuario
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@WithSecurityContext(factory = WithAuthenticatedUserSecurityContextFactory.class)
+public @interface WithAuthenticatedUser {
+
+    long id();
+
+    String username();
+
+    String[] roles() default {"USER"};
+}
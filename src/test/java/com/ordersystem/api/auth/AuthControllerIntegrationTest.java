@@ -1,15 +1,31 @@
 package com.ordersystem.api.auth;
 
 import com.ordersystem.api.BaseIntegrationTest;
+import com.ordersystem.api.WithAuthenticatedUser;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.ordersystem.api.auth.dto.LoginRequest;
+import com.ordersystem.api.auth.dto.RefreshTokenRequest;
+import com.ordersystem.infrastructure.security.ExpiredRefreshTokenCleanup;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 /**
@@ -20,10 +36,27 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  * 2. Login exitoso con credenciales válidas (ADMIN)
  * 3. Login fallido por credenciales inválidas
  * 4. Login fallido por usuario inexistente
+ * 5. Requests autenticados con el JWT sin consultar usuarios
+ * 6. Rehash transparente al costo BCrypt configurado
+ * 7. Renovación con refresh token (rotación y detección de reutilización)
+ * 8. Logout (revocación del access token y del refresh token)
+ *
+ * El login verifica la contraseña en otro hilo: los datos de prueba se confirman
+ * (sin transacción del test) y test-data.sql los restablece antes de cada test.
  */
 @DisplayName("AuthController - Integration Tests")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
 class AuthControllerIntegrationTest extends BaseIntegrationTest {
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private ExpiredRefreshTokenCleanup refreshTokenCleanup;
+
     @Test
     @DisplayName("POST /api/auth/login - Login exitoso como USER retorna JWT")
     void login_ValidCredentials_AsUser_ReturnsJwtToken() throws Exception {
@@ -31,9 +64,7 @@ class AuthControllerIntegrationTest extends BaseIntegrationTest {
         LoginRequest request = new LoginRequest("user@test.com", "1234");
 
         // When: POST /api/auth/login
-        mockMvc.perform(post("/api/auth/login")
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .content(objectMapper.writeValueAsString(request)))
+        performLogin(request)
                 .andDo(print())
                 // Then: Status 200 OK con JWT
                 .andExpect(status().isOk())
@@ -51,9 +82,7 @@ class AuthControllerIntegrationTest extends BaseIntegrationTest {
         LoginRequest request = new LoginRequest("admin@test.com", "1234");
 
         // When: POST /api/auth/login
-        mockMvc.perform(post("/api/auth/login")
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .content(objectMapper.writeValueAsString(request)))
+        performLogin(request)
                 .andDo(print())
                 // Then: Status 200 OK con JWT y roles USER + ADMIN
                 .andExpect(status().isOk())
@@ -70,9 +99,7 @@ class AuthControllerIntegrationTest extends BaseIntegrationTest {
         LoginRequest request = new LoginRequest("user@test.com", "wrongpassword");
 
         // When & Then: 401 Unauthorized
-        mockMvc.perform(post("/api/auth/login")
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .content(objectMapper.writeValueAsString(request)))
+        performLogin(request)
                 .andDo(print())
                 .andExpect(status().isUnauthorized());
     }
@@ -84,9 +111,7 @@ class AuthControllerIntegrationTest extends BaseIntegrationTest {
         LoginRequest request = new LoginRequest("nonexistent@test.com", "1234");
 
         // When & Then: 401 Unauthorized
-        mockMvc.perform(post("/api/auth/login")
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .content(objectMapper.writeValueAsString(request)))
+        performLogin(request)
                 .andDo(print())
                 .andExpect(status().isUnauthorized());
     }
@@ -132,4 +157,182 @@ class AuthControllerIntegrationTest extends BaseIntegrationTest {
                 .andDo(print())
                 .andExpect(status().isBadRequest());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("El JWT autentica requests con el ID y roles de sus claims, sin consultar la base de datos")
+    void jwt_AuthenticatesFromClaimsWithoutDatabaseLookup() throws Exception {
+        // Given: Token obtenido en el login
+        String response = performLogin(new LoginRequest("user@test.com", "1234"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String token = objectMapper.readTree(response).get("token").asText();
+
+        // Y el usuario ya no está en la base de datos
+        jdbcTemplate.update("DELETE FROM user_roles WHERE user_id = 1");
+        jdbcTemplate.update("DELETE FROM users WHERE id = 1");
+
+        // When & Then: El request se autentica igual con los datos del token
+        mockMvc.perform(get("/api/orders/page")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items").isArray());
+    }
+
+    @Test
+    @DisplayName("POST /api/auth/login - Rehashea la contraseña si usa otro costo BCrypt")
+    void login_PasswordWithOtherCost_IsRehashed() throws Exception {
+        // Given: Hash guardado con costo 4 (el configurado es 10)
+        jdbcTemplate.update("UPDATE users SET password = ? WHERE id = 1", new BCryptPasswordEncoder(4).encode("1234"));
+
+        // When: Login exitoso
+        performLogin(new LoginRequest("user@test.com", "1234"))
+                .andExpect(status().isOk());
+
+        // Then: El hash quedó con el costo configurado y sigue validando la misma contraseña
+        String stored = jdbcTemplate.queryForObject("SELECT password FROM users WHERE id = 1", String.class);
+        assertThat(stored).startsWith("$2a$10$");
+        assertThat(passwordEncoder.matches("1234", stored)).isTrue();
+    }
+
+    @Test
+    @DisplayName("POST /api/auth/refresh - Renueva el access token y rota el refresh token")
+    void refresh_ValidToken_ReturnsNewTokens() throws Exception {
+        // Given: Tokens del login
+        JsonNode login = loginAsUser();
+        String refreshToken = login.get("refreshToken").asText();
+
+        // When: Se renueva con el refresh token
+        String response = mockMvc.perform(post("/api/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RefreshTokenRequest(refreshToken))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email").value("user@test.com"))
+                .andExpect(jsonPath("$.roles[0]").value("ROLE_USER"))
+                .andReturn().getResponse().getContentAsString();
+        JsonNode refreshed = objectMapper.readTree(response);
+
+        // Then: Par nuevo, válido para acceder
+        assertThat(refreshed.get("refreshToken").asText()).isNotEqualTo(refreshToken);
+        assertThat(refreshed.get("token").asText()).isNotEqualTo(login.get("token").asText());
+        mockMvc.perform(get("/api/orders/page")
+                        .header("Authorization", "Bearer " + refreshed.get("token").asText()))
+                .andExpect(status().isOk());
+
+        // Y solo se guarda el hash del refresh token
+        Integer stored = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM refresh_tokens WHERE token_hash = ?", Integer.class, refreshToken);
+        assertThat(stored).isZero();
+    }
+
+    @Test
+    @DisplayName("POST /api/auth/refresh - Reusar un refresh token revoca todas las sesiones del usuario")
+    void refresh_ReusedToken_RevokesAllSessions() throws Exception {
+        // Given: Un refresh token ya rotado
+        String refreshToken = loginAsUser().get("refreshToken").asText();
+        String rotated = objectMapper.readTree(refresh(refreshToken)
+                        .andExpect(status().isOk())
+                        .andReturn().getResponse().getContentAsString())
+                .get("refreshToken").asText();
+
+        // When: Se vuelve a presentar el token viejo
+        refresh(refreshToken)
+                .andExpect(status().isUnauthorized());
+
+        // Then: También el token nuevo quedó revocado
+        refresh(rotated)
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @DisplayName("POST /api/auth/refresh - Token desconocido retorna 401")
+    void refresh_UnknownToken_ReturnsUnauthorized() throws Exception {
+        refresh("no-existe")
+                .andExpect(status().isUnauthorized())
+                .andExpect(jsonPath("$.message").value("Refresh token inválido o expirado"));
+    }
+
+    @Test
+    @DisplayName("POST /api/auth/logout - Revoca el access token y el refresh token")
+    void logout_RevokesAccessAndRefreshTokens() throws Exception {
+        // Given: Sesión iniciada
+        JsonNode login = loginAsUser();
+        String token = login.get("token").asText();
+        String refreshToken = login.get("refreshToken").asText();
+
+        // When: Logout
+        mockMvc.perform(post("/api/auth/logout")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RefreshTokenRequest(refreshToken))))
+                .andExpect(status().isNoContent());
+
+        // Then: El access token ya no autentica y el refresh token no renueva
+        mockMvc.perform(get("/api/orders/page")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isForbidden());
+        refresh(refreshToken)
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @WithAuthenticatedUser(id = 1, username = "user@test.com")
+    @DisplayName("POST /api/auth/logout - Header Authorization sin esquema Bearer retorna 400")
+    void logout_NonBearerAuthorization_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(post("/api/auth/logout")
+                        .header("Authorization", "Basic dXNlcjoxMjM0"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("El header Authorization debe tener el formato 'Bearer <token>'"));
+    }
+
+    @Test
+    @DisplayName("La purga borra los refresh tokens vencidos y conserva los vigentes aunque estén revocados")
+    void purgeExpired_DeletesOnlyExpiredRefreshTokens() throws Exception {
+        // Given: un token vigente (login), uno vigente revocado y dos vencidos
+        String refreshToken = loginAsUser().get("refreshToken").asText();
+        insertRefreshToken("revoked-active", "DATEADD('DAY', 1, CURRENT_TIMESTAMP)", true);
+        insertRefreshToken("expired", "DATEADD('DAY', -1, CURRENT_TIMESTAMP)", false);
+        insertRefreshToken("expired-revoked", "DATEADD('DAY', -1, CURRENT_TIMESTAMP)", true);
+
+        // When
+        int deleted = refreshTokenCleanup.purgeExpired();
+
+        // Then: el revocado vigente sigue detectando reutilizaciones y el token del login sigue renovando
+        assertThat(deleted).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM refresh_tokens WHERE token_hash IN ('revoked-active', 'expired', 'expired-revoked')",
+                Integer.class)).isEqualTo(1);
+        refresh(refreshToken)
+                .andExpect(status().isOk());
+    }
+
+    private void insertRefreshToken(String tokenHash, String expiresAt, boolean revoked) {
+        jdbcTemplate.update("INSERT INTO refresh_tokens (user_id, token_hash, expires_at, revoked, created_at) "
+                + "VALUES (1, ?, " + expiresAt + ", ?, CURRENT_TIMESTAMP)", tokenHash, revoked);
+    }
+
+    private JsonNode loginAsUser() throws Exception {
+        String response = performLogin(new LoginRequest("user@test.com", "1234"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response);
+    }
+
+    private ResultActions refresh(String refreshToken) throws Exception {
+        return mockMvc.perform(post("/api/auth/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new RefreshTokenRequest(refreshToken))));
+    }
+
+    /**
+     * El login responde de forma asíncrona (la verificación corre en el pool de hashing)
+     */
+    private ResultActions performLogin(LoginRequest request) throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        return mockMvc.perform(asyncDispatch(result));
+    }
+}
@@ -1,17 +1,25 @@
 package com.ordersystem.api.order;
 
 import com.ordersystem.api.BaseIntegrationTest;
+import com.ordersystem.api.WithAuthenticatedUser;
 import com.ordersystem.api.order.dto.CreateOrderRequest;
 import com.ordersystem.api.order.dto.OrderItemRequest;
 import com.ordersystem.api.order.dto.PayOrderRequest;
+import com.ordersystem.infrastructure.security.AuthenticatedUser;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.http.MediaType;
-import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.UUID;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
@@ -21,10 +29,10 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  * Tests de integración para OrderController.
  *
  * Cobertura:
- * 1. Crear pedido (USER/ADMIN)
+ * 1. Crear pedido (USER/ADMIN, con Idempotency-Key)
  * 2. Listar pedidos (USER: propios, ADMIN: todos)
  * 3. Ver detalle de pedido
- * 4. Pagar pedido (con descuento de stock)
+ * 4. Pagar pedido (202 + procesamiento del pago, con descuento de stock)
  * 5. Cancelar pedido (con devolución de stock)
  * 6. Marcar como enviado (ADMIN only)
  * 7. Tests de seguridad (401, 403)
@@ -38,7 +46,7 @@ class OrderControllerIntegrationTest extends BaseIntegrationTest {
     // ========================================
 
     @Test
-    @WithMockUser(username = "user@test.com", roles = {"USER"})
+    @WithAuthenticatedUser(id = 1, username = "user@test.com", roles = {"USER"})
     @DisplayName("POST /api/orders - Usuario crea pedido exitosamente")
     void createOrder_AsUser_ReturnsCreated() throws Exception {
         // Given: Request con 2 productos
@@ -71,7 +79,7 @@ class OrderControllerIntegrationTest extends BaseIntegrationTest {
     }
 
     @Test
-    @WithMockUser(username = "admin@test.com", roles = {"ADMIN"})
+    @WithAuthenticatedUser(id = 2, username = "admin@test.com", roles = {"USER", "ADMIN"})
     @DisplayName("POST /api/orders - Admin crea pedido exitosamente")
     void createOrder_AsAdmin_ReturnsCreated() throws Exception {
         // Given: Request con 1 producto
@@ -95,7 +103,7 @@ class OrderControllerIntegrationTest extends BaseIntegrationTest {
     }
 
     @Test
-    @WithMockUser(username = "user@test.com", roles = {"USER"})
+    @WithAuthenticatedUser(id = 1, username = "user@test.com", roles = {"USER"})
     @DisplayName("POST /api/orders - Falla por stock insuficiente")
     void createOrder_InsufficientStock_ReturnsBadRequest() throws Exception {
         // Given: Producto con stock 0
@@ -118,7 +126,7 @@ class OrderControllerIntegrationTest extends BaseIntegrationTest {
     }
 
     @Test
-    @WithMockUser(username = "user@test.com", roles = {"USER"})
+    @WithAuthenticatedUser(id = 1, username = "user@test.com", roles = {"USER"})
     @DisplayName("POST /api/orders - Falla por producto inactivo")
     void createOrder_InactiveProduct_ReturnsBadRequest() throws Exception {
         // Given: Producto inactivo (active = false)
@@ -141,7 +149,7 @@ class OrderControllerIntegrationTest extends BaseIntegrationTest {
     }
 
     @Test
-    @WithMockUser(username = "user@test.com", roles = {"USER"})
+    @WithAuthenticatedUser(id = 1, username = "user@test.com", roles = {"USER"})
     @DisplayName("POST /api/orders - Falla por lista vacía")
     void createOrder_EmptyItems_ReturnsBadRequest() throws Exception {
         // Given: Request sin items
@@ -160,12 +168,97 @@ class OrderControllerIntegrationTest extends BaseIntegrationTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    @WithAuthenticatedUser(id = 1, username = "user@test.com", roles = {"USER"})
+    @DisplayName("POST /api/orders - Reintento con la misma Idempotency-Key devuelve el mismo pedido")
+    void createOrder_SameIdempotencyKey_ReplaysOrder() throws Exception {
+        // Given: una clave única (la caché de respuestas vive entre tests)
+        String key = UUID.randomUUID().toString();
+        String body = objectMapper.writeValueAsString(new CreateOrderRequest(
+                List.of(new OrderItemRequest(1L, 1)), "Calle Test 123", "Montevideo", "Uruguay"));
+
+        MvcResult first = mockMvc.perform(post("/api/orders")
+                        .header("Idempotency-Key", key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist("Idempotent-Replayed"))
+                .andReturn();
+        long orderId = objectMapper.readTree(first.getResponse().getContentAsString()).get("id").asLong();
+
+        // When: el cliente reintenta con la misma clave
+        mockMvc.perform(post("/api/orders")
+                        .header("Idempotency-Key", key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andDo(print())
+                // Then: misma respuesta, sin crear otro pedido
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(jsonPath("$.id").value(orderId))
+                .andExpect(jsonPath("$.total").value(1299.99));
+
+        mockMvc.perform(get("/api/orders"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)));
+
+        // La misma clave de otro usuario es otra clave
+        MvcResult other = mockMvc.perform(post("/api/orders")
+                        .with(org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication(authenticationFor("admin@test.com")))
+                        .header("Idempotency-Key", key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist("Idempotent-Replayed"))
+                .andExpect(jsonPath("$.userId").value(2))
+                .andReturn();
+        assertThat(objectMapper.readTree(other.getResponse().getContentAsString()).get("id").asLong())
+                .isNotEqualTo(orderId);
+    }
+
+    @Test
+    @WithAuthenticatedUser(id = 1, username = "user@test.com", roles = {"USER"})
+    @DisplayName("POST /api/orders - Idempotency-Key reutilizada con otro pedido o inválida")
+    void createOrder_ReusedOrInvalidIdempotencyKey_IsRejected() throws Exception {
+        String key = UUID.randomUUID().toString();
+        CreateOrderRequest request = new CreateOrderRequest(
+                List.of(new OrderItemRequest(1L, 1)), "Calle Test 123", "Montevideo", "Uruguay");
+
+        mockMvc.perform(post("/api/orders")
+                        .header("Idempotency-Key", key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated());
+
+        // Misma clave, otro contenido: 422
+        request.setItems(List.of(new OrderItemRequest(2L, 1)));
+        mockMvc.perform(post("/api/orders")
+                        .header("Idempotency-Key", key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andDo(print())
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.message").value(containsString("Idempotency-Key")));
+
+        // Clave vacía o demasiado larga: 400
+        mockMvc.perform(post("/api/orders")
+                        .header("Idempotency-Key", " ")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/orders")
+                        .header("Idempotency-Key", "k".repeat(256))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest());
+    }
+
     // ========================================
     // TESTS: LISTAR PEDIDOS
     // ========================================
 
     @Test
-    @WithMockUser(username = "user@test.com", roles = {"USER"})
+    @WithAuthenticatedUser(id = 1, username = "user@test.com", roles = {"USER"})
     @DisplayName("GET /api/orders - Usuario ve solo sus propios pedidos")
     void listOrders_AsUser_ReturnsOnlyOwnOrders() throws Exception {
         // Given: Crear 2 pedidos como user@test.com
@@ -185,7 +278,7 @@ class OrderControllerIntegrationTest extends BaseIntegrationTest {
     }
 
     @Test
-    @WithMockUser(username = "admin@test.com", roles = {"ADMIN"})
+    @WithAuthenticatedUser(id = 2, username = "admin@test.com", roles = {"USER", "ADMIN"})
     @DisplayName("GET /api/orders - Admin ve todos los pedidos")
     void listOrders_AsAdmin_ReturnsAllOrders() throws Exception {
         // Given: Crear pedidos de diferentes usuarios
@@ -200,12 +293,206 @@ class OrderControllerIntegrationTest extends BaseIntegrationTest {
                 .andExpect(jsonPath("$", hasSize(2)));
     }
 
+    @Test
+    @WithAuthenticatedUser(id = 1, username = "user@test.com", roles = {"USER"})
+    @DisplayName("GET /api/orders/page - Recorre los pedidos propios con el cursor")
+    void listOrdersPage_AsUser_FollowsCursor() throws Exception {
+        // Given: 3 pedidos de user@test.com y 1 de admin@test.com
+        Long first = createOrderAsUser("user@test.com", 1L, 1);
+        Long second = createOrderAsUser("user@test.com", 2L, 1);
+        Long third = createOrderAsUser("user@test.com", 3L, 1);
+        createOrderAsUser("admin@test.com", 4L, 1);
+
+        // When: Primera página de 2 (más recientes primero)
+        MvcResult result = mockMvc.perform(get("/api/orders/page").param("limit", "2"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(2)))
+                .andExpect(jsonPath("$.items[0].id").value(third))
+                .andExpect(jsonPath("$.items[1].id").value(second))
+                .andExpect(jsonPath("$.nextCursor").isNotEmpty())
+                .andReturn();
+
+        String cursor = objectMapper.readTree(result.getResponse().getContentAsString())
+                .get("nextCursor").asText();
+
+        // Then: La segunda página contiene el pedido restante y no hay más
+        mockMvc.perform(get("/api/orders/page").param("limit", "2").param("after", cursor))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].id").value(first))
+                .andExpect(jsonPath("$.items[0].items[0].productName").value("Laptop Dell XPS 13"))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    @WithAuthenticatedUser(id = 2, username = "admin@test.com", roles = {"USER", "ADMIN"})
+    @DisplayName("GET /api/orders/page - Admin pagina todos los pedidos")
+    void listOrdersPage_AsAdmin_ReturnsAllOrders() throws Exception {
+        createOrderAsUser("user@test.com", 1L, 1);
+        createOrderAsUser("admin@test.com", 2L, 1);
+
+        mockMvc.perform(get("/api/orders/page").param("limit", "10"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(2)))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    @WithAuthenticatedUser(id = 1, username = "user@test.com", roles = {"USER"})
+    @DisplayName("GET /api/orders/page - Cursor o límite inválido retorna 400")
+    void listOrdersPage_InvalidParams_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/orders/page").param("after", "no-es-un-cursor"))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/api/orders/page").param("limit", "0"))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithAuthenticatedUser(id = 1, username = "user@test.com", roles = {"USER"})
+    @DisplayName("GET /api/orders/summary - Resúmenes de los pedidos propios con el cursor")
+    void listOrderSummaries_AsUser_FollowsCursor() throws Exception {
+        // Given: 2 pedidos de user@test.com (uno con 2 líneas) y 1 de admin@test.com
+        Long first = createOrderAsUser("user@test.com", 1L, 1);
+        CreateOrderRequest twoLines = new CreateOrderRequest(
+                List.of(new OrderItemRequest(2L, 1), new OrderItemRequest(3L, 2)),
+                "Calle Resumen 1", "Montevideo", "Uruguay");
+        Long second = objectMapper.readTree(mockMvc.perform(post("/api/orders")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(twoLines)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString()).get("id").asLong();
+        createOrderAsUser("admin@test.com", 4L, 1);
+
+        // When: Primera página de 1
+        MvcResult result = mockMvc.perform(get("/api/orders/summary").param("limit", "1"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].id").value(second))
+                .andExpect(jsonPath("$.items[0].status").value("CREATED"))
+                .andExpect(jsonPath("$.items[0].itemCount").value(2))
+                .andExpect(jsonPath("$.items[0].currency").value("USD"))
+                .andExpect(jsonPath("$.items[0].createdAt").isNotEmpty())
+                .andExpect(jsonPath("$.items[0].address").doesNotExist())
+                .andExpect(jsonPath("$.items[0].items").doesNotExist())
+                .andExpect(jsonPath("$.nextCursor").isNotEmpty())
+                .andReturn();
+
+        String cursor = objectMapper.readTree(result.getResponse().getContentAsString())
+                .get("nextCursor").asText();
+
+        // Then: La segunda página contiene el pedido restante y no hay más
+        mockMvc.perform(get("/api/orders/summary").param("limit", "1").param("after", cursor))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].id").value(first))
+                .andExpect(jsonPath("$.items[0].itemCount").value(1))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    @WithAuthenticatedUser(id = 2, username = "admin@test.com", roles = {"USER", "ADMIN"})
+    @DisplayName("GET /api/orders/summary - Admin ve los resúmenes de todos los pedidos")
+    void listOrderSummaries_AsAdmin_ReturnsAllOrders() throws Exception {
+        createOrderAsUser("user@test.com", 1L, 1);
+        createOrderAsUser("admin@test.com", 2L, 1);
+
+        mockMvc.perform(get("/api/orders/summary").param("limit", "10"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(2)))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+
+        mockMvc.perform(get("/api/orders/summary").param("limit", "101"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED) // El streaming corre en otro hilo: los datos deben estar commiteados
+    @WithAuthenticatedUser(id = 2, username = "admin@test.com", roles = {"USER", "ADMIN"})
+    @DisplayName("GET /api/orders/export - Admin exporta todos los pedidos en NDJSON")
+    void exportOrders_AsAdmin_StreamsNdjson() throws Exception {
+        // Given: Pedidos de diferentes usuarios
+        Long userOrder = createOrderAsUser("user@test.com", 1L, 2);
+        Long adminOrder = createOrderAsUser("admin@test.com", 2L, 1);
+
+        // When: GET /api/orders/export (respuesta asíncrona)
+        MvcResult started = mockMvc.perform(get("/api/orders/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        // Then: Un pedido JSON por línea, ordenados por ID y con sus items
+        String[] lines = body.split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readTree(lines[0]).get("id").asLong()).isEqualTo(userOrder);
+        assertThat(objectMapper.readTree(lines[0]).get("items").get(0).get("productName").asText())
+                .isEqualTo("Laptop Dell XPS 13");
+        assertThat(objectMapper.readTree(lines[1]).get("id").asLong()).isEqualTo(adminOrder);
+    }
+
+    @Test
+    @WithAuthenticatedUser(id = 1, username = "user@test.com", roles = {"USER"})
+    @DisplayName("GET /api/orders/export - Usuario no puede exportar")
+    void exportOrders_AsUser_ReturnsForbidden() throws Exception {
+        mockMvc.perform(get("/api/orders/export"))
+                .andDo(print())
+                .andExpect(status().isForbidden());
+    }
+
+    // ========================================
+    // TESTS: STREAM SSE DE CAMBIOS DE ESTADO
+    // ========================================
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED) // Los eventos se publican al confirmar la transacción
+    @WithAuthenticatedUser(id = 1, username = "user@test.com", roles = {"USER"})
+    @DisplayName("GET /api/orders/events - Usuario recibe por SSE los cambios de estado de sus pedidos")
+    void streamOrderEvents_PushesOwnStatusChanges() throws Exception {
+        // Given: Stream abierto (respuesta asíncrona)
+        MvcResult stream = mockMvc.perform(get("/api/orders/events"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // When: Se crea un pedido de otro usuario y uno propio que luego se paga
+        createOrderAsUser("admin@test.com", 2L, 1);
+        Long orderId = createOrderAsUser("user@test.com", 1L, 1);
+        mockMvc.perform(post("/api/orders/" + orderId + "/pay")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new PayOrderRequest("credit_card"))))
+                .andExpect(status().isAccepted());
+
+        // Then: Llegan en orden solo los eventos del pedido propio
+        String body = awaitStreamContent(stream, "event:ORDER_PAID");
+        assertThat(body.split("event:")).hasSize(3);
+        assertThat(body.indexOf("event:ORDER_CREATED")).isLessThan(body.indexOf("event:ORDER_PAID"));
+        assertThat(body).contains("\"orderId\":" + orderId)
+                .contains("\"previousStatus\":\"CREATED\",\"status\":\"PAID\"");
+
+        // El cliente se desconecta
+        stream.getRequest().getAsyncContext().complete();
+    }
+
     // ========================================
     // TESTS: VER DETALLE DE PEDIDO
     // ========================================
 
     @Test
-    @WithMockUser(username = "user@test.com", roles = {"USER"})
+    @WithAuthenticatedUser(id = 1, username = "user@test.com", roles = {"USER"})
     @DisplayName("GET /api/orders/{id} - Usuario ve su propio pedido")
     void getOrder_AsUser_OwnOrder_ReturnsOk() throws Exception {
         // Given: Crear pedido como user@test.com
@@ -221,7 +508,7 @@ class OrderControllerIntegrationTest extends BaseIntegrationTest {
     }
 
     @Test
-    @WithMockUser(username = "user@test.com", roles = {"USER"})
+    @WithAuthenticatedUser(id = 1, username = "user@test.com", roles = {"USER"})
     @DisplayName("GET /api/orders/{id} - Usuario no puede ver pedido ajeno")
     void getOrder_AsUser_OtherUserOrder_ReturnsForbidden() throws Exception {
         // Given: Crear pedido como admin@test.com
@@ -235,7 +522,7 @@ class OrderControllerIntegrationTest extends BaseIntegrationTest {
     }
 
     @Test
-    @WithMockUser(username = "admin@test.com", roles = {"ADMIN"})
+    @WithAuthenticatedUser(id = 2, username = "admin@test.com", roles = {"USER", "ADMIN"})
     @DisplayName("GET /api/orders/{id} - Admin puede ver cualquier pedido")
     void getOrder_AsAdmin_AnyOrder_ReturnsOk() throws Exception {
         // Given: Crear pedido como user@test.com
@@ -251,7 +538,7 @@ class OrderControllerIntegrationTest extends BaseIntegrationTest {
     }
 
     @Test
-    @WithMockUser(username = "user@test.com", roles = {"USER"})
+    @WithAuthenticatedUser(id = 1, username = "user@test.com", roles = {"USER"})
     @DisplayName("GET /api/orders/{id} - Pedido no existe")
     void getOrder_NotFound_ReturnsNotFound() throws Exception {
         // When: Consultar pedido inexistente
@@ -266,7 +553,7 @@ class OrderControllerIntegrationTest extends BaseIntegrationTest {
     // ========================================
 
     @Test
-    @WithMockUser(username = "user@test.com", roles = {"USER"})
+    @WithAuthenticatedUser(id = 1, username = "user@test.com", roles = {"USER"})
     @DisplayName("POST /api/orders/{id}/pay - Pago exitoso descuenta stock")
     void payOrder_Success_DecreasesStock() throws Exception {
         // Given: Crear pedido con Laptop x2 (stock inicial: 10)
@@ -278,8 +565,11 @@ class OrderControllerIntegrationTest extends BaseIntegrationTest {
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(payRequest)))
                 .andDo(print())
-                // Then: Status 200 OK
-                .andExpect(status().isOk());
+                // Then: Status 202 Accepted (el pago se procesa en segundo plano; en tests, en el mismo hilo)
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/orders/" + orderId + "/payment"))
+                .andExpect(jsonPath("$.orderId").value(orderId))
+                .andExpect(jsonPath("$.status").value("APPROVED"));
 
         // Verificar que el pedido quedó como PAID
         mockMvc.perform(get("/api/orders/" + orderId))
@@ -293,7 +583,7 @@ class OrderControllerIntegrationTest extends BaseIntegrationTest {
     }
 
     @Test
-    @WithMockUser(username = "user@test.com", roles = {"USER"})
+    @WithAuthenticatedUser(id = 1, username = "user@test.com", roles = {"USER"})
     @DisplayName("POST /api/orders/{id}/pay - Idempotencia: pagar 2 veces no descuenta stock")
     void payOrder_Idempotent_DoesNotDecreaseStockTwice() throws Exception {
         // Given: Crear y pagar pedido
@@ -303,15 +593,15 @@ class OrderControllerIntegrationTest extends BaseIntegrationTest {
         mockMvc.perform(post("/api/orders/" + orderId + "/pay")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(payRequest)))
-                .andExpect(status().isOk());
+                .andExpect(status().isAccepted());
 
         // When: Intentar pagar de nuevo
         mockMvc.perform(post("/api/orders/" + orderId + "/pay")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(payRequest)))
                 .andDo(print())
-                // Then: Sigue siendo 200 OK (idempotente)
-                .andExpect(status().isOk());
+                // Then: Sigue siendo 202 Accepted (idempotente)
+                .andExpect(status().isAccepted());
 
         // Verificar que el stock se descontó solo UNA vez (25 - 3 = 22)
         mockMvc.perform(get("/api/products/2"))
@@ -320,7 +610,7 @@ class OrderControllerIntegrationTest extends BaseIntegrationTest {
     }
 
     @Test
-    @WithMockUser(username = "user@test.com", roles = {"USER"})
+    @WithAuthenticatedUser(id = 1, username = "user@test.com", roles = {"USER"})
     @DisplayName("POST /api/orders/{id}/pay - No se puede pagar pedido cancelado")
     void payOrder_CancelledOrder_ReturnsConflict() throws Exception {
         // Given: Crear y cancelar pedido
@@ -341,7 +631,7 @@ class OrderControllerIntegrationTest extends BaseIntegrationTest {
     }
 
     @Test
-    @WithMockUser(username = "user@test.com", roles = {"USER"})
+    @WithAuthenticatedUser(id = 1, username = "user@test.com", roles = {"USER"})
     @DisplayName("POST /api/orders/{id}/pay - Usuario no puede pagar pedido ajeno")
     void payOrder_OtherUserOrder_ReturnsForbidden() throws Exception {
         // Given: Pedido de admin@test.com
@@ -357,12 +647,95 @@ class OrderControllerIntegrationTest extends BaseIntegrationTest {
                 .andExpect(status().isForbidden());
     }
 
+    @Test
+    @WithAuthenticatedUser(id = 1, username = "user@test.com", roles = {"USER"})
+    @DisplayName("POST /api/orders/{id}/pay - Pago rechazado por la pasarela se puede reintentar con otro medio")
+    void payOrder_Declined_CanBeRetried() throws Exception {
+        // Given: Pedido de Laptop x2 (stock inicial: 10)
+        Long orderId = createOrderAsUser("user@test.com", 1L, 2);
+
+        // When: La pasarela rechaza el medio de pago
+        mockMvc.perform(post("/api/orders/" + orderId + "/pay")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new PayOrderRequest("declined_card"))))
+                .andDo(print())
+                .andExpect(status().isAccepted());
+
+        // Then: Pago REJECTED con motivo, pedido sin pagar y stock intacto
+        mockMvc.perform(get("/api/orders/" + orderId + "/payment"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("REJECTED"))
+                .andExpect(jsonPath("$.failureReason").value(containsString("rechazado")));
+        mockMvc.perform(get("/api/orders/" + orderId))
+                .andExpect(jsonPath("$.status").value("CREATED"));
+        mockMvc.perform(get("/api/products/1"))
+                .andExpect(jsonPath("$.stock").value(10));
+
+        // When: Se reintenta con otro medio de pago
+        mockMvc.perform(post("/api/orders/" + orderId + "/pay")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new PayOrderRequest("credit_card"))))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.status").value("APPROVED"))
+                .andExpect(jsonPath("$.paymentMethod").value("credit_card"))
+                .andExpect(jsonPath("$.failureReason").doesNotExist());
+
+        mockMvc.perform(get("/api/orders/" + orderId))
+                .andExpect(jsonPath("$.status").value("PAID"));
+        mockMvc.perform(get("/api/products/1"))
+                .andExpect(jsonPath("$.stock").value(8));
+    }
+
+    @Test
+    @WithAuthenticatedUser(id = 1, username = "user@test.com", roles = {"USER"})
+    @DisplayName("POST /api/orders/{id}/pay - Sin stock al aprobar, el pago queda rechazado")
+    void payOrder_StockGoneBeforeApproval_RejectsPayment() throws Exception {
+        // Given: Dos pedidos de 4 unidades de un producto con stock 5
+        Long first = createOrderAsUser("user@test.com", 4L, 4);
+        Long second = createOrderAsUser("user@test.com", 4L, 4);
+        PayOrderRequest payRequest = new PayOrderRequest("credit_card");
+
+        mockMvc.perform(post("/api/orders/" + first + "/pay")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(payRequest)))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.status").value("APPROVED"));
+
+        // When: Se paga el segundo cuando ya no alcanza el stock
+        mockMvc.perform(post("/api/orders/" + second + "/pay")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(payRequest)))
+                .andDo(print())
+                // Then: El pago se registra pero queda REJECTED y el stock no cambia
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.status").value("REJECTED"))
+                .andExpect(jsonPath("$.failureReason").value(containsString("Stock insuficiente")));
+
+        mockMvc.perform(get("/api/orders/" + second))
+                .andExpect(jsonPath("$.status").value("CREATED"));
+        mockMvc.perform(get("/api/products/4"))
+                .andExpect(jsonPath("$.stock").value(1));
+    }
+
+    @Test
+    @WithAuthenticatedUser(id = 1, username = "user@test.com", roles = {"USER"})
+    @DisplayName("GET /api/orders/{id}/payment - Pedido ajeno o sin pago")
+    void getOrderPayment_OtherUserOrNoPayment() throws Exception {
+        Long ownOrder = createOrderAsUser("user@test.com", 1L, 1);
+        Long otherOrder = createOrderAsUser("admin@test.com", 2L, 1);
+
+        mockMvc.perform(get("/api/orders/" + ownOrder + "/payment"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/orders/" + otherOrder + "/payment"))
+                .andExpect(status().isForbidden());
+    }
+
     // ========================================
     // TESTS: CANCELAR PEDIDO
     // ========================================
 
     @Test
-    @WithMockUser(username = "user@test.com", roles = {"USER"})
+    @WithAuthenticatedUser(id = 1, username = "user@test.com", roles = {"USER"})
     @DisplayName("POST /api/orders/{id}/cancel - Cancelar PENDING devuelve stock")
     void cancelOrder_PendingOrder_ReturnsStock() throws Exception {
         // Given: Crear pedido con iPhone x5 (stock inicial: 25)
@@ -381,7 +754,7 @@ class OrderControllerIntegrationTest extends BaseIntegrationTest {
     }
 
     @Test
-    @WithMockUser(username = "user@test.com", roles = {"USER"})
+    @WithAuthenticatedUser(id = 1, username = "user@test.com", roles = {"USER"})
     @DisplayName("POST /api/orders/{id}/cancel - Cancelar PAID devuelve stock")
     void cancelOrder_PaidOrder_ReturnsStock() throws Exception {
         // Given: Crear y pagar pedido con Samsung x4 (stock inicial: 15)
@@ -391,7 +764,7 @@ class OrderControllerIntegrationTest extends BaseIntegrationTest {
         mockMvc.perform(post("/api/orders/" + orderId + "/pay")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(payRequest)))
-                .andExpect(status().isOk());
+                .andExpect(status().isAccepted());
 
         // Stock después de pagar: 15 - 4 = 11
         mockMvc.perform(get("/api/products/3"))
@@ -410,7 +783,7 @@ class OrderControllerIntegrationTest extends BaseIntegrationTest {
     }
 
     @Test
-    @WithMockUser(username = "user@test.com", roles = {"USER"})
+    @WithAuthenticatedUser(id = 1, username = "user@test.com", roles = {"USER"})
     @DisplayName("POST /api/orders/{id}/cancel - Cancelar 2 veces retorna 409 la segunda vez")
     void cancelOrder_Idempotent_DoesNotReturnStockTwice() throws Exception {
         // Given: Crear y pagar pedido con MacBook x2 (stock inicial: 5)
@@ -420,7 +793,7 @@ class OrderControllerIntegrationTest extends BaseIntegrationTest {
         mockMvc.perform(post("/api/orders/" + orderId + "/pay")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(payRequest)))
-                .andExpect(status().isOk());
+                .andExpect(status().isAccepted());
 
         // Stock después de pagar: 5 - 2 = 3
         mockMvc.perform(get("/api/products/4"))
@@ -444,7 +817,7 @@ class OrderControllerIntegrationTest extends BaseIntegrationTest {
     }
 
     @Test
-    @WithMockUser(username = "user@test.com", roles = {"USER"})
+    @WithAuthenticatedUser(id = 1, username = "user@test.com", roles = {"USER"})
     @DisplayName("POST /api/orders/{id}/cancel - Usuario no puede cancelar pedido ajeno")
     void cancelOrder_OtherUserOrder_ReturnsForbidden() throws Exception {
         // Given: Pedido de admin@test.com
@@ -462,7 +835,7 @@ class OrderControllerIntegrationTest extends BaseIntegrationTest {
     // ========================================
 
     @Test
-    @WithMockUser(username = "admin@test.com", roles = {"ADMIN"})
+    @WithAuthenticatedUser(id = 2, username = "admin@test.com", roles = {"USER", "ADMIN"})
     @DisplayName("PUT /api/orders/{id}/ship - Admin marca pedido como enviado")
     void shipOrder_AsAdmin_ReturnsOk() throws Exception {
         // Given: Crear y pagar pedido
@@ -472,7 +845,7 @@ class OrderControllerIntegrationTest extends BaseIntegrationTest {
         mockMvc.perform(post("/api/orders/" + orderId + "/pay")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(payRequest)))
-                .andExpect(status().isOk());
+                .andExpect(status().isAccepted());
 
         // When: Admin marca como enviado
         mockMvc.perform(put("/api/orders/" + orderId + "/ship"))
@@ -482,7 +855,7 @@ class OrderControllerIntegrationTest extends BaseIntegrationTest {
     }
 
     @Test
-    @WithMockUser(username = "user@test.com", roles = {"USER"})
+    @WithAuthenticatedUser(id = 1, username = "user@test.com", roles = {"USER"})
     @DisplayName("PUT /api/orders/{id}/ship - Usuario no puede marcar como enviado")
     void shipOrder_AsUser_ReturnsForbidden() throws Exception {
         // Given: Crear y pagar pedido
@@ -492,7 +865,7 @@ class OrderControllerIntegrationTest extends BaseIntegrationTest {
         mockMvc.perform(post("/api/orders/" + orderId + "/pay")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(payRequest)))
-                .andExpect(status().isOk());
+                .andExpect(status().isAccepted());
 
         // When: Usuario intenta marcar como enviado
         mockMvc.perform(put("/api/orders/" + orderId + "/ship"))
@@ -502,7 +875,7 @@ class OrderControllerIntegrationTest extends BaseIntegrationTest {
     }
 
     @Test
-    @WithMockUser(username = "admin@test.com", roles = {"ADMIN"})
+    @WithAuthenticatedUser(id = 2, username = "admin@test.com", roles = {"USER", "ADMIN"})
     @DisplayName("PUT /api/orders/{id}/ship - No se puede enviar pedido PENDING")
     void shipOrder_PendingOrder_ReturnsConflict() throws Exception {
         // Given: Crear pedido sin pagar
@@ -516,6 +889,59 @@ class OrderControllerIntegrationTest extends BaseIntegrationTest {
                 .andExpect(jsonPath("$.message").value(containsString("no puede ser enviado")));
     }
 
+    // ========================================
+    // TESTS: ESTADÍSTICAS POR USUARIO
+    // ========================================
+
+    @Test
+    @WithAuthenticatedUser(id = 2, username = "admin@test.com", roles = {"USER", "ADMIN"})
+    @DisplayName("GET /api/orders/stats - Refleja creación, pago, envío y cancelación")
+    void orderStats_TrackEveryTransition() throws Exception {
+        // Given: 3 pedidos de user@test.com: uno enviado, uno pagado y cancelado, uno sin pagar
+        Long shipped = createOrderAsUser("user@test.com", 1L, 1);   // 1299.99
+        Long cancelled = createOrderAsUser("user@test.com", 2L, 1); // 999.99
+        createOrderAsUser("user@test.com", 3L, 1);
+
+        PayOrderRequest payRequest = new PayOrderRequest("credit_card");
+        for (Long orderId : List.of(shipped, cancelled)) {
+            mockMvc.perform(post("/api/orders/" + orderId + "/pay")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(payRequest)))
+                    .andExpect(status().isAccepted());
+        }
+        mockMvc.perform(put("/api/orders/" + shipped + "/ship")).andExpect(status().isOk());
+        mockMvc.perform(post("/api/orders/" + cancelled + "/cancel")).andExpect(status().isOk());
+
+        // When & Then: Admin consulta las estadísticas del usuario
+        mockMvc.perform(get("/api/orders/stats").param("userId", "1"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.userId").value(1))
+                .andExpect(jsonPath("$.totalOrders").value(3))
+                .andExpect(jsonPath("$.ordersByStatus.CREATED").value(1))
+                .andExpect(jsonPath("$.ordersByStatus.PAID").value(0))
+                .andExpect(jsonPath("$.ordersByStatus.SHIPPED").value(1))
+                .andExpect(jsonPath("$.ordersByStatus.CANCELLED").value(1))
+                .andExpect(jsonPath("$.totalPaid").value(1299.99))
+                .andExpect(jsonPath("$.lastOrderAt").isNotEmpty());
+    }
+
+    @Test
+    @WithAuthenticatedUser(id = 1, username = "user@test.com", roles = {"USER"})
+    @DisplayName("GET /api/orders/stats - Usuario sin pedidos ve ceros y no ve las de otros")
+    void orderStats_AsUser_OwnStatsOnly() throws Exception {
+        mockMvc.perform(get("/api/orders/stats"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.userId").value(1))
+                .andExpect(jsonPath("$.totalOrders").value(0))
+                .andExpect(jsonPath("$.ordersByStatus.CREATED").value(0))
+                .andExpect(jsonPath("$.totalPaid").value(0));
+
+        mockMvc.perform(get("/api/orders/stats").param("userId", "2"))
+                .andExpect(status().isForbidden());
+    }
+
     // ========================================
     // TESTS: SEGURIDAD (401, 403)
     // ========================================
@@ -528,7 +954,7 @@ class OrderControllerIntegrationTest extends BaseIntegrationTest {
     @Test
     @DisplayName("POST /api/orders - Sin autenticación retorna 401")
     void createOrder_Unauthenticated_ReturnsUnauthorized() throws Exception {
-        // Given: Request sin @WithMockUser
+        // Given: Request sin usuario autenticado
         CreateOrderRequest request = new CreateOrderRequest(
                 List.of(new OrderItemRequest(1L, 1)),
                 "Calle Test",
@@ -558,7 +984,7 @@ class OrderControllerIntegrationTest extends BaseIntegrationTest {
     // ========================================
 
     @Test
-    @WithMockUser(username = "user@test.com", roles = {"USER"})
+    @WithAuthenticatedUser(id = 1, username = "user@test.com", roles = {"USER"})
     @DisplayName("FLUJO COMPLETO: Crear → Pagar → Verificar stock → Cancelar → Verificar stock")
     void completeOrderFlow_CreatePayCancel_StockIsCorrect() throws Exception {
         // PASO 1: Verificar stock inicial de Headphones (producto ID: 5, stock inicial: 30)
@@ -574,7 +1000,7 @@ class OrderControllerIntegrationTest extends BaseIntegrationTest {
         mockMvc.perform(post("/api/orders/" + orderId + "/pay")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(payRequest)))
-                .andExpect(status().isOk());
+                .andExpect(status().isAccepted());
 
         // PASO 4: Verificar que el stock se descontó (30 - 10 = 20)
         mockMvc.perform(get("/api/products/5"))
@@ -598,7 +1024,7 @@ class OrderControllerIntegrationTest extends BaseIntegrationTest {
     /**
      * Crea un pedido como un usuario específico y retorna su ID.
      */
-    @WithMockUser(username = "user@test.com", roles = {"USER"})
+    @WithAuthenticatedUser(id = 1, username = "user@test.com", roles = {"USER"})
     private Long createOrderAsUser(String username, Long productId, int quantity) throws Exception {
         CreateOrderRequest request = new CreateOrderRequest(
                 List.of(new OrderItemRequest(productId, quantity)),
@@ -608,7 +1034,7 @@ class OrderControllerIntegrationTest extends BaseIntegrationTest {
         );
 
         MvcResult result = mockMvc.perform(post("/api/orders")
-                        .with(org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user(username).roles(getRoles(username)))
+                        .with(org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication(authenticationFor(username)))
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isCreated())
@@ -619,12 +1045,28 @@ class OrderControllerIntegrationTest extends BaseIntegrationTest {
     }
 
     /**
-     * Mapea username a roles.
+     * Autenticación (ID y roles) de los usuarios de test-data.sql
+     */
+    private Authentication authenticationFor(String username) {
+        boolean admin = username.equals("admin@test.com");
+        List<SimpleGrantedAuthority> authorities = admin
+                ? List.of(new SimpleGrantedAuthority("ROLE_USER"), new SimpleGrantedAuthority("ROLE_ADMIN"))
+                : List.of(new SimpleGrantedAuthority("ROLE_USER"));
+        AuthenticatedUser user = AuthenticatedUser.fromToken(admin ? 2L : 1L, username, authorities);
+        return new UsernamePasswordAuthenticationToken(user, null, authorities);
+    }
+
+    /**
+     * Espera a que el stream SSE (escrito desde otro hilo) contenga el texto indicado
      */
-    private String[] getRoles(String username) {
-        if (username.equals("admin@test.com")) {
-            return new String[]{"USER", "ADMIN"};
+    private String awaitStreamContent(MvcResult stream, String expected) throws Exception {
+        for (int i = 0; i < 50; i++) {
+            String body = stream.getResponse().getContentAsString();
+            if (body.contains(expected)) {
+                return body;
+            }
+            Thread.sleep(100);
         }
-        return new String[]{"USER"};
+        throw new AssertionError("El stream no recibió '" + expected + "': " + stream.getResponse().getContentAsString());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,110 @@
+package com.ordersystem.api.product;
+
+import com.ordersystem.api.BaseIntegrationTest;
+import com.ordersystem.api.product.dto.UpdateProductRequest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Tests de integración para ProductController.
+ *
+ * Cobertura:
+ * 1. Catálogo activo pre-serializado (ETag / If-None-Match)
+ * 2. Variante gzip del catálogo activo
+ * 3. Invalidación del catálogo al modificar un producto
+ */
+@DisplayName("ProductController - Integration Tests")
+class ProductControllerIntegrationTest extends BaseIntegrationTest {
+
+    // ========================================
+    // TESTS: CATÁLOGO ACTIVO
+    // ========================================
+
+    @Test
+    @DisplayName("GET /api/products/active - Devuelve los productos activos con ETag")
+    void getActiveProducts_ReturnsActiveProductsWithEtag() throws Exception {
+        mockMvc.perform(get("/api/products/active"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(jsonPath("$", hasSize(9))) // 10 productos, 1 inactivo
+                .andExpect(jsonPath("$[*].active", everyItem(is(true))));
+    }
+
+    @Test
+    @DisplayName("GET /api/products/active - If-None-Match con el ETag vigente retorna 304")
+    void getActiveProducts_MatchingEtag_ReturnsNotModified() throws Exception {
+        String etag = mockMvc.perform(get("/api/products/active"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/products/active").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andDo(print())
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    @DisplayName("GET /api/products/active - Con Accept-Encoding gzip devuelve el mismo JSON comprimido")
+    void getActiveProducts_AcceptGzip_ReturnsCompressedBody() throws Exception {
+        String plain = mockMvc.perform(get("/api/products/active"))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        MvcResult result = mockMvc.perform(get("/api/products/active")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn();
+
+        byte[] compressed = result.getResponse().getContentAsByteArray();
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            assertThat(new String(gzip.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(plain);
+        }
+    }
+
+    @Test
+    @WithMockUser(username = "admin@test.com", roles = {"ADMIN"})
+    @DisplayName("GET /api/products/active - Modificar un producto cambia el ETag")
+    void getActiveProducts_AfterUpdate_ReturnsNewSnapshot() throws Exception {
+        String etag = mockMvc.perform(get("/api/products/active"))
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+
+        // When: Admin actualiza el stock de un producto
+        UpdateProductRequest request = new UpdateProductRequest(
+                "Laptop Dell XPS 13", "High-performance ultrabook",
+                new BigDecimal("1299.99"), "USD", 3, true);
+        mockMvc.perform(put("/api/products/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk());
+
+        // Then: El ETag anterior ya no es válido y el catálogo refleja el cambio
+        mockMvc.perform(get("/api/products/active").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(etag)))
+                .andExpect(jsonPath("$[?(@.id == 1)].stock", contains(3)));
+    }
+}
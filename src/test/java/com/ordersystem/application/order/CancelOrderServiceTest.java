@@ -3,10 +3,11 @@ package com.ordersystem.application.order;
 import com.ordersystem.domain.enums.OrderStatus;
 import com.ordersystem.domain.model.Order;
 import com.ordersystem.domain.model.OrderItem;
-import com.ordersystem.domain.model.Product;
 import com.ordersystem.domain.model.valueobject.Money;
 import com.ordersystem.domain.repository.OrderRepository;
 import com.ordersystem.domain.repository.ProductRepository;
+import com.ordersystem.domain.repository.UserOrderStatsRepository;
+import com.ordersystem.infrastructure.cache.ProductCatalogCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -14,10 +15,14 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
 
 import java.math.BigDecimal;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -27,6 +32,7 @@ import static org.mockito.Mockito.*;
 /**
  * Tests unitarios para CancelOrderService
  * Verifica la devolución de stock según el estado del pedido
+ * y el cambio de estado con UPDATE condicional
  */
 @ExtendWith(MockitoExtension.class)
 @DisplayName("CancelOrderService - Tests Unitarios")
@@ -38,22 +44,28 @@ class CancelOrderServiceTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private UserOrderStatsRepository statsRepository;
+
+    @Mock
+    private OrderEventPublisher eventPublisher;
+
+    @Mock
+    private ProductCatalogCache catalogCache;
+
+    @Mock
+    private OptimisticLockRetry retry;
+
     @InjectMocks
     private CancelOrderService cancelOrderService;
 
     private Order order;
-    private Product product;
     private OrderItem orderItem;
 
     @BeforeEach
     void setUp() {
-        // Preparar producto
-        product = new Product();
-        product.setId(1L);
-        product.setName("Test Product");
-        product.setPrice(Money.usd(new BigDecimal("100.00")));
-        product.setStock(8); // Ya se descontaron 2 unidades
-        product.setActive(true);
+        // El reintento ejecuta la operación directamente (sin transacción)
+        when(retry.execute(any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
 
         // Preparar item del pedido
         orderItem = new OrderItem();
@@ -77,7 +89,7 @@ class CancelOrderServiceTest {
     void shouldCancelCreatedOrderWithoutReturningStock() {
         // Given
         when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
-        when(orderRepository.save(any(Order.class))).thenReturn(order);
+        when(orderRepository.updateStatus(1L, OrderStatus.CREATED, OrderStatus.CANCELLED)).thenReturn(true);
 
         // When
         Order result = cancelOrderService.execute(1L);
@@ -88,9 +100,14 @@ class CancelOrderServiceTest {
 
         // Verificar que NO se devolvió stock (porque estaba CREATED)
         verify(orderRepository, times(1)).findById(1L);
-        verify(orderRepository, times(1)).save(order);
-        verify(productRepository, never()).findById(any());
-        verify(productRepository, never()).save(any());
+        verify(orderRepository, times(1)).updateStatus(1L, OrderStatus.CREATED, OrderStatus.CANCELLED);
+        verify(orderRepository, never()).save(any());
+        verify(statsRepository, times(1)).recordStatusChange(1L, OrderStatus.CREATED, OrderStatus.CANCELLED);
+        verify(eventPublisher, times(1)).publish(argThat(event -> event.orderId().equals(1L)
+                && event.userId().equals(1L)
+                && event.previousStatus() == OrderStatus.CREATED
+                && event.status() == OrderStatus.CANCELLED));
+        verify(productRepository, never()).adjustStock(any());
     }
 
     @Test
@@ -99,9 +116,8 @@ class CancelOrderServiceTest {
         // Given
         order.setStatus(OrderStatus.PAID);
         when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
-        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
-        when(productRepository.save(any(Product.class))).thenReturn(product);
-        when(orderRepository.save(any(Order.class))).thenReturn(order);
+        when(orderRepository.updateStatus(1L, OrderStatus.PAID, OrderStatus.CANCELLED)).thenReturn(true);
+        when(productRepository.adjustStock(Map.of(1L, 2))).thenReturn(List.of());
 
         // When
         Order result = cancelOrderService.execute(1L);
@@ -109,12 +125,20 @@ class CancelOrderServiceTest {
         // Then
         assertThat(result).isNotNull();
         assertThat(result.getStatus()).isEqualTo(OrderStatus.CANCELLED);
-        assertThat(product.getStock()).isEqualTo(10); // 8 + 2 = 10 (stock devuelto)
 
+        // Stock devuelto en un solo lote, sin leer ni guardar el producto
         verify(orderRepository, times(1)).findById(1L);
-        verify(productRepository, times(1)).findById(1L);
-        verify(productRepository, times(1)).save(product);
-        verify(orderRepository, times(1)).save(order);
+        verify(productRepository, times(1)).adjustStock(Map.of(1L, 2));
+        verify(productRepository, never()).findById(any());
+        verify(productRepository, never()).save(any());
+        verify(catalogCache, times(1)).invalidate(1L);
+        verify(orderRepository, times(1)).updateStatus(1L, OrderStatus.PAID, OrderStatus.CANCELLED);
+        verify(orderRepository, never()).save(any());
+        verify(statsRepository, times(1)).recordStatusChange(1L, OrderStatus.PAID, OrderStatus.CANCELLED);
+        verify(eventPublisher, times(1)).publish(argThat(event -> event.orderId().equals(1L)
+                && event.userId().equals(1L)
+                && event.previousStatus() == OrderStatus.PAID
+                && event.status() == OrderStatus.CANCELLED));
     }
 
     @Test
@@ -130,7 +154,7 @@ class CancelOrderServiceTest {
 
         verify(orderRepository, times(1)).findById(1L);
         verify(orderRepository, never()).save(any());
-        verify(productRepository, never()).findById(any());
+        verify(productRepository, never()).adjustStock(any());
     }
 
     @Test
@@ -147,7 +171,7 @@ class CancelOrderServiceTest {
 
         verify(orderRepository, times(1)).findById(1L);
         verify(orderRepository, never()).save(any());
-        verify(productRepository, never()).findById(any());
+        verify(productRepository, never()).adjustStock(any());
     }
 
     @Test
@@ -164,7 +188,7 @@ class CancelOrderServiceTest {
 
         verify(orderRepository, times(1)).findById(1L);
         verify(orderRepository, never()).save(any());
-        verify(productRepository, never()).findById(any());
+        verify(productRepository, never()).adjustStock(any());
     }
 
     @Test
@@ -173,29 +197,38 @@ class CancelOrderServiceTest {
         // Given
         order.setStatus(OrderStatus.PAID);
         when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
-        when(productRepository.findById(1L)).thenReturn(Optional.empty());
+        when(orderRepository.updateStatus(1L, OrderStatus.PAID, OrderStatus.CANCELLED)).thenReturn(true);
+        when(productRepository.adjustStock(Map.of(1L, 2))).thenReturn(List.of(1L));
 
         // When & Then
         assertThatThrownBy(() -> cancelOrderService.execute(1L))
                 .isInstanceOf(RuntimeException.class)
-                .hasMessageContaining("Producto no encontrado");
+                .hasMessageContaining("Producto no encontrado: 1");
 
         verify(orderRepository, times(1)).findById(1L);
-        verify(productRepository, times(1)).findById(1L);
-        verify(productRepository, never()).save(any());
+        verify(productRepository, times(1)).adjustStock(Map.of(1L, 2));
         verify(orderRepository, never()).save(any());
     }
 
+    @Test
+    @DisplayName("Debe reintentar si otra operación cambió el estado del pedido, sin devolver stock")
+    void shouldFailWhenStatusChangedConcurrently() {
+        // Given: el pedido se leyó PAID, pero el UPDATE condicional ya no lo encuentra en ese estado
+        order.setStatus(OrderStatus.PAID);
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+        when(orderRepository.updateStatus(1L, OrderStatus.PAID, OrderStatus.CANCELLED)).thenReturn(false);
+
+        // When & Then: la excepción la reintenta OptimisticLockRetry
+        assertThatThrownBy(() -> cancelOrderService.execute(1L))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+
+        verify(productRepository, never()).adjustStock(any());
+    }
+
     @Test
     @DisplayName("Debe devolver stock correctamente con múltiples items")
     void shouldReturnStockCorrectlyWithMultipleItems() {
         // Given
-        Product product2 = new Product();
-        product2.setId(2L);
-        product2.setName("Test Product 2");
-        product2.setStock(5);
-        product2.setActive(true);
-
         OrderItem orderItem2 = new OrderItem();
         orderItem2.setId(2L);
         orderItem2.setProductId(2L);
@@ -205,19 +238,18 @@ class CancelOrderServiceTest {
         order.setItems(java.util.Arrays.asList(orderItem, orderItem2));
 
         when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
-        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
-        when(productRepository.findById(2L)).thenReturn(Optional.of(product2));
-        when(productRepository.save(any(Product.class))).thenAnswer(invocation -> invocation.getArgument(0));
-        when(orderRepository.save(any(Order.class))).thenReturn(order);
+        when(orderRepository.updateStatus(1L, OrderStatus.PAID, OrderStatus.CANCELLED)).thenReturn(true);
+        when(productRepository.adjustStock(Map.of(1L, 2, 2L, 3))).thenReturn(List.of());
 
         // When
         Order result = cancelOrderService.execute(1L);
 
         // Then
         assertThat(result.getStatus()).isEqualTo(OrderStatus.CANCELLED);
-        assertThat(product.getStock()).isEqualTo(10);  // 8 + 2 = 10
-        assertThat(product2.getStock()).isEqualTo(8);  // 5 + 3 = 8
 
-        verify(productRepository, times(2)).save(any(Product.class));
+        // Un único lote con todas las líneas
+        verify(productRepository, times(1)).adjustStock(Map.of(1L, 2, 2L, 3));
+        verify(catalogCache).invalidate(1L);
+        verify(catalogCache).invalidate(2L);
     }
-}
\ No newline at end of file
+}
@@ -8,6 +8,7 @@ import com.ordersystem.domain.model.Product;
 import com.ordersystem.domain.model.valueobject.Money;
 import com.ordersystem.domain.repository.OrderRepository;
 import com.ordersystem.domain.repository.ProductRepository;
+import com.ordersystem.domain.repository.UserOrderStatsRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -23,6 +24,7 @@ import java.util.Optional;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
@@ -39,6 +41,12 @@ class CreateOrderServiceTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private UserOrderStatsRepository statsRepository;
+
+    @Mock
+    private OrderEventPublisher eventPublisher;
+
     @InjectMocks
     private CreateOrderService createOrderService;
 
@@ -89,6 +97,11 @@ class CreateOrderServiceTest {
 
         verify(productRepository, times(1)).findById(1L);
         verify(orderRepository, times(1)).save(any(Order.class));
+        verify(statsRepository, times(1)).recordOrderCreated(eq(1L), any());
+        verify(eventPublisher, times(1)).publish(argThat(event -> event.orderId().equals(1L)
+                && event.userId().equals(1L)
+                && event.previousStatus() == null
+                && event.status() == OrderStatus.CREATED));
     }
 
     @Test
@@ -105,6 +118,8 @@ class CreateOrderServiceTest {
 
         verify(productRepository, times(1)).findById(1L);
         verify(orderRepository, never()).save(any(Order.class));
+        verify(statsRepository, never()).recordOrderCreated(any(), any());
+        verify(eventPublisher, never()).publish(any());
     }
 
     @Test
@@ -0,0 +1,56 @@
+package com.ordersystem.application.order;
+
+import com.ordersystem.api.BaseIntegrationTest;
+import com.ordersystem.domain.repository.IdempotencyKeyRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests de integración para IdempotencyKeyCleanup.
+ *
+ * Verifica que se borran en lotes solo las claves más antiguas que la ventana de reintento.
+ */
+@DisplayName("IdempotencyKeyCleanup - Integration Tests")
+class IdempotencyKeyCleanupIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Borra en lotes las claves fuera de la ventana de reintento y conserva las recientes")
+    void purgeExpired_DeletesOnlyKeysOlderThanRetention() {
+        // Given: tres claves de hace 8 días y una de hace 6 días (ventana de 7 días)
+        LocalDateTime now = LocalDateTime.now();
+        insertKey("old-1", now.minusDays(8));
+        insertKey("old-2", now.minusDays(8));
+        insertKey("old-3", now.minusDays(8));
+        insertKey("recent", now.minusDays(6));
+        IdempotencyKeyCleanup cleanup = new IdempotencyKeyCleanup(idempotencyKeyRepository, Duration.ofDays(7), 2);
+
+        // When: lotes de 2 (dos sentencias)
+        int deleted = cleanup.purgeExpired();
+
+        // Then
+        assertThat(deleted).isEqualTo(3);
+        assertThat(jdbcTemplate.queryForList("SELECT idempotency_key FROM idempotency_keys", String.class))
+                .isEqualTo(List.of("recent"));
+        assertThat(idempotencyKeyRepository.find(1L, "recent")).isPresent();
+    }
+
+    private void insertKey(String key, LocalDateTime createdAt) {
+        jdbcTemplate.update("INSERT INTO idempotency_keys (user_id, idempotency_key, request_hash, created_at) "
+                + "VALUES (1, ?, 'hash', ?)", key, Timestamp.valueOf(createdAt));
+    }
+}
@@ -0,0 +1,187 @@
+package com.ordersystem.application.order;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ordersystem.api.order.dto.CreateOrderRequest;
+import com.ordersystem.api.order.dto.OrderItemRequest;
+import com.ordersystem.api.order.dto.OrderResponse;
+import com.ordersystem.domain.enums.OrderStatus;
+import com.ordersystem.domain.exception.IdempotencyKeyReusedException;
+import com.ordersystem.domain.model.IdempotencyRecord;
+import com.ordersystem.domain.model.Order;
+import com.ordersystem.domain.repository.IdempotencyKeyRepository;
+import com.ordersystem.infrastructure.cache.IdempotencyKeyCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para IdempotentCreateOrderService
+ * Verifica el orden caché → tabla → creación y la resolución de claves duplicadas
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("IdempotentCreateOrderService - Tests Unitarios")
+class IdempotentCreateOrderServiceTest {
+
+    private static final String KEY = "pedido-123";
+
+    @Mock
+    private CreateOrderService createOrderService;
+
+    @Mock
+    private OrderQueryService orderQueryService;
+
+    @Mock
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    // Sin transacción real: TransactionTemplate solo llama a getTransaction/commit/rollback
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private IdempotentCreateOrderService service;
+    private CreateOrderRequest request;
+    private OrderResponse response;
+
+    @BeforeEach
+    void setUp() {
+        IdempotencyKeyCache cache = new IdempotencyKeyCache(
+                new SimpleMeterRegistry(), 100, Duration.ofMinutes(10));
+        service = new IdempotentCreateOrderService(createOrderService, orderQueryService,
+                idempotencyKeyRepository, cache, new ObjectMapper(), transactionManager);
+
+        request = new CreateOrderRequest(
+                List.of(new OrderItemRequest(1L, 2)), "Calle Test 123", "Montevideo", "Uruguay");
+        response = new OrderResponse();
+        response.setId(10L);
+    }
+
+    @Test
+    @DisplayName("Debe registrar la clave y crear el pedido en la misma transacción")
+    void shouldReserveKeyAndCreateOrder() {
+        // Given
+        mockOrderCreated();
+
+        // When
+        IdempotentOrderResponse result = service.execute(1L, KEY, request);
+
+        // Then
+        assertThat(result.replayed()).isFalse();
+        assertThat(result.response()).isSameAs(response);
+        verify(idempotencyKeyRepository).reserve(eq(1L), eq(KEY), anyString());
+        verify(idempotencyKeyRepository).assignOrder(1L, KEY, 10L);
+        verify(transactionManager, times(1)).commit(any());
+    }
+
+    @Test
+    @DisplayName("Debe responder un reintento con el pedido actual sin consultar la tabla de claves")
+    void shouldReplayFromCache() {
+        // Given: el pedido ya se creó con esta clave y después se pagó
+        mockOrderCreated();
+        service.execute(1L, KEY, request);
+        clearInvocations(createOrderService, orderQueryService, idempotencyKeyRepository);
+        OrderResponse paid = new OrderResponse();
+        paid.setId(10L);
+        paid.setStatus(OrderStatus.PAID);
+        when(orderQueryService.getOrderById(10L)).thenReturn(paid);
+
+        // When
+        IdempotentOrderResponse result = service.execute(1L, KEY, request);
+
+        // Then: misma respuesta que desde la tabla (estado actual), no la capturada al crear
+        assertThat(result.replayed()).isTrue();
+        assertThat(result.response()).isSameAs(paid);
+        verifyNoInteractions(createOrderService, idempotencyKeyRepository);
+    }
+
+    @Test
+    @DisplayName("Debe responder desde la tabla cuando la clave no está en caché")
+    void shouldReplayFromStoredKey() {
+        // Given: la clave se registró (ej: en otra instancia) con el mismo request
+        String requestHash = captureRequestHash();
+        when(idempotencyKeyRepository.find(1L, KEY)).thenReturn(Optional.of(new IdempotencyRecord(requestHash, 10L)));
+        when(orderQueryService.getOrderById(10L)).thenReturn(response);
+
+        // When
+        IdempotentOrderResponse result = service.execute(1L, KEY, request);
+
+        // Then
+        assertThat(result.replayed()).isTrue();
+        assertThat(result.response()).isSameAs(response);
+        verify(createOrderService, never()).execute(any(), any());
+    }
+
+    @Test
+    @DisplayName("Debe rechazar la misma clave con un pedido distinto")
+    void shouldRejectKeyReusedWithDifferentRequest() {
+        // Given
+        when(idempotencyKeyRepository.find(1L, KEY))
+                .thenReturn(Optional.of(new IdempotencyRecord("otro-hash", 10L)));
+
+        // When & Then
+        assertThatThrownBy(() -> service.execute(1L, KEY, request))
+                .isInstanceOf(IdempotencyKeyReusedException.class)
+                .hasMessageContaining(KEY);
+
+        verify(createOrderService, never()).execute(any(), any());
+        verify(orderQueryService, never()).getOrderById(any());
+    }
+
+    @Test
+    @DisplayName("Debe devolver el pedido del request concurrente que registró la clave primero")
+    void shouldReplayWinnerOfConcurrentDuplicate() {
+        // Given: la clave no existía al buscarla, pero otro request la registró antes del INSERT
+        String requestHash = captureRequestHash();
+        when(idempotencyKeyRepository.find(1L, KEY))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(new IdempotencyRecord(requestHash, 10L)));
+        doThrow(new DataIntegrityViolationException("duplicate key"))
+                .when(idempotencyKeyRepository).reserve(eq(1L), eq(KEY), anyString());
+        when(orderQueryService.getOrderById(10L)).thenReturn(response);
+
+        // When
+        IdempotentOrderResponse result = service.execute(1L, KEY, request);
+
+        // Then: no se creó otro pedido y la transacción se revirtió
+        assertThat(result.replayed()).isTrue();
+        assertThat(result.response()).isSameAs(response);
+        verify(createOrderService, never()).execute(any(), any());
+        verify(transactionManager, times(1)).rollback(any());
+    }
+
+    private void mockOrderCreated() {
+        Order order = new Order();
+        order.setId(10L);
+        when(createOrderService.execute(1L, request)).thenReturn(order);
+        when(orderQueryService.getOrderById(10L)).thenReturn(response);
+    }
+
+    /**
+     * Hash que el servicio calcula para el request (se obtiene de una ejecución con otra clave)
+     */
+    private String captureRequestHash() {
+        mockOrderCreated();
+        service.execute(1L, "otra-clave", request);
+
+        ArgumentCaptor<String> hash = ArgumentCaptor.forClass(String.class);
+        verify(idempotencyKeyRepository).reserve(eq(1L), eq("otra-clave"), hash.capture());
+        clearInvocations(createOrderService, orderQueryService, idempotencyKeyRepository, transactionManager);
+        return hash.getValue();
+    }
+}
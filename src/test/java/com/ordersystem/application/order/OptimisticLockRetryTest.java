@@ -0,0 +1,84 @@
+package com.ordersystem.application.order;
+
+import com.ordersystem.domain.exception.ConcurrentUpdateException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para OptimisticLockRetry
+ * Verifica los reintentos acotados ante conflictos de bloqueo optimista
+ */
+@DisplayName("OptimisticLockRetry - Tests Unitarios")
+class OptimisticLockRetryTest {
+
+    private PlatformTransactionManager transactionManager;
+    private OptimisticLockRetry retry;
+
+    @BeforeEach
+    void setUp() {
+        transactionManager = mock(PlatformTransactionManager.class);
+        retry = new OptimisticLockRetry(transactionManager, 3, Duration.ofMillis(1), Duration.ofMillis(5));
+    }
+
+    @Test
+    @DisplayName("Debe reintentar el conflicto y devolver el resultado del intento exitoso")
+    void shouldRetryAndSucceed() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = retry.execute(() -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw conflict();
+            }
+            return "ok";
+        });
+
+        assertThat(result).isEqualTo("ok");
+        assertThat(attempts).hasValue(3);
+        // Cada intento en su propia transacción
+        verify(transactionManager, times(3)).getTransaction(any());
+    }
+
+    @Test
+    @DisplayName("Debe fallar con ConcurrentUpdateException al agotar los intentos")
+    void shouldGiveUpAfterMaxAttempts() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThatThrownBy(() -> retry.execute(() -> {
+            attempts.incrementAndGet();
+            throw conflict();
+        }))
+                .isInstanceOf(ConcurrentUpdateException.class)
+                .hasCauseInstanceOf(ObjectOptimisticLockingFailureException.class);
+
+        assertThat(attempts).hasValue(3);
+    }
+
+    @Test
+    @DisplayName("No debe reintentar errores que no son de concurrencia")
+    void shouldNotRetryOtherErrors() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThatThrownBy(() -> retry.execute(() -> {
+            attempts.incrementAndGet();
+            throw new RuntimeException("Pedido no encontrado: 1");
+        }))
+                .hasMessageContaining("Pedido no encontrado");
+
+        assertThat(attempts).hasValue(1);
+    }
+
+    private static ObjectOptimisticLockingFailureException conflict() {
+        return new ObjectOptimisticLockingFailureException("OrderEntity", 1L);
+    }
+}
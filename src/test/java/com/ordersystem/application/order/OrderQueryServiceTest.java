@@ -0,0 +1,118 @@
+package com.ordersystem.application.order;
+
+import com.ordersystem.api.order.dto.OrderResponse;
+import com.ordersystem.domain.enums.OrderStatus;
+import com.ordersystem.domain.model.Order;
+import com.ordersystem.domain.model.OrderItem;
+import com.ordersystem.domain.model.Product;
+import com.ordersystem.domain.model.valueobject.Address;
+import com.ordersystem.domain.model.valueobject.Money;
+import com.ordersystem.domain.repository.OrderRepository;
+import com.ordersystem.domain.repository.ProductRepository;
+import com.ordersystem.domain.repository.UserOrderStatsRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para OrderQueryService
+ * Verifica que los nombres de producto se resuelvan en lote
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OrderQueryService - Tests Unitarios")
+class OrderQueryServiceTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private UserOrderStatsRepository statsRepository;
+
+    @InjectMocks
+    private OrderQueryService orderQueryService;
+
+    @Test
+    @DisplayName("Debe resolver los nombres de producto con una sola consulta para todos los pedidos")
+    void shouldResolveProductNamesInOneBatch() {
+        // Given: 2 pedidos que comparten el producto 1
+        Order first = buildOrder(1L, item(1L, 2), item(2L, 1));
+        Order second = buildOrder(2L, item(1L, 1), item(3L, 4));
+        when(orderRepository.findAll()).thenReturn(List.of(first, second));
+        when(productRepository.findAllByIds(Set.of(1L, 2L, 3L))).thenReturn(List.of(
+                product(1L, "Laptop"),
+                product(2L, "Phone"),
+                product(3L, "Tablet")
+        ));
+
+        // When
+        List<OrderResponse> result = orderQueryService.getAllOrders();
+
+        // Then
+        assertThat(result).hasSize(2);
+        assertThat(result.get(0).getItems())
+                .extracting("productName")
+                .containsExactly("Laptop", "Phone");
+        assertThat(result.get(1).getItems())
+                .extracting("productName")
+                .containsExactly("Laptop", "Tablet");
+
+        verify(productRepository, times(1)).findAllByIds(any());
+        verify(productRepository, never()).findById(any());
+    }
+
+    @Test
+    @DisplayName("Debe dejar el nombre vacío si el producto ya no existe")
+    void shouldLeaveNameEmptyWhenProductMissing() {
+        // Given
+        Order order = buildOrder(1L, item(99L, 1));
+        when(orderRepository.findByUserId(1L)).thenReturn(List.of(order));
+        when(productRepository.findAllByIds(Set.of(99L))).thenReturn(List.of());
+
+        // When
+        List<OrderResponse> result = orderQueryService.getUserOrders(1L);
+
+        // Then
+        assertThat(result).hasSize(1);
+        assertThat(result.get(0).getItems().get(0).getProductName()).isNull();
+    }
+
+    private Order buildOrder(Long id, OrderItem... items) {
+        Order order = new Order();
+        order.setId(id);
+        order.setUserId(1L);
+        order.setStatus(OrderStatus.CREATED);
+        order.setAddress(new Address("Calle Test 123", "Montevideo", "Uruguay"));
+        order.setItems(new ArrayList<>(List.of(items)));
+        order.setTotal(order.calculateTotal());
+        return order;
+    }
+
+    private OrderItem item(Long productId, int quantity) {
+        return new OrderItem(productId, quantity, Money.usd(new BigDecimal("10.00")));
+    }
+
+    private Product product(Long id, String name) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setPrice(Money.usd(new BigDecimal("10.00")));
+        product.setStock(10);
+        product.setActive(true);
+        return product;
+    }
+}
@@ -0,0 +1,127 @@
+package com.ordersystem.application.order;
+
+import com.ordersystem.api.BaseIntegrationTest;
+import com.ordersystem.api.order.dto.CreateOrderRequest;
+import com.ordersystem.api.order.dto.OrderItemRequest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test de concurrencia para PayOrderService.
+ *
+ * Varios hilos pagan a la vez pedidos del mismo producto: el stock nunca debe
+ * quedar negativo ni perder descuentos (los pagos sin stock quedan REJECTED).
+ * En el perfil de test cada pago se procesa en el hilo que lo registra. Cada pago corre en su propia transacción
+ * (los datos se commitean; test-data.sql los limpia en el siguiente test).
+ * También verifica que pagar el mismo pedido en paralelo no descuente el stock dos veces.
+ */
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("PayOrderService - Concurrencia")
+class PayOrderConcurrencyIntegrationTest extends BaseIntegrationTest {
+
+    private static final int THREADS = 8;
+    private static final int ORDERS = 20;
+    private static final int STOCK = 10;
+
+    @Autowired
+    private CreateOrderService createOrderService;
+
+    @Autowired
+    private PayOrderService payOrderService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Pagos concurrentes del mismo producto no sobrevenden ni pierden actualizaciones")
+    void concurrentPayments_NeverOversell() throws Exception {
+        // Given: 20 pedidos de 1 unidad de un producto con stock 10
+        jdbcTemplate.update("UPDATE products SET stock = ? WHERE id = 1", STOCK);
+        List<Long> orderIds = new ArrayList<>();
+        for (int i = 0; i < ORDERS; i++) {
+            CreateOrderRequest request = new CreateOrderRequest(
+                    List.of(new OrderItemRequest(1L, 1)), "Calle Test 1", "Montevideo", "Uruguay");
+            orderIds.add(createOrderService.execute(1L, request).getId());
+        }
+
+        // When: Se pagan todos a la vez
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (Long orderId : orderIds) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                payOrderService.execute(orderId, "credit_card");
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Then: Exactamente STOCK pagos aprobados, el resto rechazados por stock, y stock final 0
+        Integer stock = jdbcTemplate.queryForObject("SELECT stock FROM products WHERE id = 1", Integer.class);
+        Integer paidOrders = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM orders WHERE status = 'PAID'", Integer.class);
+        Integer approved = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM payments WHERE status = 'APPROVED'", Integer.class);
+        Integer rejected = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM payments WHERE status = 'REJECTED'", Integer.class);
+
+        assertThat(approved).isEqualTo(STOCK);
+        assertThat(rejected).isEqualTo(ORDERS - STOCK);
+        assertThat(stock).isZero();
+        assertThat(paidOrders).isEqualTo(STOCK);
+    }
+
+    @Test
+    @DisplayName("Pagos concurrentes del mismo pedido registran un solo pago y descuentan stock una vez")
+    void concurrentPaymentsOfSameOrder_DeductStockOnce() throws Exception {
+        // Given: un pedido de 2 unidades del producto 1 (stock 10)
+        CreateOrderRequest request = new CreateOrderRequest(
+                List.of(new OrderItemRequest(1L, 2)), "Calle Test 1", "Montevideo", "Uruguay");
+        Long orderId = createOrderService.execute(1L, request).getId();
+
+        // When: el mismo pedido se paga desde varios hilos a la vez
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Long>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return payOrderService.execute(orderId, "credit_card").getId();
+            }));
+        }
+        start.countDown();
+        List<Long> paymentIds = new ArrayList<>();
+        for (Future<Long> future : futures) {
+            paymentIds.add(future.get(30, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+
+        // Then: todos reciben el mismo pago y el stock se descontó una sola vez
+        Integer stock = jdbcTemplate.queryForObject("SELECT stock FROM products WHERE id = 1", Integer.class);
+        Integer payments = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM payments WHERE order_id = ?", Integer.class, orderId);
+
+        assertThat(paymentIds).containsOnly(paymentIds.get(0));
+        assertThat(payments).isEqualTo(1);
+        assertThat(stock).isEqualTo(STOCK - 2);
+    }
+}
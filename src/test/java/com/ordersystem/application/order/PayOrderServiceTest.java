@@ -5,15 +5,15 @@ import com.ordersystem.domain.enums.PaymentStatus;
 import com.ordersystem.domain.model.Order;
 import com.ordersystem.domain.model.OrderItem;
 import com.ordersystem.domain.model.Payment;
-import com.ordersystem.domain.model.Product;
 import com.ordersystem.domain.model.valueobject.Money;
 import com.ordersystem.domain.repository.OrderRepository;
 import com.ordersystem.domain.repository.PaymentRepository;
-import com.ordersystem.domain.repository.ProductRepository;
+import com.ordersystem.infrastructure.payment.PaymentWorkerPool;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -21,15 +21,19 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.math.BigDecimal;
 import java.util.Collections;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
  * Tests unitarios para PayOrderService
- * Incluye tests de idempotencia y descuento de stock
+ * Verifica el registro del pago PENDING, la idempotencia y el reintento de pagos rechazados
+ * (la autorización y el descuento de stock se prueban en PaymentProcessorTest)
  */
 @ExtendWith(MockitoExtension.class)
 @DisplayName("PayOrderService - Tests Unitarios")
@@ -42,27 +46,29 @@ class PayOrderServiceTest {
     private PaymentRepository paymentRepository;
 
     @Mock
-    private ProductRepository productRepository;
+    private PaymentProcessor paymentProcessor;
+
+    @Mock
+    private PaymentWorkerPool workerPool;
+
+    @Mock
+    private OptimisticLockRetry retry;
+
+    @Mock
+    private Runnable processingTask;
 
     @InjectMocks
     private PayOrderService payOrderService;
 
     private Order order;
-    private Product product;
-    private OrderItem orderItem;
 
     @BeforeEach
     void setUp() {
-        // Preparar producto
-        product = new Product();
-        product.setId(1L);
-        product.setName("Test Product");
-        product.setPrice(Money.usd(new BigDecimal("100.00")));
-        product.setStock(10);
-        product.setActive(true);
+        // El reintento ejecuta la operación directamente (sin transacción)
+        when(retry.execute(any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
 
         // Preparar item del pedido
-        orderItem = new OrderItem();
+        OrderItem orderItem = new OrderItem();
         orderItem.setId(1L);
         orderItem.setProductId(1L);
         orderItem.setQuantity(2);
@@ -79,168 +85,173 @@ class PayOrderServiceTest {
     }
 
     @Test
-    @DisplayName("Debe procesar pago exitosamente y descontar stock")
-    void shouldPayOrderSuccessfullyAndReduceStock() {
+    @DisplayName("Debe registrar el pago PENDING y encolar su procesamiento")
+    void shouldRegisterPendingPaymentAndEnqueueProcessing() {
         // Given
-        when(paymentRepository.existsByOrderId(1L)).thenReturn(false);
         when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
-        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
-        when(productRepository.save(any(Product.class))).thenReturn(product);
-        when(orderRepository.save(any(Order.class))).thenReturn(order);
-        when(paymentRepository.save(any(Payment.class))).thenAnswer(invocation -> {
-            Payment payment = invocation.getArgument(0);
-            payment.setId(1L);
-            return payment;
-        });
+        stubPaymentClaimed();
+        when(paymentProcessor.taskFor(1L)).thenReturn(processingTask);
 
         // When
         Payment result = payOrderService.execute(1L, "credit_card");
 
         // Then
-        assertThat(result).isNotNull();
         assertThat(result.getId()).isEqualTo(1L);
         assertThat(result.getOrderId()).isEqualTo(1L);
-        assertThat(result.getStatus()).isEqualTo(PaymentStatus.APPROVED);
+        assertThat(result.getStatus()).isEqualTo(PaymentStatus.PENDING);
+        assertThat(result.getAmount()).isEqualTo(Money.usd(new BigDecimal("200.00")));
         assertThat(result.getPaymentMethod()).isEqualTo("credit_card");
-        assertThat(result.getTransactionId()).isNotNull();
         assertThat(result.getTransactionId()).startsWith("TXN-");
 
-        // Verificar que se descontó el stock
-        assertThat(product.getStock()).isEqualTo(8); // 10 - 2 = 8
-
-        verify(paymentRepository, times(1)).existsByOrderId(1L);
-        verify(orderRepository, times(1)).findById(1L);
-        verify(productRepository, times(1)).findById(1L);
-        verify(productRepository, times(1)).save(product);
-        verify(orderRepository, times(1)).save(order);
-        verify(paymentRepository, times(1)).save(any(Payment.class));
+        // El request no toca el stock ni el estado del pedido: eso lo hace el worker
+        verify(workerPool, times(1)).submitAfterCommit(processingTask);
+        verify(orderRepository, never()).updateStatus(any(), any(), any());
+        verify(orderRepository, never()).save(any());
     }
 
     @Test
-    @DisplayName("Debe ser idempotente - no procesar pago duplicado")
+    @DisplayName("Debe ser idempotente - devolver el pago existente sin encolarlo de nuevo")
     void shouldBeIdempotent() {
         // Given
-        Payment existingPayment = new Payment();
-        existingPayment.setId(1L);
-        existingPayment.setOrderId(1L);
-        existingPayment.setStatus(PaymentStatus.APPROVED);
+        Payment existingPayment = existingPayment(PaymentStatus.APPROVED);
+        order.setStatus(OrderStatus.PAID);
 
-        when(paymentRepository.existsByOrderId(1L)).thenReturn(true);
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+        when(paymentRepository.insertIfAbsent(any(Payment.class))).thenReturn(Optional.empty());
         when(paymentRepository.findByOrderId(1L)).thenReturn(Optional.of(existingPayment));
 
         // When
         Payment result = payOrderService.execute(1L, "credit_card");
 
         // Then
-        assertThat(result).isNotNull();
-        assertThat(result.getId()).isEqualTo(1L);
+        assertThat(result).isSameAs(existingPayment);
         assertThat(result.getStatus()).isEqualTo(PaymentStatus.APPROVED);
 
         // Verificar que NO se procesó el pago nuevamente
-        verify(paymentRepository, times(1)).existsByOrderId(1L);
-        verify(paymentRepository, times(1)).findByOrderId(1L);
-        verify(orderRepository, never()).findById(any());
-        verify(productRepository, never()).findById(any());
-        verify(paymentRepository, never()).save(any());
+        verify(paymentRepository, times(1)).insertIfAbsent(any(Payment.class));
+        verify(paymentRepository, never()).retryRejected(any(), any(), any());
+        verify(workerPool, never()).submitAfterCommit(any());
     }
 
     @Test
-    @DisplayName("Debe fallar cuando el pedido no existe")
-    void shouldFailWhenOrderNotFound() {
+    @DisplayName("Debe reintentar un pago rechazado con el nuevo medio de pago")
+    void shouldRetryRejectedPayment() {
         // Given
-        when(paymentRepository.existsByOrderId(1L)).thenReturn(false);
-        when(orderRepository.findById(1L)).thenReturn(Optional.empty());
+        Payment rejectedPayment = existingPayment(PaymentStatus.REJECTED);
+        rejectedPayment.setFailureReason("Medio de pago rechazado por la pasarela");
 
-        // When & Then
-        assertThatThrownBy(() -> payOrderService.execute(1L, "credit_card"))
-                .isInstanceOf(RuntimeException.class)
-                .hasMessageContaining("Pedido no encontrado");
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+        when(paymentRepository.insertIfAbsent(any(Payment.class))).thenReturn(Optional.empty());
+        when(paymentRepository.findByOrderId(1L)).thenReturn(Optional.of(rejectedPayment));
+        when(paymentRepository.retryRejected(eq(1L), eq("debit_card"), anyString())).thenReturn(true);
+        when(paymentProcessor.taskFor(1L)).thenReturn(processingTask);
 
-        verify(paymentRepository, times(1)).existsByOrderId(1L);
-        verify(orderRepository, times(1)).findById(1L);
-        verify(productRepository, never()).findById(any());
-        verify(paymentRepository, never()).save(any());
+        // When
+        Payment result = payOrderService.execute(1L, "debit_card");
+
+        // Then: vuelve a PENDING con un nuevo transactionId
+        ArgumentCaptor<String> transactionId = ArgumentCaptor.forClass(String.class);
+        verify(paymentRepository).retryRejected(eq(1L), eq("debit_card"), transactionId.capture());
+        assertThat(transactionId.getValue()).startsWith("TXN-").isNotEqualTo("TXN-old");
+
+        assertThat(result.getStatus()).isEqualTo(PaymentStatus.PENDING);
+        assertThat(result.getPaymentMethod()).isEqualTo("debit_card");
+        assertThat(result.getFailureReason()).isNull();
+        verify(workerPool, times(1)).submitAfterCommit(processingTask);
     }
 
     @Test
-    @DisplayName("Debe fallar cuando el pedido no está en estado CREATED")
-    void shouldFailWhenOrderNotInCreatedStatus() {
+    @DisplayName("No debe reintentar un pago rechazado si el pedido ya no se puede pagar")
+    void shouldNotRetryRejectedPaymentOfCancelledOrder() {
         // Given
-        order.setStatus(OrderStatus.PAID); // Ya está pagado
-        when(paymentRepository.existsByOrderId(1L)).thenReturn(false);
+        order.setStatus(OrderStatus.CANCELLED);
+        Payment rejectedPayment = existingPayment(PaymentStatus.REJECTED);
+
         when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+        when(paymentRepository.insertIfAbsent(any(Payment.class))).thenReturn(Optional.empty());
+        when(paymentRepository.findByOrderId(1L)).thenReturn(Optional.of(rejectedPayment));
 
-        // When & Then
-        assertThatThrownBy(() -> payOrderService.execute(1L, "credit_card"))
-                .isInstanceOf(RuntimeException.class)
-                .hasMessageContaining("no puede ser pagado");
+        // When
+        Payment result = payOrderService.execute(1L, "debit_card");
 
-        verify(paymentRepository, times(1)).existsByOrderId(1L);
-        verify(orderRepository, times(1)).findById(1L);
-        verify(productRepository, never()).findById(any());
-        verify(paymentRepository, never()).save(any());
+        // Then
+        assertThat(result.getStatus()).isEqualTo(PaymentStatus.REJECTED);
+        verify(paymentRepository, never()).retryRejected(any(), any(), any());
+        verify(workerPool, never()).submitAfterCommit(any());
     }
 
     @Test
-    @DisplayName("Debe fallar cuando no hay stock suficiente")
-    void shouldFailWhenInsufficientStock() {
+    @DisplayName("No debe reintentar un pago rechazado cuyo cobro sigue autorizado en la pasarela")
+    void shouldNotRetryRejectedPaymentPendingVoid() {
         // Given
-        product.setStock(1); // Solo hay 1, pero se necesitan 2
-        when(paymentRepository.existsByOrderId(1L)).thenReturn(false);
+        Payment rejectedPayment = existingPayment(PaymentStatus.REJECTED);
+        rejectedPayment.setRetryable(false);
+
         when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
-        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(paymentRepository.insertIfAbsent(any(Payment.class))).thenReturn(Optional.empty());
+        when(paymentRepository.findByOrderId(1L)).thenReturn(Optional.of(rejectedPayment));
 
-        // When & Then
-        assertThatThrownBy(() -> payOrderService.execute(1L, "credit_card"))
-                .isInstanceOf(RuntimeException.class)
-                .hasMessageContaining("Stock insuficiente");
+        // When
+        Payment result = payOrderService.execute(1L, "debit_card");
 
-        verify(paymentRepository, times(1)).existsByOrderId(1L);
-        verify(orderRepository, times(1)).findById(1L);
-        verify(productRepository, times(1)).findById(1L);
-        verify(productRepository, never()).save(any());
-        verify(paymentRepository, never()).save(any());
+        // Then: un nuevo transactionId podría cobrar dos veces
+        assertThat(result.getStatus()).isEqualTo(PaymentStatus.REJECTED);
+        assertThat(result.getTransactionId()).isEqualTo("TXN-old");
+        verify(paymentRepository, never()).retryRejected(any(), any(), any());
+        verify(workerPool, never()).submitAfterCommit(any());
     }
 
     @Test
-    @DisplayName("Debe fallar cuando el producto no existe")
-    void shouldFailWhenProductNotFound() {
+    @DisplayName("Debe fallar cuando el pedido no existe")
+    void shouldFailWhenOrderNotFound() {
         // Given
-        when(paymentRepository.existsByOrderId(1L)).thenReturn(false);
-        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
-        when(productRepository.findById(1L)).thenReturn(Optional.empty());
+        when(orderRepository.findById(1L)).thenReturn(Optional.empty());
 
         // When & Then
         assertThatThrownBy(() -> payOrderService.execute(1L, "credit_card"))
                 .isInstanceOf(RuntimeException.class)
-                .hasMessageContaining("Producto no encontrado");
+                .hasMessageContaining("Pedido no encontrado");
 
-        verify(paymentRepository, times(1)).existsByOrderId(1L);
         verify(orderRepository, times(1)).findById(1L);
-        verify(productRepository, times(1)).findById(1L);
-        verify(paymentRepository, never()).save(any());
+        verify(paymentRepository, never()).insertIfAbsent(any());
+        verify(workerPool, never()).submitAfterCommit(any());
     }
 
     @Test
-    @DisplayName("Debe cambiar el estado del pedido a PAID")
-    void shouldChangeOrderStatusToPaid() {
+    @DisplayName("Debe fallar cuando el pedido no está en estado CREATED")
+    void shouldFailWhenOrderNotInCreatedStatus() {
         // Given
-        when(paymentRepository.existsByOrderId(1L)).thenReturn(false);
+        order.setStatus(OrderStatus.CANCELLED); // Cancelado sin pagar
         when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
-        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
-        when(productRepository.save(any(Product.class))).thenReturn(product);
-        when(orderRepository.save(any(Order.class))).thenReturn(order);
-        when(paymentRepository.save(any(Payment.class))).thenAnswer(invocation -> {
+        stubPaymentClaimed();
+
+        // When & Then: la transacción se revierte junto con el pago registrado
+        assertThatThrownBy(() -> payOrderService.execute(1L, "credit_card"))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("no puede ser pagado");
+
+        verify(paymentRepository, times(1)).insertIfAbsent(any(Payment.class));
+        verify(workerPool, never()).submitAfterCommit(any());
+    }
+
+    /**
+     * El pedido todavía no tiene pago: la inserción condicional lo registra con ID 1
+     */
+    private void stubPaymentClaimed() {
+        when(paymentRepository.insertIfAbsent(any(Payment.class))).thenAnswer(invocation -> {
             Payment payment = invocation.getArgument(0);
             payment.setId(1L);
-            return payment;
+            return Optional.of(payment);
         });
+    }
 
-        // When
-        payOrderService.execute(1L, "credit_card");
-
-        // Then
-        assertThat(order.getStatus()).isEqualTo(OrderStatus.PAID);
-        verify(orderRepository, times(1)).save(order);
+    private Payment existingPayment(PaymentStatus status) {
+        Payment payment = new Payment();
+        payment.setId(1L);
+        payment.setOrderId(1L);
+        payment.setStatus(status);
+        payment.setPaymentMethod("credit_card");
+        payment.setTransactionId("TXN-old");
+        return payment;
     }
-}
\ No newline at end of file
+}
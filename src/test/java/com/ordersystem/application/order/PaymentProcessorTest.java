@@ -0,0 +1,429 @@
+package com.ordersystem.application.order;
+
+import com.ordersystem.domain.enums.OrderStatus;
+import com.ordersystem.domain.enums.PaymentStatus;
+import com.ordersystem.domain.exception.PaymentGatewayException;
+import com.ordersystem.domain.gateway.PaymentGateway;
+import com.ordersystem.domain.gateway.PaymentGatewayResult;
+import com.ordersystem.domain.model.Order;
+import com.ordersystem.domain.model.OrderItem;
+import com.ordersystem.domain.model.Payment;
+import com.ordersystem.domain.model.Product;
+import com.ordersystem.domain.model.valueobject.Money;
+import com.ordersystem.domain.repository.OrderRepository;
+import com.ordersystem.domain.repository.PaymentRepository;
+import com.ordersystem.domain.repository.ProductRepository;
+import com.ordersystem.domain.repository.UserOrderStatsRepository;
+import com.ordersystem.infrastructure.cache.ProductCatalogCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.endsWith;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para PaymentProcessor
+ * Verifica la autorización con reintentos, el descuento de stock al aprobar
+ * y el rechazo (con stock devuelto y cobro anulado) cuando el pedido ya no se puede completar
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PaymentProcessor - Tests Unitarios")
+class PaymentProcessorTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(2);
+    private static final Duration STALE_AFTER = Duration.ofMinutes(5);
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private UserOrderStatsRepository statsRepository;
+
+    @Mock
+    private OrderEventPublisher eventPublisher;
+
+    @Mock
+    private ProductCatalogCache catalogCache;
+
+    @Mock
+    private PaymentGateway gateway;
+
+    @Mock
+    private OptimisticLockRetry retry;
+
+    private SimpleMeterRegistry meterRegistry;
+    private PaymentProcessor paymentProcessor;
+    private Order order;
+    private OrderItem orderItem;
+    private Payment payment;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        paymentProcessor = new PaymentProcessor(paymentRepository, orderRepository, productRepository,
+                statsRepository, eventPublisher, catalogCache, gateway, retry, meterRegistry,
+                TIMEOUT, 3, Duration.ZERO, 4, STALE_AFTER);
+
+        // Preparar item del pedido
+        orderItem = new OrderItem();
+        orderItem.setId(1L);
+        orderItem.setProductId(1L);
+        orderItem.setQuantity(2);
+        orderItem.setUnitPrice(Money.usd(new BigDecimal("100.00")));
+        orderItem.setSubtotal(Money.usd(new BigDecimal("200.00")));
+
+        // Preparar pedido
+        order = new Order();
+        order.setId(1L);
+        order.setUserId(1L);
+        order.setStatus(OrderStatus.CREATED);
+        order.setTotal(Money.usd(new BigDecimal("200.00")));
+        order.setItems(Collections.singletonList(orderItem));
+
+        // Preparar pago pendiente
+        payment = new Payment();
+        payment.setId(10L);
+        payment.setOrderId(1L);
+        payment.setStatus(PaymentStatus.PENDING);
+        payment.setAmount(Money.usd(new BigDecimal("200.00")));
+        payment.setPaymentMethod("credit_card");
+        payment.setTransactionId("TXN-1");
+    }
+
+    @Test
+    @DisplayName("Debe aprobar el pago, descontar stock y pasar el pedido a PAID")
+    void shouldApprovePaymentAndDeductStock() {
+        // Given
+        stubPendingPayment();
+        stubRetry();
+        when(gateway.authorize(payment, TIMEOUT)).thenReturn(PaymentGatewayResult.approve());
+        when(paymentRepository.updateStatus(10L, PaymentStatus.PENDING, PaymentStatus.APPROVED, null)).thenReturn(true);
+        when(productRepository.adjustStock(Map.of(1L, -2))).thenReturn(List.of());
+        when(orderRepository.updateStatus(1L, OrderStatus.CREATED, OrderStatus.PAID)).thenReturn(true);
+
+        // When
+        paymentProcessor.taskFor(10L).run();
+
+        // Then
+        verify(productRepository, times(1)).adjustStock(Map.of(1L, -2));
+        verify(orderRepository, times(1)).updateStatus(1L, OrderStatus.CREATED, OrderStatus.PAID);
+        verify(statsRepository, times(1)).recordStatusChange(1L, OrderStatus.CREATED, OrderStatus.PAID);
+        verify(eventPublisher, times(1)).publish(argThat(event -> event.orderId().equals(1L)
+                && event.userId().equals(1L)
+                && event.previousStatus() == OrderStatus.CREATED
+                && event.status() == OrderStatus.PAID));
+        verify(catalogCache, times(1)).invalidate(1L);
+        verify(paymentRepository, never()).updateStatus(any(), any(), eq(PaymentStatus.REJECTED), any());
+
+        assertThat(meterRegistry.get("payments.gateway.latency").tag("outcome", "approved").timer().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("payments.processing.latency").tag("status", "APPROVED").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Debe rechazar el pago declinado por la pasarela sin tocar el stock")
+    void shouldRejectDeclinedPayment() {
+        // Given
+        stubPendingPayment();
+        stubRetry();
+        when(gateway.authorize(payment, TIMEOUT))
+                .thenReturn(PaymentGatewayResult.reject("Medio de pago rechazado por la pasarela"));
+        when(paymentRepository.updateStatus(10L, PaymentStatus.PENDING, PaymentStatus.REJECTED,
+                "Medio de pago rechazado por la pasarela")).thenReturn(true);
+
+        // When
+        paymentProcessor.taskFor(10L).run();
+
+        // Then
+        verify(productRepository, never()).adjustStock(any());
+        verify(orderRepository, never()).updateStatus(any(), any(), any());
+        assertThat(meterRegistry.get("payments.processing.latency").tag("status", "REJECTED").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Debe reintentar la autorización ante un timeout de la pasarela")
+    void shouldRetryAfterGatewayTimeout() {
+        // Given
+        stubPendingPayment();
+        stubRetry();
+        when(gateway.authorize(payment, TIMEOUT))
+                .thenThrow(new PaymentGatewayException("Tiempo de espera agotado", true))
+                .thenReturn(PaymentGatewayResult.approve());
+        when(paymentRepository.updateStatus(10L, PaymentStatus.PENDING, PaymentStatus.APPROVED, null)).thenReturn(true);
+        when(productRepository.adjustStock(Map.of(1L, -2))).thenReturn(List.of());
+        when(orderRepository.updateStatus(1L, OrderStatus.CREATED, OrderStatus.PAID)).thenReturn(true);
+
+        // When
+        paymentProcessor.taskFor(10L).run();
+
+        // Then
+        verify(gateway, times(2)).authorize(payment, TIMEOUT);
+        verify(orderRepository, times(1)).updateStatus(1L, OrderStatus.CREATED, OrderStatus.PAID);
+        assertThat(meterRegistry.get("payments.gateway.latency").tag("outcome", "timeout").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Debe anular el cobro y rechazar el pago si la pasarela falla en todos los intentos")
+    void shouldVoidAndRejectWhenGatewayAttemptsAreExhausted() {
+        // Given
+        stubPendingPayment();
+        when(gateway.authorize(payment, TIMEOUT))
+                .thenThrow(new PaymentGatewayException("Error de conexión", false));
+        when(paymentRepository.markRejected(eq(10L), eq(PaymentStatus.PENDING),
+                startsWith("Pasarela de pagos no disponible"), eq(true))).thenReturn(true);
+
+        // When
+        paymentProcessor.taskFor(10L).run();
+
+        // Then: el resultado es desconocido, solo se rechaza (reintentable) tras anular el transactionId
+        verify(gateway, times(3)).authorize(payment, TIMEOUT);
+        verify(gateway, times(1)).voidAuthorization(payment, TIMEOUT);
+        verify(paymentRepository, times(1)).markRejected(eq(10L), eq(PaymentStatus.PENDING),
+                endsWith("Cobro anulado en la pasarela"), eq(true));
+        verify(productRepository, never()).adjustStock(any());
+        assertThat(meterRegistry.get("payments.processing.latency").tag("status", "REJECTED").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Debe dejar el pago PENDING si la pasarela falla en todos los intentos y no se puede anular")
+    void shouldKeepPaymentPendingWhenOutcomeIsUnknownAndVoidFails() {
+        // Given
+        stubPendingPayment();
+        when(gateway.authorize(payment, TIMEOUT))
+                .thenThrow(new PaymentGatewayException("La pasarela no respondió", true));
+        doThrow(new PaymentGatewayException("Error temporal de la pasarela", false))
+                .when(gateway).voidAuthorization(payment, TIMEOUT);
+
+        // When
+        paymentProcessor.taskFor(10L).run();
+
+        // Then: la recuperación lo reintentará con el mismo transactionId
+        verify(gateway, times(3)).voidAuthorization(payment, TIMEOUT);
+        verify(paymentRepository, never()).markRejected(any(), any(), any(), anyBoolean());
+        verify(paymentRepository, never()).updateStatus(any(), any(), any(), any());
+        verify(retry, never()).execute(any());
+    }
+
+    @AfterEach
+    void tearDown() {
+        paymentProcessor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Debe cortar por timeout una llamada a la pasarela que no respeta el timeout")
+    void shouldEnforceTimeoutWhenGatewayDoesNotRespondInTime() {
+        // Given: la pasarela tarda mucho más que el timeout configurado
+        paymentProcessor = new PaymentProcessor(paymentRepository, orderRepository, productRepository,
+                statsRepository, eventPublisher, catalogCache, gateway, retry, meterRegistry,
+                Duration.ofMillis(50), 2, Duration.ZERO, 4, STALE_AFTER);
+        stubPendingPayment();
+        when(gateway.authorize(payment, Duration.ofMillis(50))).thenAnswer(invocation -> {
+            Thread.sleep(10_000);
+            return PaymentGatewayResult.approve();
+        });
+        when(paymentRepository.markRejected(eq(10L), eq(PaymentStatus.PENDING),
+                startsWith("Pasarela de pagos no disponible: La pasarela no respondió en 50 ms"), eq(true)))
+                .thenReturn(true);
+
+        // When
+        long start = System.nanoTime();
+        paymentProcessor.taskFor(10L).run();
+
+        // Then: dos intentos cortados por el procesador, sin esperar la respuesta
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(5));
+        verify(gateway, times(2)).authorize(payment, Duration.ofMillis(50));
+        assertThat(meterRegistry.get("payments.gateway.latency")
+                .tags("operation", "authorize", "outcome", "timeout").timer().count()).isEqualTo(2);
+        verify(productRepository, never()).adjustStock(any());
+    }
+
+    @Test
+    @DisplayName("Debe rechazar el pago, devolver el stock descontado y anular el cobro si falta stock de un producto")
+    void shouldRejectAndRestoreStockWhenStockIsInsufficient() {
+        // Given
+        OrderItem orderItem2 = new OrderItem();
+        orderItem2.setId(2L);
+        orderItem2.setProductId(2L);
+        orderItem2.setQuantity(3);
+        order.setItems(Arrays.asList(orderItem, orderItem2));
+
+        stubPendingPayment();
+        stubRetry();
+        when(gateway.authorize(payment, TIMEOUT)).thenReturn(PaymentGatewayResult.approve());
+        when(paymentRepository.updateStatus(10L, PaymentStatus.PENDING, PaymentStatus.APPROVED, null)).thenReturn(true);
+        when(productRepository.adjustStock(Map.of(1L, -2, 2L, -3))).thenReturn(List.of(2L));
+        when(productRepository.findById(2L)).thenReturn(Optional.of(
+                new Product(2L, "Mouse", "Mouse inalámbrico", Money.usd(new BigDecimal("50.00")), 1, true, 0L)));
+
+        // When
+        paymentProcessor.taskFor(10L).run();
+
+        // Then: se devuelve solo lo descontado (producto 1) y el pago queda REJECTED con el motivo
+        verify(productRepository, times(1)).adjustStock(Map.of(1L, 2));
+        verify(paymentRepository, times(1)).markRejected(eq(10L), eq(PaymentStatus.APPROVED),
+                contains("Stock insuficiente para el producto 'Mouse'"), eq(false));
+        verify(gateway, times(1)).voidAuthorization(payment, TIMEOUT);
+        verify(paymentRepository, times(1)).markRejected(eq(10L), eq(PaymentStatus.REJECTED),
+                endsWith("Cobro anulado en la pasarela"), eq(true));
+        verify(orderRepository, never()).updateStatus(any(), any(), any());
+        verify(statsRepository, never()).recordStatusChange(any(), any(), any());
+        verify(eventPublisher, never()).publish(any());
+    }
+
+    @Test
+    @DisplayName("Debe rechazar el pago, devolver el stock y anular el cobro si el pedido se canceló durante la autorización")
+    void shouldRejectWhenOrderCancelledDuringAuthorization() {
+        // Given
+        stubPendingPayment();
+        stubRetry();
+        when(gateway.authorize(payment, TIMEOUT)).thenReturn(PaymentGatewayResult.approve());
+        when(paymentRepository.updateStatus(10L, PaymentStatus.PENDING, PaymentStatus.APPROVED, null)).thenReturn(true);
+        when(productRepository.adjustStock(Map.of(1L, -2))).thenReturn(List.of());
+        when(orderRepository.updateStatus(1L, OrderStatus.CREATED, OrderStatus.PAID)).thenReturn(false);
+
+        // When
+        paymentProcessor.taskFor(10L).run();
+
+        // Then
+        verify(productRepository, times(1)).adjustStock(Map.of(1L, 2));
+        verify(paymentRepository, times(1)).markRejected(10L, PaymentStatus.APPROVED,
+                "El pedido ya no puede ser pagado. Anulando el cobro", false);
+        verify(gateway, times(1)).voidAuthorization(payment, TIMEOUT);
+        verify(paymentRepository, times(1)).markRejected(10L, PaymentStatus.REJECTED,
+                "El pedido ya no puede ser pagado. Cobro anulado en la pasarela", true);
+        verify(statsRepository, never()).recordStatusChange(any(), any(), any());
+        verify(eventPublisher, never()).publish(any());
+    }
+
+    @Test
+    @DisplayName("Debe marcar el pago para reembolso manual si no se puede anular el cobro")
+    void shouldFlagManualRefundWhenVoidAttemptsAreExhausted() {
+        // Given
+        stubPendingPayment();
+        stubRetry();
+        when(gateway.authorize(payment, TIMEOUT)).thenReturn(PaymentGatewayResult.approve());
+        when(paymentRepository.updateStatus(10L, PaymentStatus.PENDING, PaymentStatus.APPROVED, null)).thenReturn(true);
+        when(productRepository.adjustStock(Map.of(1L, -2))).thenReturn(List.of());
+        when(orderRepository.updateStatus(1L, OrderStatus.CREATED, OrderStatus.PAID)).thenReturn(false);
+        doThrow(new PaymentGatewayException("Error temporal de la pasarela", false))
+                .when(gateway).voidAuthorization(payment, TIMEOUT);
+
+        // When
+        paymentProcessor.taskFor(10L).run();
+
+        // Then
+        verify(gateway, times(3)).voidAuthorization(payment, TIMEOUT);
+        verify(paymentRepository, times(1)).markRejected(10L, PaymentStatus.REJECTED,
+                "El pedido ya no puede ser pagado. Anulación fallida: requiere reembolso manual", false);
+        assertThat(meterRegistry.get("payments.gateway.latency")
+                .tags("operation", "void", "outcome", "error").timer().count()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("No debe procesar un pago que ya no está PENDING")
+    void shouldSkipPaymentAlreadyProcessed() {
+        // Given
+        payment.setStatus(PaymentStatus.APPROVED);
+        when(paymentRepository.findById(10L)).thenReturn(Optional.of(payment));
+
+        // When
+        paymentProcessor.taskFor(10L).run();
+
+        // Then
+        verify(gateway, never()).authorize(any(), any());
+        verify(paymentRepository, never()).updateStatus(any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("No debe procesar un pago que otro worker ya reservó")
+    void shouldSkipPaymentClaimedByAnotherWorker() {
+        // Given: la recuperación de pendientes encoló el pago mientras otro worker lo procesaba
+        when(paymentRepository.findById(10L)).thenReturn(Optional.of(payment));
+        when(paymentRepository.claim(eq(10L), any())).thenReturn(false);
+
+        // When
+        paymentProcessor.taskFor(10L).run();
+
+        // Then
+        verify(gateway, never()).authorize(any(), any());
+        verify(paymentRepository, never()).updateStatus(any(), any(), any(), any());
+        verify(paymentRepository, never()).markRejected(any(), any(), any(), anyBoolean());
+    }
+
+    @Test
+    @DisplayName("No debe llamar a la pasarela si el pedido ya no se puede pagar")
+    void shouldRejectWithoutGatewayWhenOrderIsNotPayable() {
+        // Given
+        order.setStatus(OrderStatus.CANCELLED);
+        stubPendingPayment();
+        stubRetry();
+        when(paymentRepository.updateStatus(10L, PaymentStatus.PENDING, PaymentStatus.REJECTED,
+                "El pedido ya no puede ser pagado")).thenReturn(true);
+
+        // When
+        paymentProcessor.taskFor(10L).run();
+
+        // Then
+        verify(gateway, never()).authorize(any(), any());
+        verify(productRepository, never()).adjustStock(any());
+    }
+
+    @Test
+    @DisplayName("No debe descontar stock si otro worker ya registró el resultado")
+    void shouldNotDeductStockWhenAnotherWorkerCompletedThePayment() {
+        // Given
+        stubPendingPayment();
+        stubRetry();
+        when(gateway.authorize(payment, TIMEOUT)).thenReturn(PaymentGatewayResult.approve());
+        when(paymentRepository.updateStatus(10L, PaymentStatus.PENDING, PaymentStatus.APPROVED, null)).thenReturn(false);
+
+        // When
+        paymentProcessor.taskFor(10L).run();
+
+        // Then
+        verify(productRepository, never()).adjustStock(any());
+        verify(orderRepository, never()).updateStatus(any(), any(), any());
+        assertThat(meterRegistry.find("payments.processing.latency").timer()).isNull();
+    }
+
+    private void stubPendingPayment() {
+        when(paymentRepository.findById(10L)).thenReturn(Optional.of(payment));
+        when(paymentRepository.claim(eq(10L), any())).thenReturn(true);
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+    }
+
+    private void stubRetry() {
+        // El reintento ejecuta la operación directamente (sin transacción)
+        when(retry.execute(any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
+    }
+}
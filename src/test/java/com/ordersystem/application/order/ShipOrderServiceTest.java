@@ -0,0 +1,90 @@
+package com.ordersystem.application.order;
+
+import com.ordersystem.domain.enums.OrderStatus;
+import com.ordersystem.domain.model.Order;
+import com.ordersystem.domain.repository.OrderRepository;
+import com.ordersystem.domain.repository.UserOrderStatsRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para ShipOrderService
+ * Verifica el cambio de estado condicional y la actualización de las estadísticas
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ShipOrderService - Tests Unitarios")
+class ShipOrderServiceTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private UserOrderStatsRepository statsRepository;
+
+    @Mock
+    private OrderEventPublisher eventPublisher;
+
+    @InjectMocks
+    private ShipOrderService shipOrderService;
+
+    @Test
+    @DisplayName("Debe enviar un pedido PAID sin leerlo")
+    void shouldShipPaidOrder() {
+        // Given
+        when(orderRepository.updateStatus(1L, OrderStatus.PAID, OrderStatus.SHIPPED)).thenReturn(true);
+        when(orderRepository.findUserIdById(1L)).thenReturn(Optional.of(1L));
+
+        // When
+        shipOrderService.execute(1L);
+
+        // Then
+        verify(orderRepository, never()).findById(any());
+        verify(statsRepository, times(1)).recordStatusChange(1L, OrderStatus.PAID, OrderStatus.SHIPPED);
+        verify(eventPublisher, times(1)).publish(argThat(event -> event.orderId().equals(1L)
+                && event.userId().equals(1L)
+                && event.previousStatus() == OrderStatus.PAID
+                && event.status() == OrderStatus.SHIPPED));
+    }
+
+    @Test
+    @DisplayName("Debe fallar con el estado actual cuando el pedido no está PAID")
+    void shouldFailWhenOrderIsNotPaid() {
+        // Given
+        Order order = new Order();
+        order.setId(1L);
+        order.setStatus(OrderStatus.CREATED);
+        when(orderRepository.updateStatus(1L, OrderStatus.PAID, OrderStatus.SHIPPED)).thenReturn(false);
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+
+        // When & Then
+        assertThatThrownBy(() -> shipOrderService.execute(1L))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("no puede ser enviado. Estado actual: CREATED");
+
+        verify(statsRepository, never()).recordStatusChange(any(), any(), any());
+        verify(eventPublisher, never()).publish(any());
+    }
+
+    @Test
+    @DisplayName("Debe fallar cuando el pedido no existe")
+    void shouldFailWhenOrderNotFound() {
+        // Given
+        when(orderRepository.updateStatus(1L, OrderStatus.PAID, OrderStatus.SHIPPED)).thenReturn(false);
+        when(orderRepository.findById(1L)).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThatThrownBy(() -> shipOrderService.execute(1L))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("Pedido no encontrado");
+    }
+}
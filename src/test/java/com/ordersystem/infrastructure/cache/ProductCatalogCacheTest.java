@@ -0,0 +1,126 @@
+package com.ordersystem.infrastructure.cache;
+
+import com.ordersystem.domain.model.Product;
+import com.ordersystem.domain.model.valueobject.Money;
+import com.ordersystem.domain.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para ProductCatalogCache
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ProductCatalogCache - Tests Unitarios")
+class ProductCatalogCacheTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ProductCatalogCache cache;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new ProductCatalogCache(productRepository, meterRegistry, 100, Duration.ofMinutes(1));
+
+        product = new Product(1L, "Laptop", "Ultrabook", Money.usd(new BigDecimal("1000.00")), 10, true, 0L);
+    }
+
+    @Test
+    @DisplayName("Debe leer de la base de datos solo en el primer acceso")
+    void shouldServeRepeatedReadsFromMemory() {
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+
+        cache.findById(1L);
+        cache.findById(1L);
+        Optional<Product> result = cache.findById(1L);
+
+        assertThat(result).isPresent();
+        assertThat(result.get().getName()).isEqualTo("Laptop");
+        verify(productRepository, times(1)).findById(1L);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "product.byId").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Debe volver a la base de datos después de invalidar")
+    void shouldReloadAfterInvalidate() {
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(productRepository.findActiveProducts()).thenReturn(List.of(product));
+
+        cache.findById(1L);
+        cache.findActiveProducts();
+        cache.invalidate(1L);
+        cache.findById(1L);
+        cache.findActiveProducts();
+
+        verify(productRepository, times(2)).findById(1L);
+        verify(productRepository, times(2)).findActiveProducts();
+    }
+
+    @Test
+    @DisplayName("Modificar el producto devuelto no debe alterar la caché")
+    void shouldReturnDefensiveCopies() {
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+
+        cache.findById(1L).orElseThrow().reduceStock(5);
+
+        assertThat(cache.findById(1L).orElseThrow().getStock()).isEqualTo(10);
+    }
+
+    @Test
+    @DisplayName("No debe cachear productos inexistentes")
+    void shouldNotCacheMissingProducts() {
+        when(productRepository.findById(99L)).thenReturn(Optional.empty());
+
+        assertThat(cache.findById(99L)).isEmpty();
+        assertThat(cache.findById(99L)).isEmpty();
+
+        verify(productRepository, times(2)).findById(99L);
+    }
+
+    @Test
+    @DisplayName("Una invalidación durante la carga no debe dejar cacheado el valor anterior")
+    void shouldDiscardLoadRacingWithInvalidate() throws InterruptedException {
+        Product updated = new Product(1L, "Laptop", "Ultrabook", Money.usd(new BigDecimal("900.00")), 10, true, 1L);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(productRepository.findById(1L))
+                .thenAnswer(invocation -> {
+                    // Lectura del valor anterior, demorada hasta después de la invalidación
+                    loading.countDown();
+                    release.await(5, TimeUnit.SECONDS);
+                    return Optional.of(product);
+                })
+                .thenReturn(Optional.of(updated));
+
+        Thread reader = new Thread(() -> cache.findById(1L));
+        reader.start();
+        assertThat(loading.await(1, TimeUnit.SECONDS)).isTrue();
+        Thread writer = new Thread(() -> cache.invalidate(1L));
+        writer.start();
+        Thread.sleep(50);
+        release.countDown();
+        reader.join(1000);
+        writer.join(1000);
+
+        assertThat(cache.findById(1L).orElseThrow().getPrice()).isEqualTo(Money.usd(new BigDecimal("900.00")));
+    }
+}
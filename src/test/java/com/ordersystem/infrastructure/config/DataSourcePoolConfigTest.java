@@ -0,0 +1,29 @@
+package com.ordersystem.infrastructure.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests unitarios para el cálculo del tamaño del pool de conexiones
+ */
+@DisplayName("DataSourcePoolConfig - Tests Unitarios")
+class DataSourcePoolConfigTest {
+
+    @Test
+    @DisplayName("El pool crece con la latencia de la base de datos")
+    void poolSize_ScalesWithLatency() {
+        assertThat(DataSourcePoolConfig.poolSize(4, Duration.ofMillis(5), Duration.ofMillis(1), 50)).isEqualTo(24);
+        assertThat(DataSourcePoolConfig.poolSize(4, Duration.ofMillis(1), Duration.ofMillis(1), 50)).isEqualTo(8);
+    }
+
+    @Test
+    @DisplayName("El pool respeta el máximo configurado y un mínimo de 2 conexiones")
+    void poolSize_IsBounded() {
+        assertThat(DataSourcePoolConfig.poolSize(16, Duration.ofMillis(50), Duration.ofMillis(1), 40)).isEqualTo(40);
+        assertThat(DataSourcePoolConfig.poolSize(1, Duration.ZERO, Duration.ofMillis(1), 50)).isEqualTo(2);
+    }
+}
@@ -0,0 +1,208 @@
+package com.ordersystem.infrastructure.events;
+
+import com.ordersystem.domain.enums.OrderStatus;
+import com.ordersystem.domain.model.OrderEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests unitarios para OrderEventBus
+ * Verifica la entrega en orden a los suscriptores del usuario y la desconexión de consumidores lentos o trabados
+ */
+@DisplayName("OrderEventBus - Tests Unitarios")
+class OrderEventBusTest {
+
+    private static final int BUFFER_SIZE = 2;
+    private static final Duration SEND_TIMEOUT = Duration.ofMillis(100);
+
+    private SimpleMeterRegistry meterRegistry;
+    private OrderEventBus eventBus;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        eventBus = new OrderEventBus(meterRegistry, BUFFER_SIZE, 1, SEND_TIMEOUT);
+    }
+
+    @AfterEach
+    void tearDown() {
+        eventBus.shutdown();
+    }
+
+    @Test
+    @DisplayName("Debe entregar en orden solo los eventos de los pedidos del usuario")
+    void shouldDeliverOwnEventsInOrder() throws InterruptedException {
+        RecordingListener listener = new RecordingListener();
+        eventBus.subscribe(1L, listener);
+
+        eventBus.publish(event(10L, 1L, OrderStatus.PAID));
+        eventBus.publish(event(20L, 2L, OrderStatus.PAID));
+        eventBus.publish(event(10L, 1L, OrderStatus.SHIPPED));
+
+        assertThat(listener.next().status()).isEqualTo(OrderStatus.PAID);
+        assertThat(listener.next().status()).isEqualTo(OrderStatus.SHIPPED);
+        assertThat(listener.events.poll(100, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    @Test
+    @DisplayName("Sin transacción activa debe publicar al momento")
+    void shouldPublishImmediatelyWithoutTransaction() throws InterruptedException {
+        RecordingListener listener = new RecordingListener();
+        eventBus.subscribe(1L, listener);
+
+        eventBus.publishAfterCommit(event(10L, 1L, OrderStatus.CANCELLED));
+
+        assertThat(listener.next().orderId()).isEqualTo(10L);
+    }
+
+    @Test
+    @DisplayName("Debe desconectar al consumidor lento sin bloquear al que publica")
+    void shouldDropSlowConsumer() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingListener slow = new RecordingListener() {
+            @Override
+            public void onEvent(OrderEvent event) throws IOException {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.onEvent(event);
+            }
+        };
+        OrderEventBus.Subscription slowSubscription = eventBus.subscribe(1L, slow);
+
+        // Más eventos de los que caben en el buffer mientras el consumidor lento no avanza
+        for (long orderId = 1; orderId <= BUFFER_SIZE + 2; orderId++) {
+            eventBus.publish(event(orderId, 1L, OrderStatus.PAID));
+        }
+
+        assertThat(slowSubscription.isClosed()).isTrue();
+        assertThat(slow.closed.await(1, TimeUnit.SECONDS)).isTrue();
+        assertThat(meterRegistry.get("order.events.dropped").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("order.events.subscribers").gauge().value()).isZero();
+        release.countDown();
+
+        // Al reconectarse vuelve a recibir eventos
+        RecordingListener reconnected = new RecordingListener();
+        eventBus.subscribe(1L, reconnected);
+        eventBus.publish(event(99L, 1L, OrderStatus.SHIPPED));
+        assertThat(reconnected.next().orderId()).isEqualTo(99L);
+    }
+
+    @Test
+    @DisplayName("Debe cerrar la suscripción con un envío trabado y seguir entregando a las demás")
+    void shouldCloseStalledSubscriptionWithoutStarvingOthers() throws InterruptedException {
+        // Un listener que nunca termina de escribir (cliente que dejó de leer) en el único hilo del bus
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        RecordingListener stuck = new RecordingListener() {
+            @Override
+            public void onEvent(OrderEvent event) throws IOException {
+                sending.countDown();
+                try {
+                    new CountDownLatch(1).await();
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                    throw new IOException("Escritura interrumpida", e);
+                }
+            }
+        };
+        OrderEventBus.Subscription stuckSubscription = eventBus.subscribe(1L, stuck);
+        RecordingListener healthy = new RecordingListener();
+        OrderEventBus.Subscription healthySubscription = eventBus.subscribe(2L, healthy);
+
+        eventBus.publish(event(10L, 1L, OrderStatus.PAID));
+        assertThat(sending.await(1, TimeUnit.SECONDS)).isTrue();
+        eventBus.publish(event(20L, 2L, OrderStatus.PAID));
+        assertThat(healthy.events.poll(50, TimeUnit.MILLISECONDS)).isNull();
+
+        // Antes del plazo no se corta nada
+        eventBus.closeStalledSubscriptions();
+        assertThat(stuckSubscription.isClosed()).isFalse();
+
+        Thread.sleep(SEND_TIMEOUT.toMillis() + 50);
+        eventBus.closeStalledSubscriptions();
+
+        assertThat(stuckSubscription.isClosed()).isTrue();
+        assertThat(interrupted.await(1, TimeUnit.SECONDS)).isTrue();
+        assertThat(healthy.next().orderId()).isEqualTo(20L);
+        assertThat(healthySubscription.isClosed()).isFalse();
+        assertThat(meterRegistry.get("order.events.stalled").counter().count()).isEqualTo(1);
+
+        // El hilo liberado no arrastra la interrupción al siguiente envío
+        eventBus.publish(event(21L, 2L, OrderStatus.SHIPPED));
+        assertThat(healthy.next().orderId()).isEqualTo(21L);
+        assertThat(healthySubscription.isClosed()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Una suscripción cerrada deja de recibir eventos")
+    void shouldStopDeliveringAfterClose() throws InterruptedException {
+        RecordingListener listener = new RecordingListener();
+        OrderEventBus.Subscription subscription = eventBus.subscribe(1L, listener);
+
+        subscription.close();
+        subscription.close();
+        eventBus.publish(event(10L, 1L, OrderStatus.PAID));
+
+        assertThat(listener.closed.getCount()).isZero();
+        assertThat(listener.events.poll(100, TimeUnit.MILLISECONDS)).isNull();
+        assertThat(meterRegistry.get("order.events.subscribers").gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("Debe enviar heartbeats a los suscriptores")
+    void shouldSendHeartbeats() throws InterruptedException {
+        RecordingListener listener = new RecordingListener();
+        eventBus.subscribe(1L, listener);
+
+        eventBus.sendHeartbeats();
+
+        assertThat(listener.heartbeats.await(1, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private static OrderEvent event(Long orderId, Long userId, OrderStatus status) {
+        return OrderEvent.statusChanged(orderId, userId, OrderStatus.CREATED, status);
+    }
+
+    private static class RecordingListener implements OrderEventListener {
+
+        final BlockingQueue<OrderEvent> events = new LinkedBlockingQueue<>();
+        final CountDownLatch heartbeats = new CountDownLatch(1);
+        final CountDownLatch closed = new CountDownLatch(1);
+
+        @Override
+        public void onEvent(OrderEvent event) throws IOException {
+            events.add(event);
+        }
+
+        @Override
+        public void onHeartbeat() {
+            heartbeats.countDown();
+        }
+
+        @Override
+        public void onClose() {
+            closed.countDown();
+        }
+
+        OrderEvent next() throws InterruptedException {
+            OrderEvent event = events.poll(1, TimeUnit.SECONDS);
+            assertThat(event).as("evento recibido").isNotNull();
+            return event;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.ordersystem.infrastructure.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests unitarios para el log de SQL por request
+ * Verifica qué requests quedan marcados y que solo ellos habilitan los loggers de SQL
+ */
+@DisplayName("SqlLogSamplingFilter - Tests Unitarios")
+class SqlLogSamplingFilterTest {
+
+    private final LoggerContext loggerContext = new LoggerContext();
+    private final SqlLogTurboFilter turboFilter = new SqlLogTurboFilter();
+
+    @Test
+    @DisplayName("Con el header habilitado, el request loguea SQL y el MDC se limpia al terminar")
+    void header_EnablesSqlLoggingForTheRequest() throws Exception {
+        SqlLogSamplingFilter filter = new SqlLogSamplingFilter(0, true);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products");
+        request.addHeader(SqlLogSamplingFilter.HEADER, "true");
+        AtomicReference<FilterReply> reply = new AtomicReference<>();
+
+        filter.doFilter(request, new MockHttpServletResponse(),
+                (req, res) -> reply.set(decide("org.hibernate.SQL")));
+
+        assertThat(reply.get()).isEqualTo(FilterReply.ACCEPT);
+        assertThat(MDC.get(SqlLogTurboFilter.MDC_KEY)).isNull();
+    }
+
+    @Test
+    @DisplayName("Sin habilitar, el header se ignora")
+    void header_IgnoredWhenDisabled() throws Exception {
+        SqlLogSamplingFilter filter = new SqlLogSamplingFilter(0, false);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products");
+        request.addHeader(SqlLogSamplingFilter.HEADER, "true");
+        AtomicReference<FilterReply> reply = new AtomicReference<>();
+
+        filter.doFilter(request, new MockHttpServletResponse(),
+                (req, res) -> reply.set(decide("org.hibernate.SQL")));
+
+        assertThat(reply.get()).isEqualTo(FilterReply.NEUTRAL);
+    }
+
+    @Test
+    @DisplayName("Con muestreo total, todos los requests loguean SQL (solo los loggers de SQL)")
+    void sampleRate_MarksRequests() throws Exception {
+        SqlLogSamplingFilter filter = new SqlLogSamplingFilter(1.0, false);
+        AtomicReference<FilterReply> sqlReply = new AtomicReference<>();
+        AtomicReference<FilterReply> otherReply = new AtomicReference<>();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/orders"), new MockHttpServletResponse(),
+                (req, res) -> {
+                    sqlReply.set(decide("org.hibernate.orm.jdbc.bind"));
+                    otherReply.set(decide("com.ordersystem.application"));
+                });
+
+        assertThat(sqlReply.get()).isEqualTo(FilterReply.ACCEPT);
+        assertThat(otherReply.get()).isEqualTo(FilterReply.NEUTRAL);
+    }
+
+    private FilterReply decide(String loggerName) {
+        Logger logger = loggerContext.getLogger(loggerName);
+        return turboFilter.decide(null, logger, Level.DEBUG, "select 1", null, null);
+    }
+}
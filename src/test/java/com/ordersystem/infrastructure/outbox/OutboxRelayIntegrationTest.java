@@ -0,0 +1,116 @@
+package com.ordersystem.infrastructure.outbox;
+
+import com.ordersystem.api.BaseIntegrationTest;
+import com.ordersystem.api.order.dto.CreateOrderRequest;
+import com.ordersystem.api.order.dto.OrderItemRequest;
+import com.ordersystem.application.order.CancelOrderService;
+import com.ordersystem.application.order.CreateOrderService;
+import com.ordersystem.application.order.PayOrderService;
+import com.ordersystem.application.order.ShipOrderService;
+import com.ordersystem.domain.enums.OrderStatus;
+import com.ordersystem.domain.model.OutboxMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Tests de integración para el outbox de eventos de pedidos.
+ *
+ * Verifica que cada cambio de estado registra su evento en la misma transacción
+ * y que OutboxRelay los publica en orden y vacía el outbox.
+ * El relay corre dentro de la transacción del test (sink en memoria, relay programado deshabilitado).
+ */
+@DisplayName("OutboxRelay - Integration Tests")
+class OutboxRelayIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private CreateOrderService createOrderService;
+
+    @Autowired
+    private PayOrderService payOrderService;
+
+    @Autowired
+    private ShipOrderService shipOrderService;
+
+    @Autowired
+    private CancelOrderService cancelOrderService;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private InMemoryOutboxSink sink;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void clearSink() {
+        sink.clear();
+    }
+
+    @Test
+    @DisplayName("Publica en orden los eventos del ciclo de vida del pedido y vacía el outbox")
+    void drain_PublishesLifecycleEventsInOrder() {
+        Long shippedOrderId = createOrder(1L);
+        Long cancelledOrderId = createOrder(1L);
+        payOrderService.execute(shippedOrderId, "credit_card");
+        shipOrderService.execute(shippedOrderId);
+        cancelOrderService.execute(cancelledOrderId);
+
+        int published = outboxRelay.drain();
+
+        assertThat(published).isEqualTo(5);
+        assertThat(sink.published())
+                .extracting(OutboxMessage::eventType)
+                .containsExactly("ORDER_CREATED", "ORDER_CREATED", "ORDER_PAID", "ORDER_SHIPPED", "ORDER_CANCELLED");
+        assertThat(sink.published())
+                .extracting(OutboxMessage::id)
+                .isSorted();
+        assertThat(sink.published())
+                .filteredOn(message -> message.orderId().equals(shippedOrderId))
+                .extracting(OutboxMessage::previousStatus, OutboxMessage::status)
+                .containsExactly(
+                        tuple(null, OrderStatus.CREATED),
+                        tuple(OrderStatus.CREATED, OrderStatus.PAID),
+                        tuple(OrderStatus.PAID, OrderStatus.SHIPPED));
+        assertThat(sink.published()).allMatch(message -> message.userId().equals(1L));
+        assertThat(outboxSize()).isZero();
+
+        // Lo ya publicado no se vuelve a publicar
+        assertThat(outboxRelay.drain()).isZero();
+    }
+
+    @Test
+    @DisplayName("Un cambio de estado rechazado no registra eventos")
+    void rejectedStatusChange_DoesNotAppendEvent() {
+        Long orderId = createOrder(1L);
+
+        assertThatThrownBy(() -> shipOrderService.execute(orderId))
+                .hasMessageContaining("no puede ser enviado");
+
+        assertThat(outboxSize()).isEqualTo(1);
+        outboxRelay.drain();
+        assertThat(sink.published())
+                .extracting(OutboxMessage::eventType)
+                .containsExactly("ORDER_CREATED");
+    }
+
+    private Long createOrder(Long userId) {
+        CreateOrderRequest request = new CreateOrderRequest(
+                List.of(new OrderItemRequest(2L, 1)), "Calle Falsa 123", "Montevideo", "Uruguay");
+        return createOrderService.execute(userId, request).getId();
+    }
+
+    private int outboxSize() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM outbox", Integer.class);
+    }
+}
@@ -0,0 +1,184 @@
+package com.ordersystem.infrastructure.persistence.adapter;
+
+import com.ordersystem.api.BaseIntegrationTest;
+import com.ordersystem.domain.enums.OrderStatus;
+import com.ordersystem.domain.model.Order;
+import com.ordersystem.domain.model.OrderItem;
+import com.ordersystem.domain.model.valueobject.Address;
+import com.ordersystem.domain.model.valueobject.Money;
+import com.ordersystem.domain.repository.OrderRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests de integración para OrderRepositoryAdapter.
+ *
+ * Verifica que las lecturas de pedidos carguen los items en la misma consulta
+ * (la cantidad de sentencias SQL no depende de la cantidad de pedidos),
+ * que un pedido nuevo y todos sus items se insertan en lotes JDBC
+ * (IDs desde secuencias), no con un INSERT por fila, y que los cambios de estado
+ * son un UPDATE condicional.
+ */
+@DisplayName("OrderRepositoryAdapter - Integration Tests")
+class OrderRepositoryAdapterIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void enableStatistics() {
+        statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @Test
+    @DisplayName("findAll ejecuta una sola consulta sin importar la cantidad de pedidos")
+    void findAll_SingleStatementRegardlessOfSize() {
+        assertThat(countStatements(3, () -> orderRepository.findAll())).isEqualTo(1);
+        assertThat(countStatements(20, () -> orderRepository.findAll())).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("findByUserId ejecuta una sola consulta sin importar la cantidad de pedidos")
+    void findByUserId_SingleStatementRegardlessOfSize() {
+        assertThat(countStatements(3, () -> orderRepository.findByUserId(1L))).isEqualTo(1);
+        assertThat(countStatements(20, () -> orderRepository.findByUserId(1L))).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("findById carga el pedido con sus items en una sola consulta")
+    void findById_LoadsItemsInSingleStatement() {
+        Long orderId = orderRepository.save(buildOrder()).getId();
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        Order order = orderRepository.findById(orderId).orElseThrow();
+
+        assertThat(order.getItems()).hasSize(2);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("streamAll recorre cada pedido una sola vez con todos sus items")
+    void streamAll_ReturnsEachOrderOnceWithItems() {
+        for (int i = 0; i < 3; i++) {
+            orderRepository.save(buildOrder());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        List<Order> streamed;
+        try (Stream<Order> orders = orderRepository.streamAll()) {
+            streamed = orders.toList();
+        }
+
+        assertThat(streamed).hasSize(3);
+        assertThat(streamed).allSatisfy(order -> assertThat(order.getItems()).hasSize(2));
+        assertThat(streamed).extracting(Order::getId).isSorted();
+    }
+
+    @Test
+    @DisplayName("save inserta el pedido y sus items en un lote por tabla")
+    void save_InsertsOrderAndItemsInBatches() {
+        // Given: Un primer pedido inicializa las secuencias (reserva el primer bloque de IDs)
+        orderRepository.save(orderWithItems(1));
+        entityManager.flush();
+        Order order = orderWithItems(5);
+
+        statistics.clear();
+
+        // When
+        Order saved = orderRepository.save(order);
+        entityManager.flush();
+
+        // Then: 6 filas; 1 INSERT por tabla (+ a lo sumo una lectura por secuencia si se agotó el bloque)
+        assertThat(saved.getId()).isNotNull();
+        assertThat(saved.getItems()).allSatisfy(item -> assertThat(item.getId()).isNotNull());
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(6);
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("updateStatus cambia el estado una sola vez y versiona el pedido")
+    void updateStatus_OnlyFirstTransitionWins() {
+        // Given
+        Order saved = orderRepository.save(orderWithItems(2));
+        entityManager.flush();
+        Long id = saved.getId();
+        Long version = saved.getVersion();
+
+        // When: Dos transiciones desde CREATED
+        boolean first = orderRepository.updateStatus(id, OrderStatus.CREATED, OrderStatus.PAID);
+        boolean second = orderRepository.updateStatus(id, OrderStatus.CREATED, OrderStatus.CANCELLED);
+
+        // Then: Solo gana la primera; los items no se reescriben
+        assertThat(first).isTrue();
+        assertThat(second).isFalse();
+        Order reloaded = orderRepository.findById(id).orElseThrow();
+        assertThat(reloaded.getStatus()).isEqualTo(OrderStatus.PAID);
+        assertThat(reloaded.getVersion()).isEqualTo(version + 1);
+        assertThat(reloaded.getItems()).hasSize(2);
+        assertThat(orderRepository.updateStatus(999L, OrderStatus.CREATED, OrderStatus.PAID)).isFalse();
+    }
+
+    /**
+     * Crea N pedidos (con 2 items cada uno), limpia el contexto de persistencia
+     * y cuenta las sentencias preparadas por la lectura
+     */
+    private long countStatements(int orders, Supplier<List<Order>> read) {
+        for (int i = 0; i < orders; i++) {
+            orderRepository.save(buildOrder());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        List<Order> result = read.get();
+
+        assertThat(result).allSatisfy(order -> assertThat(order.getItems()).hasSize(2));
+        return statistics.getPrepareStatementCount();
+    }
+
+    private Order buildOrder() {
+        Order order = new Order();
+        order.setUserId(1L);
+        order.setStatus(OrderStatus.CREATED);
+        order.setAddress(new Address("Calle Test 123", "Montevideo", "Uruguay"));
+        order.addItem(new OrderItem(1L, 1, Money.usd(new BigDecimal("1299.99"))));
+        order.addItem(new OrderItem(2L, 2, Money.usd(new BigDecimal("999.99"))));
+        order.setTotal(order.calculateTotal());
+        return order;
+    }
+
+    private Order orderWithItems(int lines) {
+        Order order = new Order();
+        order.setUserId(1L);
+        order.setStatus(OrderStatus.CREATED);
+        order.setAddress(new Address("Calle 1", "Montevideo", "Uruguay"));
+        for (long productId = 1; productId <= lines; productId++) {
+            order.addItem(new OrderItem(productId, 1, Money.usd(new BigDecimal("10.00"))));
+        }
+        order.setTotal(order.calculateTotal());
+        return order;
+    }
+}
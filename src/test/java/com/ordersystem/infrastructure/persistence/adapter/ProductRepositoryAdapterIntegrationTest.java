@@ -0,0 +1,104 @@
+package com.ordersystem.infrastructure.persistence.adapter;
+
+import com.ordersystem.api.BaseIntegrationTest;
+import com.ordersystem.domain.model.Product;
+import com.ordersystem.domain.repository.ProductRepository;
+import com.ordersystem.infrastructure.persistence.entity.ProductEntity;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests de integración para ProductRepositoryAdapter.
+ *
+ * Verifica el ajuste de stock en lote: cada producto se ajusta con un UPDATE
+ * condicional, se informan exactamente los productos que fallaron y solo esos
+ * productos se desasocian del contexto de persistencia.
+ * También verifica el bloqueo optimista al guardar un producto desactualizado.
+ */
+@DisplayName("ProductRepositoryAdapter - Integration Tests")
+class ProductRepositoryAdapterIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    @DisplayName("adjustStock aplica descuentos y devoluciones en el mismo lote")
+    void adjustStock_AppliesAllDeltas() {
+        List<Long> failed = productRepository.adjustStock(Map.of(1L, -3, 2L, 5, 3L, -15));
+
+        assertThat(failed).isEmpty();
+        assertThat(stockOf(1L)).isEqualTo(7);
+        assertThat(stockOf(2L)).isEqualTo(30);
+        assertThat(stockOf(3L)).isZero();
+    }
+
+    @Test
+    @DisplayName("adjustStock informa en orden los productos sin stock, inactivos o inexistentes")
+    void adjustStock_ReportsFailedProducts() {
+        List<Long> failed = productRepository.adjustStock(Map.of(
+                999L, -1,  // No existe
+                10L, -1,   // Inactivo
+                9L, -1,    // Sin stock
+                4L, -6,    // Stock insuficiente (hay 5)
+                1L, -2
+        ));
+
+        assertThat(failed).containsExactly(4L, 9L, 10L, 999L);
+        // Los productos válidos del lote se ajustan; el servicio revierte la transacción si hubo fallos
+        assertThat(stockOf(1L)).isEqualTo(8);
+        assertThat(stockOf(4L)).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("adjustStock permite devolver stock a un producto inactivo")
+    void adjustStock_RestoresStockOfInactiveProduct() {
+        List<Long> failed = productRepository.adjustStock(Map.of(10L, 2));
+
+        assertThat(failed).isEmpty();
+        assertThat(stockOf(10L)).isEqualTo(102);
+    }
+
+    @Test
+    @DisplayName("adjustStock desasocia solo los productos del lote del contexto de persistencia")
+    void adjustStock_DetachesOnlyAdjustedProducts() {
+        ProductEntity adjusted = entityManager.find(ProductEntity.class, 1L);
+        ProductEntity untouched = entityManager.find(ProductEntity.class, 2L);
+
+        productRepository.adjustStock(Map.of(1L, -3));
+
+        assertThat(entityManager.contains(adjusted)).isFalse();
+        assertThat(entityManager.contains(untouched)).isTrue();
+        assertThat(entityManager.find(ProductEntity.class, 1L).getStock()).isEqualTo(7);
+    }
+
+    @Test
+    @DisplayName("save rechaza escribir un producto con versión obsoleta")
+    void save_RejectsStaleVersion() {
+        Product first = productRepository.findById(1L).orElseThrow();
+        Product stale = productRepository.findById(1L).orElseThrow();
+
+        first.setStock(20);
+        productRepository.save(first);
+        entityManager.flush();
+
+        stale.setStock(30);
+        assertThatThrownBy(() -> productRepository.save(stale))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+    }
+
+    private int stockOf(Long productId) {
+        return productRepository.findById(productId).orElseThrow().getStock();
+    }
+}
@@ -0,0 +1,45 @@
+package com.ordersystem.infrastructure.persistence.adapter;
+
+import com.ordersystem.api.BaseIntegrationTest;
+import com.ordersystem.domain.enums.OrderStatus;
+import com.ordersystem.domain.model.UserOrderStats;
+import com.ordersystem.domain.repository.UserOrderStatsRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests de integración para UserOrderStatsRepositoryAdapter.
+ *
+ * Verifica que el primer pedido de un usuario inserta su fila de estadísticas
+ * y que los siguientes la incrementan sin perder la fecha del pedido más reciente.
+ */
+@DisplayName("UserOrderStatsRepositoryAdapter - Integration Tests")
+class UserOrderStatsRepositoryAdapterIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private UserOrderStatsRepository statsRepository;
+
+    @Test
+    @DisplayName("recordOrderCreated inserta la fila con el primer pedido y la incrementa con los siguientes")
+    void recordOrderCreated_InsertsThenIncrements() {
+        LocalDateTime first = LocalDateTime.of(2024, 1, 10, 12, 0);
+        LocalDateTime latest = first.plusDays(1);
+
+        statsRepository.recordOrderCreated(1L, first);
+        assertThat(statsRepository.findByUserId(1L)).get()
+                .satisfies(stats -> assertThat(stats.getCountsByStatus().get(OrderStatus.CREATED)).isEqualTo(1))
+                .satisfies(stats -> assertThat(stats.getLastOrderAt()).isEqualTo(first));
+
+        statsRepository.recordOrderCreated(1L, latest);
+        statsRepository.recordOrderCreated(1L, first);
+
+        UserOrderStats stats = statsRepository.findByUserId(1L).orElseThrow();
+        assertThat(stats.getCountsByStatus().get(OrderStatus.CREATED)).isEqualTo(3);
+        assertThat(stats.getLastOrderAt()).isEqualTo(latest);
+    }
+}
@@ -0,0 +1,128 @@
+package com.ordersystem.infrastructure.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests unitarios para JwtTokenProvider
+ * Verifica los claims del token y la caché de tokens verificados
+ */
+@DisplayName("JwtTokenProvider - Tests Unitarios")
+class JwtTokenProviderTest {
+
+    private static final String SECRET = "test-secret-key-for-testing-purposes-only-64-characters-long";
+
+    private SimpleMeterRegistry meterRegistry;
+    private JwtTokenProvider tokenProvider;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        tokenProvider = new JwtTokenProvider(SECRET, 3_600_000L, 100, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Debe reconstruir el usuario (ID y roles) desde los claims")
+    void shouldAuthenticateFromClaims() {
+        String token = tokenProvider.generateToken(login(2L, "admin@test.com", "ROLE_USER", "ROLE_ADMIN"));
+
+        Optional<AuthenticatedUser> user = tokenProvider.authenticate(token).map(VerifiedToken::user);
+
+        assertThat(user).isPresent();
+        assertThat(user.get().getId()).isEqualTo(2L);
+        assertThat(user.get().getUsername()).isEqualTo("admin@test.com");
+        assertThat(user.get().getAuthorities())
+                .extracting("authority")
+                .containsExactlyInAnyOrder("ROLE_USER", "ROLE_ADMIN");
+    }
+
+    @Test
+    @DisplayName("Debe reutilizar el token ya verificado sin volver a parsearlo")
+    void shouldServeVerifiedTokenFromCache() {
+        String token = tokenProvider.generateToken(login(1L, "user@test.com", "ROLE_USER"));
+
+        VerifiedToken first = tokenProvider.authenticate(token).orElseThrow();
+        VerifiedToken second = tokenProvider.authenticate(token).orElseThrow();
+
+        assertThat(second).isSameAs(first);
+        assertThat(cacheGets("hit")).isEqualTo(1.0);
+        assertThat(cacheGets("miss")).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Cada token debe tener un ID (jti) distinto para poder revocarlo")
+    void shouldAssignUniqueTokenIds() {
+        UsernamePasswordAuthenticationToken login = login(1L, "user@test.com", "ROLE_USER");
+
+        VerifiedToken first = tokenProvider.authenticate(tokenProvider.generateToken(login)).orElseThrow();
+        VerifiedToken second = tokenProvider.authenticate(tokenProvider.generateToken(login)).orElseThrow();
+
+        assertThat(first.tokenId()).isNotBlank();
+        assertThat(second.tokenId()).isNotEqualTo(first.tokenId());
+        assertThat(first.expiresAtMillis()).isGreaterThan(System.currentTimeMillis());
+    }
+
+    @Test
+    @DisplayName("Debe rechazar un token con firma alterada")
+    void shouldRejectTamperedToken() {
+        String token = tokenProvider.generateToken(login(1L, "user@test.com", "ROLE_USER"));
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThat(tokenProvider.authenticate(tampered)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Debe rechazar un token válido sin el ID del usuario")
+    void shouldRejectTokenWithoutUserId() {
+        String token = tokenProvider.generateToken(login(null, "user@test.com", "ROLE_USER"));
+
+        assertThat(tokenProvider.parseClaims(token)).isPresent();
+        assertThat(tokenProvider.authenticate(token)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Debe rechazar un token firmado con otra clave")
+    void shouldRejectTokenSignedWithOtherKey() {
+        JwtTokenProvider other = new JwtTokenProvider(
+                SECRET.replace("test", "prod"), 3_600_000L, 100, new SimpleMeterRegistry());
+        String token = other.generateToken(login(1L, "user@test.com", "ROLE_USER"));
+
+        assertThat(tokenProvider.authenticate(token)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Debe rechazar un token expirado y no cachearlo")
+    void shouldRejectExpiredToken() {
+        JwtTokenProvider expiring = new JwtTokenProvider(SECRET, -1_000L, 100, meterRegistry);
+        String token = expiring.generateToken(login(1L, "user@test.com", "ROLE_USER"));
+
+        assertThat(expiring.authenticate(token)).isEmpty();
+        assertThat(expiring.authenticate(token)).isEmpty();
+    }
+
+    private UsernamePasswordAuthenticationToken login(Long id, String email, String... roles) {
+        List<SimpleGrantedAuthority> authorities = Arrays.stream(roles)
+                .map(SimpleGrantedAuthority::new)
+                .toList();
+        AuthenticatedUser user = new AuthenticatedUser(id, email, "secret", true, authorities);
+        return new UsernamePasswordAuthenticationToken(user, null, authorities);
+    }
+
+    private double cacheGets(String result) {
+        return meterRegistry.get("cache.gets")
+                .tag("cache", "jwt.verified")
+                .tag("result", result)
+                .functionCounter()
+                .count();
+    }
+}